@@ -83,6 +83,7 @@ const OrderForm = ({ stockSymbol, currentPrice }: OrderFormProps) => {
           stockSymbol,
           quantity: parseInt(quantity),
           orderType: orderSide.toUpperCase(),
+          priceType: orderType.toUpperCase(),
           price: orderType === 'limit' ? parseFloat(limitPrice) : currentPrice
         })
       });
@@ -264,7 +264,7 @@ const StockDetailPage = () => {
 
   // Single useEffect for websocket
   useEffect(() => {
-    const subscription = websocketService.subscribe('/topic/stock-updates', (message) => {
+    const subscription = websocketService.subscribe(`/topic/stock-updates/${symbol}`, (message) => {
       try {
         const data: StockData = typeof message === 'string' 
           ? JSON.parse(message.replace(/'/g, '"')) 
@@ -335,7 +335,7 @@ const StockDetailPage = () => {
   // Modify the useEffect to include a timeout for mock data
   useEffect(() => {
     // Try to get data from websocket
-    const subscription = websocketService.subscribe('/topic/stock-updates', (message) => {
+    const subscription = websocketService.subscribe(`/topic/stock-updates/${symbol}`, (message) => {
       try {
         const data: StockData = typeof message === 'string' 
           ? JSON.parse(message.replace(/'/g, '"')) 
@@ -55,7 +55,12 @@ class WebSocketService {
     return this.stompClient.subscribe(destination, (message) => {
       try {
         const payload = JSON.parse(message.body);
-        callback(payload);
+        // Price updates arrive as conflated frames holding every symbol that changed
+        if (Array.isArray(payload)) {
+          payload.forEach((update) => callback(update));
+        } else {
+          callback(payload);
+        }
       } catch (e) {
         callback(message.body);
       }
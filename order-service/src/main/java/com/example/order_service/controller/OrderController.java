@@ -1,37 +1,118 @@
 package com.example.order_service.controller;
 
 
+import com.example.order_service.dto.BatchOrderResultDto;
 import com.example.order_service.dto.OrderDto;
+import com.example.order_service.dto.OrderStatusDto;
 import com.example.order_service.dto.OrderWithPositionsDto;
+import com.example.order_service.dto.TriggerOrderDto;
+import com.example.order_service.intake.AckMode;
+import com.example.order_service.intake.OrderScheduler;
 import com.example.order_service.service.OrderService;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@Slf4j
 @RequestMapping(path = "/api/order", produces = {MediaType.APPLICATION_JSON_VALUE})
 public class OrderController {
 
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderScheduler orderScheduler;
+
+    @Value("${orders.ack-mode:durable}")
+    private String defaultAckMode;
+
+    /**
+     * {@code ack=accepted} answers as soon as the order has an id, {@code ack=durable}
+     * once it is committed; the default comes from {@code orders.ack-mode}. Orders wait
+     * their user's turn in the {@link OrderScheduler} first.
+     */
     @PostMapping("/place/{userId}")
-    public ResponseEntity<String> placeOrder(@RequestBody OrderDto orderDto, @PathVariable("userId") String userId) throws JsonProcessingException {
-        orderService.placeOrder(orderDto.getStockSymbol(), orderDto.getQuantity(), orderDto.getOrderType(), userId, null);
-        return ResponseEntity.ok("Order placed successfully");
+    public CompletableFuture<ResponseEntity<String>> placeOrder(@RequestBody OrderDto orderDto, @PathVariable("userId") String userId,
+                                                                @RequestParam(value = "ack", required = false) String ack) {
+        BigDecimal limitPrice = "LIMIT".equalsIgnoreCase(orderDto.getPriceType()) ? orderDto.getPrice() : null;
+        AckMode ackMode = AckMode.fromCode(ack != null ? ack : defaultAckMode);
+        return orderScheduler.submit(userId, () -> orderService.submitOrder(orderDto.getStockSymbol(), orderDto.getQuantity(),
+                        orderDto.getOrderType(), userId, null, limitPrice, ackMode))
+                .thenApply(orderId -> ResponseEntity.ok("Order placed successfully: " + orderId));
+    }
+
+    /**
+     * Thousands of orders in one request, as a JSON array or newline-delimited JSON.
+     * Every order goes through the user's {@link OrderScheduler} queue; answers with one
+     * result per order once every order is committed or has failed.
+     */
+    @PostMapping("/batch/{userId}")
+    public CompletableFuture<ResponseEntity<List<BatchOrderResultDto>>> placeOrderBatch(@PathVariable("userId") String userId,
+                                                                                     HttpServletRequest request) throws IOException {
+        return orderService.placeOrderBatch(userId, request.getInputStream())
+                .thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/sell/{userId}/{positionId}")
-    public ResponseEntity<String> sellOrder(@RequestBody OrderDto orderDto, @PathVariable("userId") String userId, @PathVariable("positionId") Long positionId) throws JsonProcessingException {
-        orderService.placeOrder(orderDto.getStockSymbol(), orderDto.getQuantity(), orderDto.getOrderType(), userId, positionId);
-        return ResponseEntity.ok("Order closed successfully");
+    public CompletableFuture<ResponseEntity<String>> sellOrder(@RequestBody OrderDto orderDto, @PathVariable("userId") String userId,
+                                                               @PathVariable("positionId") Long positionId) {
+        return orderScheduler.submit(userId, () -> orderService.submitOrder(orderDto.getStockSymbol(), orderDto.getQuantity(),
+                        orderDto.getOrderType(), userId, positionId, null, AckMode.DURABLE))
+                .thenApply(orderId -> ResponseEntity.ok("Order closed successfully"));
+    }
+
+    /**
+     * Stop or take-profit order, held until a price tick crosses its trigger price.
+     */
+    @PostMapping("/trigger/{userId}")
+    public ResponseEntity<String> placeTriggerOrder(@RequestBody TriggerOrderDto triggerOrderDto, @PathVariable("userId") String userId) {
+        String triggerId = orderService.placeTriggerOrder(userId, triggerOrderDto);
+        return ResponseEntity.ok("Trigger order placed successfully: " + triggerId);
+    }
+
+    @GetMapping("/trigger/{userId}")
+    public ResponseEntity<List<TriggerOrderDto>> getTriggerOrders(@PathVariable("userId") String userId) {
+        return ResponseEntity.ok(orderService.getTriggerOrdersByUserId(userId));
+    }
+
+    @DeleteMapping("/trigger/{userId}/{triggerId}")
+    public ResponseEntity<String> cancelTriggerOrder(@PathVariable("userId") String userId, @PathVariable("triggerId") String triggerId) {
+        if (!orderService.cancelTriggerOrder(userId, triggerId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("Trigger order cancelled successfully");
+    }
+
+    /**
+     * What became of an order placed with {@code ack=accepted}.
+     */
+    @GetMapping("/status/{orderId}")
+    public ResponseEntity<OrderStatusDto> getOrderStatus(@PathVariable("orderId") String orderId) {
+        OrderStatusDto status = orderService.getOrderStatus(orderId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @DeleteMapping("/cancel/{userId}/{symbol}/{orderId}")
+    public ResponseEntity<String> cancelOrder(@PathVariable("userId") String userId, @PathVariable("symbol") String symbol,
+                                              @PathVariable("orderId") String orderId) {
+        if (!orderService.cancelOrder(userId, symbol, orderId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("Order cancelled successfully");
     }
 
 
@@ -51,10 +132,15 @@ public class OrderController {
             fullUrl += "?" + queryString;
         }
 
-        System.out.println("Full URL: " + fullUrl);
+        log.debug("Full URL: {}", fullUrl);
         return ResponseEntity.ok(fullUrl);
     }
 
+    @GetMapping("/settlements/{settlementId}/fills")
+    public ResponseEntity<List<OrderDto>> getSettlementFills(@PathVariable("settlementId") String settlementId) {
+        return ResponseEntity.ok(orderService.getFillsBySettlementId(settlementId));
+    }
+
     @GetMapping("/users/{userId}")
     public ResponseEntity<List<OrderDto>> getOrdersByUserId(@PathVariable("userId") String userId)
     {
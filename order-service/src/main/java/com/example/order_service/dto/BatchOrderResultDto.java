@@ -0,0 +1,31 @@
+package com.example.order_service.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Outcome of one order of a batch, in request order:
+ * <ul>
+ *     <li>{@code ACCEPTED} - committed, with what filled and what rests in the book</li>
+ *     <li>{@code REJECTED} - failed validation or admission and was never matched</li>
+ *     <li>{@code FAILED} - matched but its rows could not be written, so the match was undone</li>
+ * </ul>
+ * Anything but {@code ACCEPTED} carries the reason in {@code message} and left no trace.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchOrderResultDto {
+
+    private int index;
+    private String orderId;
+    private String status;
+    private int filledQuantity;
+    private int restingQuantity;
+    private String message;
+
+}
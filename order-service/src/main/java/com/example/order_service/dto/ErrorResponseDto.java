@@ -0,0 +1,18 @@
+package com.example.order_service.dto;
+
+
+import lombok.*;
+import org.springframework.http.HttpStatus;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+
+public class ErrorResponseDto {
+
+    private String apiPath;
+    private HttpStatus statusCode;
+    private String message;
+
+}
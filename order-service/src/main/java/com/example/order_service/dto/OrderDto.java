@@ -19,4 +19,9 @@ public class OrderDto {
     private Integer quantity;
     private String orderType;
     private BigDecimal price;
+    private String priceType;
+
+    public OrderDto(String id, String stockSymbol, Integer quantity, String orderType, BigDecimal price) {
+        this(id, stockSymbol, quantity, orderType, price, null);
+    }
 }
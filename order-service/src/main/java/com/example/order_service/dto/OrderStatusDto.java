@@ -0,0 +1,21 @@
+package com.example.order_service.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusDto {
+
+    private String orderId;
+    private String status;
+    private int filledQuantity;
+    private int restingQuantity;
+    private String message;
+
+}
@@ -0,0 +1,24 @@
+package com.example.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Fills of a settlement window that closed (part of) one position, with {@code price}
+ * their total proceeds like the {@code price} of an order row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementClose {
+
+    private Long positionId;
+
+    private Long quantity;
+
+    private BigDecimal price;
+
+}
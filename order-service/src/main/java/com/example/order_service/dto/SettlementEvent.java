@@ -0,0 +1,55 @@
+package com.example.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The fills of one user in one symbol over a settlement window, netted. Fills that close
+ * a position are listed in {@code closes}; the rest are summed in the buy and sell
+ * totals and netted:
+ * <ul>
+ *     <li>{@code quantity} - bought minus sold, negative for a net sell</li>
+ *     <li>{@code price} - cost of a net buy or proceeds of a net sell (negative) at the
+ *     window's average price, like the {@code price} of an order row</li>
+ *     <li>{@code realizedProfitLoss} - profit of the quantity both bought and sold within
+ *     the window, at the difference of the average prices</li>
+ * </ul>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementEvent {
+
+    private String id;
+
+    private String userId;
+
+    private String stockSymbol;
+
+    private Long quantity;
+
+    private BigDecimal price;
+
+    private Long buyQuantity;
+
+    private BigDecimal buyPrice;
+
+    private Long sellQuantity;
+
+    private BigDecimal sellPrice;
+
+    private BigDecimal realizedProfitLoss;
+
+    private List<SettlementClose> closes;
+
+    private Integer fillCount;
+
+    private Long settledAt;
+
+}
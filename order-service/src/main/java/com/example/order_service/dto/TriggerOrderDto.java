@@ -0,0 +1,34 @@
+package com.example.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * A conditional order. {@code triggerType} is STOP (buy when the price rises to the
+ * trigger, sell when it falls to it) or TAKE_PROFIT (the reverse). Once triggered it is
+ * placed as a limit order if {@code limitPrice} is set, otherwise at market.
+ * {@code status} is ACTIVE while it waits, or FAILED with {@code failureReason} if the
+ * order could not be placed; both are ignored on input.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TriggerOrderDto {
+
+    private String id;
+    private String stockSymbol;
+    private Integer quantity;
+    private String orderType;
+    private String triggerType;
+    private BigDecimal triggerPrice;
+    private BigDecimal limitPrice;
+    private Long positionId;
+    private String status;
+    private String failureReason;
+
+}
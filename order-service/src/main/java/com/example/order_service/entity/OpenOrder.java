@@ -0,0 +1,46 @@
+package com.example.order_service.entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * A limit order resting in its book, with the quantity still open. Rows change in the
+ * same transaction as the fills that change the book and are read back in
+ * {@code sequence} order on startup, which restores time priority.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Table(name = "open_order", indexes = @Index(name = "idx_open_order_sequence", columnList = "sequence"))
+@Setter
+@Builder
+public class OpenOrder {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private String stockSymbol;
+
+    @Column(nullable = false)
+    private String orderType;
+
+    @Column(nullable = false)
+    private BigDecimal limitPrice;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    private Long positionId;
+
+    @Column(nullable = false)
+    private Long sequence;
+
+}
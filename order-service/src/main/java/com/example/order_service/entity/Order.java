@@ -10,7 +10,7 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
-@Table(name = "order_table")
+@Table(name = "order_table", indexes = @Index(name = "idx_order_settlement", columnList = "settlementId"))
 @Setter
 @Builder
 public class Order {
@@ -37,4 +37,7 @@ public class Order {
 
     private String status;
 
+    // Netted settlement this fill went out in; null for fills published one by one
+    private String settlementId;
+
 }
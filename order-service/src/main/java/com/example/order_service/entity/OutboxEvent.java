@@ -0,0 +1,36 @@
+package com.example.order_service.entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A Kafka record waiting to be published. Rows are written in the same transaction as
+ * the orders they describe and removed by the relay once the broker has acknowledged them.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Table(name = "order_outbox")
+@Setter
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column
+    private String messageKey;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false)
+    private Long createdAt;
+
+}
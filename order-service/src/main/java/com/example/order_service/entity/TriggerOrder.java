@@ -0,0 +1,53 @@
+package com.example.order_service.entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * A stop or take-profit order waiting for its trigger price. Rows are read back into the
+ * trigger engine on startup and deleted once the order has been placed; a trigger whose
+ * order failed stays as FAILED with the reason until the user cancels it.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Table(name = "order_trigger", indexes = @Index(name = "idx_order_trigger_user", columnList = "userId"))
+@Setter
+@Builder
+public class TriggerOrder {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private String stockSymbol;
+
+    @Column(nullable = false)
+    private String orderType;
+
+    @Column(nullable = false)
+    private String triggerCondition;
+
+    @Column(nullable = false)
+    private BigDecimal triggerPrice;
+
+    private BigDecimal limitPrice;
+
+    private Integer quantity;
+
+    private Long positionId;
+
+    private Long createdAt;
+
+    private String status;
+
+    private String failureReason;
+
+}
@@ -0,0 +1,18 @@
+package com.example.order_service.intake;
+
+/**
+ * When an order request is answered. {@code ACCEPTED} returns once the order is validated
+ * and has its id; {@code DURABLE} waits until its rows are committed.
+ */
+public enum AckMode {
+    ACCEPTED,
+    DURABLE;
+
+    public static AckMode fromCode(String code) {
+        try {
+            return AckMode.valueOf(code.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown ack mode: " + code);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.order_service.intake;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes to {@code open_order} that go with one group of order rows. Within a group an
+ * order is always inserted before it is updated and updated before it is deleted, so
+ * applying all inserts, then all updates, then all deletes keeps their order.
+ */
+final class OpenOrderChanges {
+
+    final List<Object[]> inserts = new ArrayList<>();
+    final List<Object[]> updates = new ArrayList<>();
+    final List<Object[]> deletes = new ArrayList<>();
+
+    void insert(String id, String userId, String stockSymbol, String orderType, Object limitPrice, int quantity, Long positionId,
+                long sequence) {
+        inserts.add(new Object[]{id, userId, stockSymbol, orderType, limitPrice, quantity, positionId, sequence});
+    }
+
+    void update(String id, int quantity) {
+        updates.add(new Object[]{quantity, id});
+    }
+
+    void delete(String id) {
+        deletes.add(new Object[]{id});
+    }
+
+    boolean isEmpty() {
+        return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.order_service.intake;
+
+import com.example.order_service.entity.Order;
+import com.example.order_service.matching.BookCommitter;
+import com.example.order_service.matching.Fill;
+import com.example.order_service.matching.MatchResult;
+import com.example.order_service.matching.OrderRequest;
+import com.example.order_service.matching.Side;
+import com.example.order_service.pricing.PriceTable;
+import com.example.order_service.risk.RiskEngine;
+import com.example.order_service.util.FixedPoint;
+import com.example.order_service.util.OrderIds;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns a shard's batch of matches into order rows and {@code open_order} changes and
+ * writes them through the {@link OrderWriter}. Risk state follows the books: fills are
+ * settled only once their rows are committed, and a rolled back order gives its
+ * reservation back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderCommitter implements BookCommitter {
+
+    private static final String SELECT_OPEN_ORDERS_SQL = "SELECT id, user_id, stock_symbol, order_type, limit_price, quantity, "
+            + "position_id, sequence FROM open_order ORDER BY sequence";
+
+    private final OrderWriter orderWriter;
+    private final RiskEngine riskEngine;
+    private final PriceTable priceTable;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Time priority of resting orders across restarts; continues from the highest stored
+    private final AtomicLong restSequence = new AtomicLong();
+
+    @Override
+    public List<OrderRequest> openOrders() {
+        List<OrderRequest> orders = new ArrayList<>();
+        try {
+            jdbcTemplate.query(SELECT_OPEN_ORDERS_SQL, rs -> {
+                OrderRequest order = new OrderRequest(rs.getString("id"), rs.getString("user_id"), rs.getObject("position_id", Long.class),
+                        rs.getString("stock_symbol"), Side.valueOf(rs.getString("order_type")), FixedPoint.toTicks(rs.getBigDecimal("limit_price")),
+                        rs.getInt("quantity"), 0);
+                riskEngine.restore(order.getOrderId(), order.getUserId(), order.getSymbol(), order.getSide(), order.getQuantity(),
+                        order.getLimitPrice());
+                restSequence.accumulateAndGet(rs.getLong("sequence"), Math::max);
+                orders.add(order);
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not load resting orders: {}", e.getMessage());
+        }
+        return orders;
+    }
+
+    @Override
+    public CompletableFuture<Void> commit(List<MatchResult> matches, List<String> cancelledOrderIds) {
+        List<Order> rows = new ArrayList<>(matches.size() * 2);
+        OpenOrderChanges openOrders = new OpenOrderChanges();
+        for (MatchResult result : matches) {
+            result.setRemainderPrice(remainderPrice(result.getRequest()));
+            addOrderRows(rows, result);
+            addOpenOrderChanges(openOrders, result);
+        }
+        cancelledOrderIds.forEach(openOrders::delete);
+        if (rows.isEmpty() && openOrders.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return orderWriter.write(rows, openOrders);
+    }
+
+    @Override
+    public void afterCommit(List<MatchResult> matches, List<String> cancelledOrderIds) {
+        for (MatchResult result : matches) {
+            riskEngine.settle(result, result.getRemainderPrice());
+        }
+        cancelledOrderIds.forEach(riskEngine::cancel);
+    }
+
+    @Override
+    public void afterRollback(List<MatchResult> matches, List<String> cancelledOrderIds, Throwable cause) {
+        for (MatchResult result : matches) {
+            riskEngine.release(result.getOrderId());
+        }
+    }
+
+    // Market remainders fill at the latest price, which is at least as new as the reference
+    private long remainderPrice(OrderRequest request) {
+        long latest = priceTable.price(request.getSymbol());
+        return latest > 0 ? latest : request.getReferencePrice();
+    }
+
+    private static void addOrderRows(List<Order> rows, MatchResult result) {
+        OrderRequest request = result.getRequest();
+        Side side = request.getSide();
+        for (Fill fill : result.getFills()) {
+            BigDecimal fillPrice = FixedPoint.toBigDecimal(fill.getPrice());
+            rows.add(fillRow(request.getSymbol(), fill.getQuantity(), side, fillPrice, fill.getTakerUserId(), request.getPositionId()));
+            rows.add(fillRow(request.getSymbol(), fill.getQuantity(), opposite(side), fillPrice, fill.getMakerUserId(),
+                    fill.getMakerPositionId()));
+        }
+
+        if (request.isMarket() && result.getRemainingQuantity() > 0 && result.getRemainderPrice() > 0) {
+            rows.add(fillRow(request.getSymbol(), result.getRemainingQuantity(), side, FixedPoint.toBigDecimal(result.getRemainderPrice()),
+                    request.getUserId(), request.getPositionId()));
+        }
+    }
+
+    // Makers are inserted when they rest, so by now their rows exist or precede in the group
+    private void addOpenOrderChanges(OpenOrderChanges openOrders, MatchResult result) {
+        for (Fill fill : result.getFills()) {
+            if (fill.getMakerRemaining() == 0) {
+                openOrders.delete(fill.getMakerOrderId());
+            } else {
+                openOrders.update(fill.getMakerOrderId(), fill.getMakerRemaining());
+            }
+        }
+        if (result.isResting()) {
+            OrderRequest request = result.getRequest();
+            openOrders.insert(request.getOrderId(), request.getUserId(), request.getSymbol(), request.getSide().name(),
+                    FixedPoint.toBigDecimal(request.getLimitPrice()), result.getRemainingQuantity(), request.getPositionId(),
+                    restSequence.incrementAndGet());
+        }
+    }
+
+    private static Order fillRow(String stockSymbol, int quantity, Side side, BigDecimal stockPrice, String userId, Long positionId) {
+        BigDecimal totalCost = stockPrice.multiply(BigDecimal.valueOf(quantity));
+
+        String orderStatus = positionId != null ? "CLOSED" : "OPEN";
+        Order newOrder = new Order();
+        newOrder.setId(OrderIds.next());
+        newOrder.setOrderType(side.name());
+        newOrder.setStockSymbol(stockSymbol);
+        newOrder.setQuantity(quantity);
+        newOrder.setPrice(totalCost);
+        newOrder.setUserId(userId);
+        newOrder.setPositionId(positionId);
+        newOrder.setStatus(orderStatus);
+        return newOrder;
+    }
+
+    private static Side opposite(Side side) {
+        return side == Side.BUY ? Side.SELL : Side.BUY;
+    }
+}
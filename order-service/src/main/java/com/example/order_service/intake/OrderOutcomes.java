@@ -0,0 +1,51 @@
+package com.example.order_service.intake;
+
+import com.example.order_service.dto.OrderStatusDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What became of orders acknowledged with {@link AckMode#ACCEPTED}, whose callers have
+ * already been answered. Holds the most recent {@code orders.outcomes.capacity} orders.
+ */
+@Component
+public class OrderOutcomes {
+
+    public static final String PENDING = "PENDING";
+    public static final String COMMITTED = "COMMITTED";
+    public static final String FAILED = "FAILED";
+
+    private final Map<String, OrderStatusDto> outcomes;
+
+    public OrderOutcomes(@Value("${orders.outcomes.capacity:100000}") int capacity) {
+        this.outcomes = new LinkedHashMap<>(1024, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OrderStatusDto> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public void pending(String orderId) {
+        put(new OrderStatusDto(orderId, PENDING, 0, 0, null));
+    }
+
+    public void committed(String orderId, int filledQuantity, int restingQuantity) {
+        put(new OrderStatusDto(orderId, COMMITTED, filledQuantity, restingQuantity, null));
+    }
+
+    public void failed(String orderId, String message) {
+        put(new OrderStatusDto(orderId, FAILED, 0, 0, message));
+    }
+
+    public synchronized OrderStatusDto get(String orderId) {
+        return outcomes.get(orderId);
+    }
+
+    private synchronized void put(OrderStatusDto status) {
+        outcomes.put(status.getOrderId(), status);
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.order_service.intake;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Weighted fair admission for order placement. Every user with waiting orders has a
+ * queue; a single dispatcher serves the queues deficit round robin, each visit adding the
+ * tier's weight to the user's deficit and every order costing one, and keeps at most
+ * {@code orders.scheduler.max-in-flight} orders between admission and their result. A
+ * user flooding the service therefore only lengthens their own queue.
+ * <p>
+ * Tiers are listed in {@code orders.scheduler.tiers}; each has
+ * {@code orders.scheduler.tier.<name>.weight} and {@code .queue-capacity}. Users are put in
+ * a tier with {@code orders.scheduler.users.<userId>=<tier>}, everyone else is in
+ * {@code orders.scheduler.default-tier}. A full queue rejects the order.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderScheduler {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${orders.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.scheduler.tiers:standard}")
+    private String[] tierNames;
+
+    @Value("${orders.scheduler.default-tier:standard}")
+    private String defaultTier;
+
+    @Value("${orders.scheduler.max-in-flight:256}")
+    private int maxInFlight;
+
+    @Value("${orders.scheduler.max-queued:100000}")
+    private int maxQueued;
+
+    private final Map<String, Tier> tiers = new HashMap<>();
+    private final Map<String, Tier> userTiers = new ConcurrentHashMap<>();
+
+    // Guarded by lock
+    private final Map<String, UserQueue> queues = new HashMap<>();
+    private final ArrayDeque<UserQueue> active = new ArrayDeque<>();
+    private int queued;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private Semaphore inFlight;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        for (String name : tierNames) {
+            String prefix = "orders.scheduler.tier." + name + ".";
+            int weight = environment.getProperty(prefix + "weight", Integer.class, 1);
+            int queueCapacity = environment.getProperty(prefix + "queue-capacity", Integer.class, 1000);
+            if (weight < 1) {
+                throw new IllegalStateException("Scheduler tier " + name + " needs a weight of at least 1");
+            }
+            tiers.put(name, new Tier(name, weight, queueCapacity, meterRegistry));
+        }
+        if (!tiers.containsKey(defaultTier)) {
+            throw new IllegalStateException("Default scheduler tier " + defaultTier + " is not in orders.scheduler.tiers");
+        }
+        meterRegistry.gauge("orders.scheduler.queued", this, OrderScheduler::queued);
+        if (!enabled) {
+            return;
+        }
+        inFlight = new Semaphore(maxInFlight);
+        running = true;
+        dispatcher = new Thread(this::run, "order-scheduler");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Queues {@code order} for {@code userId}; it runs once the user's turn comes and a slot
+     * is free, and the returned future completes with its response. The slot is held until
+     * the order is {@link Placement#done() done}, not just answered.
+     *
+     * @throws RejectedExecutionException if the user's queue or the scheduler is full
+     */
+    public <T> CompletableFuture<T> submit(String userId, Supplier<Placement<T>> order) {
+        if (!enabled) {
+            return order.get().response();
+        }
+        Tier tier = tierOf(userId);
+        Task<T> task = new Task<>(order, tier);
+        lock.lock();
+        try {
+            UserQueue queue = queues.get(userId);
+            if ((queue != null && queue.tasks.size() >= tier.queueCapacity) || queued >= maxQueued) {
+                tier.rejected.increment();
+                throw new RejectedExecutionException("Too many queued orders for user " + userId);
+            }
+            if (queue == null) {
+                queue = new UserQueue(userId, tier);
+                queues.put(userId, queue);
+                active.addLast(queue);
+            }
+            queue.tasks.addLast(task);
+            queued++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return task.result;
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Tier tierOf(String userId) {
+        if (userId == null) {
+            return tiers.get(defaultTier);
+        }
+        return userTiers.computeIfAbsent(userId, id -> {
+            String name = environment.getProperty("orders.scheduler.users." + id, defaultTier);
+            Tier tier = tiers.get(name);
+            if (tier == null) {
+                log.warn("User {} is in unknown scheduler tier {}, using {}", id, name, defaultTier);
+                return tiers.get(defaultTier);
+            }
+            return tier;
+        });
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                inFlight.acquire();
+                Task<?> task = next();
+                if (task == null) {
+                    inFlight.release();
+                    continue;
+                }
+                task.tier.delay.record(System.nanoTime() - task.enqueuedAt, TimeUnit.NANOSECONDS);
+                task.run(inFlight);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Deficit round robin over the users with waiting orders; null on shutdown
+    private Task<?> next() throws InterruptedException {
+        lock.lock();
+        try {
+            while (active.isEmpty()) {
+                if (!running) {
+                    return null;
+                }
+                notEmpty.await(100, TimeUnit.MILLISECONDS);
+            }
+            while (true) {
+                UserQueue queue = active.peekFirst();
+                if (!queue.visited) {
+                    queue.deficit += queue.tier.weight;
+                    queue.visited = true;
+                }
+                if (queue.deficit >= 1) {
+                    queue.deficit--;
+                    queued--;
+                    Task<?> task = queue.tasks.pollFirst();
+                    if (queue.tasks.isEmpty()) {
+                        active.pollFirst();
+                        queues.remove(queue.userId);
+                    }
+                    return task;
+                }
+                // Quantum used up: next user's turn
+                active.pollFirst();
+                queue.visited = false;
+                active.addLast(queue);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (dispatcher != null) {
+            running = false;
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private static final class Tier {
+
+        private final int weight;
+        private final int queueCapacity;
+        private final Timer delay;
+        private final Counter rejected;
+
+        private Tier(String name, int weight, int queueCapacity, MeterRegistry meterRegistry) {
+            this.weight = weight;
+            this.queueCapacity = queueCapacity;
+            this.delay = Timer.builder("orders.scheduler.queue.delay")
+                    .tag("tier", name)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            this.rejected = meterRegistry.counter("orders.scheduler.rejected", "tier", name);
+        }
+    }
+
+    private static final class UserQueue {
+
+        private final String userId;
+        private final Tier tier;
+        private final ArrayDeque<Task<?>> tasks = new ArrayDeque<>();
+        private long deficit;
+        private boolean visited;
+
+        private UserQueue(String userId, Tier tier) {
+            this.userId = userId;
+            this.tier = tier;
+        }
+    }
+
+    private static final class Task<T> {
+
+        private final Supplier<Placement<T>> order;
+        private final Tier tier;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Task(Supplier<Placement<T>> order, Tier tier) {
+            this.order = order;
+            this.tier = tier;
+        }
+
+        // Holds one in-flight slot until the order is done, which may be after its response
+        private void run(Semaphore inFlight) {
+            Placement<T> placed;
+            try {
+                placed = order.get();
+            } catch (RuntimeException e) {
+                inFlight.release();
+                result.completeExceptionally(e);
+                return;
+            }
+            placed.response().whenComplete((value, ex) -> {
+                if (ex != null) {
+                    result.completeExceptionally(ex);
+                } else {
+                    result.complete(value);
+                }
+            });
+            placed.done().whenComplete((value, ex) -> inFlight.release());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.order_service.intake;
+
+import com.example.order_service.entity.Order;
+import com.example.order_service.settlement.SettlementBatcher;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for order rows. Callers enqueue the rows of one order and get a future;
+ * a single writer thread gathers requests until {@code orders.writer.max-batch} are
+ * waiting or {@code orders.writer.linger-micros} has passed since the first, then inserts
+ * the orders, their outbox events and the matching {@code open_order} changes as JDBC
+ * batches in one transaction and completes every future of the group together.
+ * <p>
+ * With {@code settlement.enabled} the rows are left {@link SettlementBatcher#PENDING} and no
+ * per-order event is written; the batcher publishes them netted instead.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderWriter {
+
+    private static final String INSERT_ORDER_SQL = "INSERT INTO order_table "
+            + "(id, user_id, stock_symbol, quantity, order_type, price, position_id, portfolio_id, status, settlement_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_OPEN_ORDER_SQL = "INSERT INTO open_order "
+            + "(id, user_id, stock_symbol, order_type, limit_price, quantity, position_id, sequence) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_OPEN_ORDER_SQL = "UPDATE open_order SET quantity = ? WHERE id = ?";
+    private static final String DELETE_OPEN_ORDER_SQL = "DELETE FROM open_order WHERE id = ?";
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO order_outbox (topic, message_key, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${orders.writer.max-batch:500}")
+    private int maxBatch;
+
+    @Value("${orders.writer.linger-micros:500}")
+    private long lingerMicros;
+
+    @Value("${orders.writer.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${kafka.topic.order-events}")
+    private String orderEventsTopic;
+
+    @Value("${settlement.enabled:false}")
+    private boolean settlementEnabled;
+
+    private BlockingQueue<PendingWrite> queue;
+    private DistributionSummary batchSizes;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        batchSizes = DistributionSummary.builder("orders.writer.batch.size").register(meterRegistry);
+        running = true;
+        writer = new Thread(this::run, "order-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues order rows and the {@code open_order} changes that go with them; the future
+     * completes when both are committed.
+     */
+    CompletableFuture<Void> write(List<Order> orders, OpenOrderChanges openOrders) {
+        PendingWrite pending = new PendingWrite(orders, openOrders);
+        if (!queue.offer(pending)) {
+            throw new RejectedExecutionException("Order writer queue is full");
+        }
+        return pending.done;
+    }
+
+    public boolean hasCapacity() {
+        return queue.remainingCapacity() > 0;
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+                while (batch.size() < maxBatch) {
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                        continue;
+                    }
+                    long wait = deadline - System.nanoTime();
+                    PendingWrite next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        List<Object[]> orderRows = new ArrayList<>(batch.size() * 2);
+        List<Object[]> outboxRows = new ArrayList<>(settlementEnabled ? 0 : batch.size() * 2);
+        OpenOrderChanges openOrders = new OpenOrderChanges();
+        String settlementId = settlementEnabled ? SettlementBatcher.PENDING : null;
+        try {
+            long now = System.currentTimeMillis();
+            for (PendingWrite pending : batch) {
+                openOrders.inserts.addAll(pending.openOrders.inserts);
+                openOrders.updates.addAll(pending.openOrders.updates);
+                openOrders.deletes.addAll(pending.openOrders.deletes);
+                for (Order order : pending.orders) {
+                    orderRows.add(new Object[]{order.getId(), order.getUserId(), order.getStockSymbol(), order.getQuantity(),
+                            order.getOrderType(), order.getPrice(), order.getPositionId(), order.getPortfolioId(), order.getStatus(),
+                            settlementId});
+                    if (!settlementEnabled) {
+                        outboxRows.add(new Object[]{orderEventsTopic, order.getUserId(), objectMapper.writeValueAsString(order), now});
+                    }
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!orderRows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, orderRows);
+                }
+                if (!openOrders.inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_OPEN_ORDER_SQL, openOrders.inserts);
+                }
+                if (!openOrders.updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_OPEN_ORDER_SQL, openOrders.updates);
+                }
+                if (!openOrders.deletes.isEmpty()) {
+                    jdbcTemplate.batchUpdate(DELETE_OPEN_ORDER_SQL, openOrders.deletes);
+                }
+                if (!outboxRows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, outboxRows);
+                }
+            });
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Failed to write batch of {} orders", batch.size(), e);
+            batch.forEach(pending -> pending.done.completeExceptionally(e));
+            return;
+        }
+        batchSizes.record(batch.size());
+        batch.forEach(pending -> pending.done.complete(null));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static final class PendingWrite {
+
+        private final List<Order> orders;
+        private final OpenOrderChanges openOrders;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private PendingWrite(List<Order> orders, OpenOrderChanges openOrders) {
+            this.orders = orders;
+            this.openOrders = openOrders;
+        }
+    }
+}
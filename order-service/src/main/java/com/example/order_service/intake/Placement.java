@@ -0,0 +1,34 @@
+package com.example.order_service.intake;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An order on its way through intake: {@link #response()} is what its caller waits for,
+ * {@link #done()} completes once the order is committed or has failed. The two differ for
+ * {@link AckMode#ACCEPTED}, which answers before the order is done.
+ */
+public final class Placement<T> {
+
+    private final CompletableFuture<T> response;
+    private final CompletableFuture<?> done;
+
+    public Placement(CompletableFuture<T> response, CompletableFuture<?> done) {
+        this.response = response;
+        this.done = done;
+    }
+
+    /**
+     * An order that is done when its caller is answered.
+     */
+    public static <T> Placement<T> of(CompletableFuture<T> response) {
+        return new Placement<>(response, response);
+    }
+
+    public CompletableFuture<T> response() {
+        return response;
+    }
+
+    public CompletableFuture<?> done() {
+        return done;
+    }
+}
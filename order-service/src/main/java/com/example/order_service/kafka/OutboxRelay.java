@@ -0,0 +1,75 @@
+package com.example.order_service.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the {@code order_outbox} table. Each pass locks up to a batch of the oldest
+ * rows ({@code SKIP LOCKED}, so several instances can relay side by side), sends them all,
+ * waits for the broker to acknowledge the whole batch and deletes the rows in one
+ * statement. If any send fails the transaction rolls back and the batch is retried, so
+ * delivery is at-least-once; consumers identify events by order id.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private static final String SELECT_BATCH_SQL =
+            "SELECT id, topic, message_key, payload FROM order_outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String DELETE_BATCH_SQL = "DELETE FROM order_outbox WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @Value("${outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    @Scheduled(fixedDelayString = "${outbox.relay-interval-ms:50}")
+    public void relay() {
+        Integer published;
+        do {
+            published = transactionTemplate.execute(status -> relayBatch());
+        } while (published != null && published == batchSize);
+    }
+
+    private int relayBatch() {
+        List<Long> ids = new ArrayList<>(batchSize);
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(batchSize);
+        jdbcTemplate.query(SELECT_BATCH_SQL, rs -> {
+            ids.add(rs.getLong("id"));
+            sends.add(kafkaTemplate.send(rs.getString("topic"), rs.getString("message_key"), rs.getString("payload")));
+        }, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        kafkaTemplate.flush();
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Rolls the batch back so its rows are picked up again
+            throw new IllegalStateException("Failed to publish outbox batch of " + ids.size(), e);
+        }
+
+        jdbcTemplate.update(DELETE_BATCH_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+        log.debug("Relayed {} outbox events", ids.size());
+        return ids.size();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.order_service.kafka;
+
+/**
+ * Flyweight over a price tick record produced by stock-service. {@link #wrap} points it
+ * at a message and the accessors read straight out of the bytes, so one instance per
+ * consumer thread decodes every tick without allocating.
+ * <p>
+ * Binary layout (big endian): magic(1) version(1) symbolId(4) price(8) sequence(8)
+ * timestamp(8), price fixed point with 4 decimals. Messages that do not start with the
+ * magic byte are in the legacy JSON format. Only {@link #VERSION} is understood; a tick of
+ * any other version is rejected rather than misread.
+ */
+public final class PriceTickDecoder {
+
+    public static final byte MAGIC = (byte) 0x8A;
+    public static final byte VERSION = 1;
+    public static final int LENGTH = 30;
+
+    private byte[] buffer;
+
+    public PriceTickDecoder wrap(byte[] buffer) {
+        this.buffer = buffer;
+        return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the message is a binary tick of an unknown version
+     */
+    public boolean isBinary() {
+        if (buffer.length < LENGTH || buffer[0] != MAGIC) {
+            return false;
+        }
+        if (buffer[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported price tick version " + buffer[1]);
+        }
+        return true;
+    }
+
+    public int symbolId() {
+        return getInt(2);
+    }
+
+    public long price() {
+        return getLong(6);
+    }
+
+    public long sequence() {
+        return getLong(14);
+    }
+
+    public long timestamp() {
+        return getLong(22);
+    }
+
+    private int getInt(int offset) {
+        return ((buffer[offset] & 0xFF) << 24)
+                | ((buffer[offset + 1] & 0xFF) << 16)
+                | ((buffer[offset + 2] & 0xFF) << 8)
+                | (buffer[offset + 3] & 0xFF);
+    }
+
+    private long getLong(int offset) {
+        return ((long) getInt(offset) << 32) | (getInt(offset + 4) & 0xFFFFFFFFL);
+    }
+}
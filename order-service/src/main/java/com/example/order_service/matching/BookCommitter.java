@@ -0,0 +1,28 @@
+package com.example.order_service.matching;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Makes what a shard did to its books durable. The {@link MatchingEngine} calls it once
+ * per batch of commands and keeps the batch's changes hidden until the returned future
+ * completes: on success the books keep them and {@link #afterCommit} runs, on failure
+ * they are rolled back and {@link #afterRollback} runs instead. Both run on the shard
+ * thread, in batch order.
+ * <p>
+ * Cancelled order ids include resting orders removed by self-trade prevention.
+ */
+public interface BookCommitter {
+
+    /**
+     * Orders resting when the service stopped, in time priority; called once before the
+     * shards start.
+     */
+    List<OrderRequest> openOrders();
+
+    CompletableFuture<Void> commit(List<MatchResult> matches, List<String> cancelledOrderIds);
+
+    void afterCommit(List<MatchResult> matches, List<String> cancelledOrderIds);
+
+    void afterRollback(List<MatchResult> matches, List<String> cancelledOrderIds, Throwable cause);
+}
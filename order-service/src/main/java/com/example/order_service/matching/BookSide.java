@@ -0,0 +1,81 @@
+package com.example.order_service.matching;
+
+import java.util.Arrays;
+
+/**
+ * One side of a book as parallel sorted arrays. The best price always sits at the
+ * end of the arrays, so consuming the top of book and adding near the touch (where
+ * almost all activity happens) are both cheap.
+ */
+final class BookSide {
+
+    private final boolean bids;
+    private long[] prices = new long[32];
+    private PriceLevel[] levels = new PriceLevel[32];
+    private int size;
+
+    BookSide(boolean bids) {
+        this.bids = bids;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    PriceLevel best() {
+        return size == 0 ? null : levels[size - 1];
+    }
+
+    PriceLevel getOrCreate(long price) {
+        int index = search(price);
+        if (index >= 0) {
+            return levels[index];
+        }
+        int insertAt = -index - 1;
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+        System.arraycopy(prices, insertAt, prices, insertAt + 1, size - insertAt);
+        System.arraycopy(levels, insertAt, levels, insertAt + 1, size - insertAt);
+        PriceLevel level = new PriceLevel(price);
+        prices[insertAt] = price;
+        levels[insertAt] = level;
+        size++;
+        return level;
+    }
+
+    void remove(PriceLevel level) {
+        int index = search(level.price);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(prices, index + 1, prices, index, size - index - 1);
+        System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+        size--;
+        levels[size] = null;
+    }
+
+    /**
+     * Bids are stored ascending and asks descending so that in both cases the best
+     * price is last. Binary search over that order; returns the index of the price, or
+     * {@code -(insertion point) - 1} like {@link Arrays#binarySearch}.
+     */
+    private int search(long price) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long current = prices[mid];
+            if (current == price) {
+                return mid;
+            }
+            if (bids ? current < price : current > price) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.order_service.matching;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class Fill {
+
+    private final String symbol;
+    private final String takerOrderId;
+    private final String takerUserId;
+    private final String makerOrderId;
+    private final String makerUserId;
+    private final Long makerPositionId;
+    private final Side takerSide;
+    private final long price;
+    private final int quantity;
+    // What the maker still has resting after this fill
+    private final int makerRemaining;
+}
@@ -0,0 +1,37 @@
+package com.example.order_service.matching;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+public class MatchResult {
+
+    private final OrderRequest request;
+    private final List<Fill> fills;
+    private final int remainingQuantity;
+    private final boolean resting;
+    // The taker's own resting orders it met and cancelled instead of trading with
+    private final List<String> selfTradeCancels;
+
+    // Price an unmatched market remainder was filled at, set when the result is committed
+    @Setter
+    private long remainderPrice;
+
+    public MatchResult(OrderRequest request, List<Fill> fills, int remainingQuantity, boolean resting, List<String> selfTradeCancels) {
+        this.request = request;
+        this.fills = fills;
+        this.remainingQuantity = remainingQuantity;
+        this.resting = resting;
+        this.selfTradeCancels = selfTradeCancels;
+    }
+
+    public String getOrderId() {
+        return request.getOrderId();
+    }
+
+    public int getFilledQuantity() {
+        return request.getQuantity() - remainingQuantity;
+    }
+}
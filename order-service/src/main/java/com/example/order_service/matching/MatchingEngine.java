@@ -0,0 +1,317 @@
+package com.example.order_service.matching;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes every symbol to a fixed shard. Each shard is a single writer thread that
+ * owns its books outright, so matching needs no locks; callers just get a future.
+ * <p>
+ * A shard takes up to {@code matching.max-batch} queued commands at a time and applies
+ * them to its books. Commits are pipelined: while one group of batches is being written by
+ * the {@link BookCommitter}, the shard keeps matching, and everything matched meanwhile
+ * goes out as the next group once the write in flight finishes. Groups are written one at
+ * a time, so a group is only written on top of state the database already has. Futures
+ * complete only once their group is committed. If a write fails, the books are rolled
+ * back to the last committed state and every command of that group and of the batches
+ * matched after it fails, so nothing the database does not know about ever becomes
+ * visible. At most {@code matching.max-uncommitted} commands wait behind a write before
+ * the shard stops to wait for it.
+ */
+@Component
+@Slf4j
+public class MatchingEngine {
+
+    private final Shard[] shards;
+    private final BookCommitter committer;
+
+    public MatchingEngine(@Value("${matching.shards:4}") int shardCount,
+                          @Value("${matching.max-batch:256}") int maxBatch,
+                          @Value("${matching.queue-capacity:65536}") int queueCapacity,
+                          @Value("${matching.max-uncommitted:4096}") int maxUncommitted,
+                          BookCommitter committer) {
+        this.committer = committer;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(maxBatch, queueCapacity, maxUncommitted);
+        }
+    }
+
+    /**
+     * Puts the orders that were resting before a restart back into their books, then
+     * starts the shard threads.
+     */
+    @PostConstruct
+    public void start() {
+        List<OrderRequest> openOrders = committer.openOrders();
+        for (OrderRequest order : openOrders) {
+            shardOf(order.getSymbol()).books.computeIfAbsent(order.getSymbol(), OrderBook::new).restore(order);
+        }
+        for (int i = 0; i < shards.length; i++) {
+            Thread thread = new Thread(shards[i], "matching-shard-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        log.info("Matching engine started with {} shards and {} restored orders", shards.length, openOrders.size());
+    }
+
+    /**
+     * Completes with the committed outcome of the order.
+     *
+     * @throws RejectedExecutionException if the shard's queue is full
+     */
+    public CompletableFuture<MatchResult> submit(OrderRequest request) {
+        Command<MatchResult> command = new Command<>(request, null);
+        shardOf(request.getSymbol()).enqueue(command);
+        return command.result;
+    }
+
+    /**
+     * Completes with false if no order of {@code userId} with that id rests in the book.
+     */
+    public CompletableFuture<Boolean> cancel(String symbol, String orderId, String userId) {
+        Command<Boolean> command = new Command<>(null, orderId);
+        command.symbol = symbol;
+        command.userId = userId;
+        shardOf(symbol).enqueue(command);
+        return command.result;
+    }
+
+    private Shard shardOf(String symbol) {
+        return shards[Math.floorMod(symbol.hashCode(), shards.length)];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.running = false;
+        }
+    }
+
+    private final class Shard implements Runnable {
+
+        // Queued when a write finishes, so a shard waiting for commands notices
+        private final Command<Void> wake = new Command<>(null, null);
+
+        private final int maxBatch;
+        private final int maxUncommitted;
+        private final BlockingQueue<Command<?>> queue;
+        private final Map<String, OrderBook> books = new HashMap<>();
+        private volatile boolean running = true;
+
+        // Only touched by the shard thread
+        private final List<Batch> uncommitted = new ArrayList<>();
+        private int uncommittedCommands;
+        private Group writing;
+
+        private Shard(int maxBatch, int queueCapacity, int maxUncommitted) {
+            this.maxBatch = maxBatch;
+            this.maxUncommitted = maxUncommitted;
+            this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        }
+
+        private void enqueue(Command<?> command) {
+            if (!queue.offer(command)) {
+                throw new RejectedExecutionException("Matching queue is full");
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Command<?>> commands = new ArrayList<>(maxBatch);
+            while (running) {
+                try {
+                    Command<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        commands.add(first);
+                        queue.drainTo(commands, maxBatch - 1);
+                        commands.removeIf(command -> command == wake);
+                        if (!commands.isEmpty()) {
+                            process(commands);
+                        }
+                    }
+                    if (writing != null && (writing.done.isDone() || uncommittedCommands >= maxUncommitted)) {
+                        settle();
+                    }
+                    if (writing == null && !uncommitted.isEmpty()) {
+                        write();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Matching shard failed", e);
+                } finally {
+                    commands.clear();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void process(List<Command<?>> commands) {
+            Batch batch = new Batch(new ArrayList<>(commands));
+            Map<OrderBook, Long> marks = new HashMap<>();
+            try {
+                for (Command<?> command : batch.commands) {
+                    if (command.request != null) {
+                        OrderBook book = books.computeIfAbsent(command.request.getSymbol(), OrderBook::new);
+                        marks.putIfAbsent(book, book.mark());
+                        MatchResult result = book.match(command.request);
+                        command.outcome = result;
+                        batch.matches.add(result);
+                        batch.cancelled.addAll(result.getSelfTradeCancels());
+                        batch.touched.add(book);
+                    } else {
+                        OrderBook book = books.get(command.symbol);
+                        if (book != null) {
+                            marks.putIfAbsent(book, book.mark());
+                        }
+                        boolean removed = book != null && book.cancel(command.orderId, command.userId);
+                        command.outcome = removed;
+                        if (removed) {
+                            batch.cancelled.add(command.orderId);
+                            batch.touched.add(book);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Matching shard failed on a batch of {} commands", batch.commands.size(), e);
+                marks.forEach(OrderBook::rollbackTo);
+                batch.commands.forEach(command -> command.result.completeExceptionally(e));
+                return;
+            }
+
+            if (batch.touched.isEmpty() && writing == null && uncommitted.isEmpty()) {
+                // nothing to write, and no earlier outcome it could depend on is pending
+                for (Command<?> command : batch.commands) {
+                    ((Command<Object>) command).result.complete(command.outcome);
+                }
+                return;
+            }
+            uncommitted.add(batch);
+            uncommittedCommands += batch.commands.size();
+        }
+
+        // Hands every batch matched since the last write to the committer as one group
+        private void write() {
+            Group group = new Group(new ArrayList<>(uncommitted));
+            uncommitted.clear();
+            uncommittedCommands = 0;
+            for (Batch batch : group.batches) {
+                group.matches.addAll(batch.matches);
+                group.cancelled.addAll(batch.cancelled);
+                batch.touched.forEach(book -> group.marks.put(book, book.mark()));
+            }
+            writing = group;
+            if (group.marks.isEmpty()) {
+                group.done = CompletableFuture.completedFuture(null);
+            } else {
+                try {
+                    group.done = committer.commit(group.matches, group.cancelled);
+                } catch (RuntimeException e) {
+                    group.done = CompletableFuture.failedFuture(e);
+                }
+            }
+            group.done.whenComplete((ignored, ex) -> queue.offer(wake));
+        }
+
+        @SuppressWarnings("unchecked")
+        private void settle() {
+            Group group = writing;
+            writing = null;
+            try {
+                group.done.join();
+            } catch (RuntimeException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                fail(group, cause);
+                return;
+            }
+            group.marks.forEach(OrderBook::commitTo);
+            if (!group.marks.isEmpty()) {
+                try {
+                    committer.afterCommit(group.matches, group.cancelled);
+                } catch (RuntimeException e) {
+                    // the rows are committed, so the orders stand regardless
+                    log.error("After-commit hook failed for {} matches", group.matches.size(), e);
+                }
+            }
+            for (Batch batch : group.batches) {
+                for (Command<?> command : batch.commands) {
+                    ((Command<Object>) command).result.complete(command.outcome);
+                }
+            }
+        }
+
+        // Later batches were matched against the failed group's changes, so they go too
+        private void fail(Group group, Throwable cause) {
+            List<Batch> failed = new ArrayList<>(group.batches);
+            failed.addAll(uncommitted);
+            uncommitted.clear();
+            uncommittedCommands = 0;
+            Set<OrderBook> touched = new LinkedHashSet<>(group.marks.keySet());
+            failed.forEach(batch -> touched.addAll(batch.touched));
+            touched.forEach(OrderBook::rollback);
+            log.warn("Rolled back {} matching batches after a failed commit: {}", failed.size(), cause.getMessage());
+            for (Batch batch : failed) {
+                committer.afterRollback(batch.matches, batch.cancelled, cause);
+                batch.commands.forEach(command -> command.result.completeExceptionally(cause));
+            }
+        }
+    }
+
+    private static final class Batch {
+
+        private final List<Command<?>> commands;
+        private final List<MatchResult> matches = new ArrayList<>();
+        private final List<String> cancelled = new ArrayList<>();
+        private final Set<OrderBook> touched = new LinkedHashSet<>();
+
+        private Batch(List<Command<?>> commands) {
+            this.commands = commands;
+        }
+    }
+
+    private static final class Group {
+
+        private final List<Batch> batches;
+        private final List<MatchResult> matches = new ArrayList<>();
+        private final List<String> cancelled = new ArrayList<>();
+        // Journal position of every touched book after the group's last batch
+        private final Map<OrderBook, Long> marks = new HashMap<>();
+        private CompletableFuture<Void> done;
+
+        private Group(List<Batch> batches) {
+            this.batches = batches;
+        }
+    }
+
+    private static final class Command<T> {
+
+        private final OrderRequest request;
+        private final String orderId;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private String symbol;
+        private String userId;
+        private Object outcome;
+
+        private Command(OrderRequest request, String orderId) {
+            this.request = request;
+            this.orderId = orderId;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.order_service.matching;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Price-time priority limit order book for a single symbol. Not thread safe: every
+ * book is owned by exactly one {@link MatchingEngine} shard thread.
+ * <p>
+ * Every change is also recorded in an undo journal until {@link #commit()}, so the shard
+ * can {@link #rollback()} a batch whose rows could not be written. Undoing in reverse
+ * order puts each order back between the same neighbours, i.e. at its old time priority.
+ * Several batches can be outstanding at once: {@link #mark()} names a point in the
+ * journal, and the oldest batches are committed with {@link #commitTo(long)}.
+ */
+public class OrderBook {
+
+    public static final long MARKET_PRICE = 0L;
+
+    private static final byte FILLED = 0;
+    private static final byte UNLINKED = 1;
+    private static final byte RESTED = 2;
+
+    private final String symbol;
+    private final BookSide bids = new BookSide(true);
+    private final BookSide asks = new BookSide(false);
+    private final Map<String, RestingOrder> ordersById = new HashMap<>();
+    private final List<Undo> journal = new ArrayList<>();
+    // Journal position of journal.get(0); positions keep counting across commits
+    private long journalStart;
+
+    public OrderBook(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Matches the order against the opposite side and rests what is left of a limit order.
+     * An order never trades with a resting order of the same user: the resting one is
+     * cancelled instead and reported in {@link MatchResult#getSelfTradeCancels()}.
+     */
+    public MatchResult match(OrderRequest request) {
+        List<Fill> fills = new ArrayList<>(4);
+        List<String> selfTradeCancels = List.of();
+        Side side = request.getSide();
+        long limitPrice = request.getLimitPrice();
+        String userId = request.getUserId();
+        BookSide opposite = side == Side.BUY ? asks : bids;
+        int remaining = request.getQuantity();
+
+        while (remaining > 0 && !opposite.isEmpty()) {
+            PriceLevel level = opposite.best();
+            if (!crosses(side, limitPrice, level.price)) {
+                break;
+            }
+            RestingOrder maker = level.head;
+            while (maker != null && remaining > 0) {
+                RestingOrder next = maker.next;
+                if (maker.userId.equals(userId)) {
+                    if (selfTradeCancels.isEmpty()) {
+                        selfTradeCancels = new ArrayList<>(2);
+                    }
+                    selfTradeCancels.add(maker.orderId);
+                    remove(maker);
+                    maker = next;
+                    continue;
+                }
+                int traded = Math.min(remaining, maker.remaining);
+                remaining -= traded;
+                maker.remaining -= traded;
+                level.totalQuantity -= traded;
+                journal.add(new Undo(FILLED, maker, null, null, traded));
+                fills.add(new Fill(symbol, request.getOrderId(), userId, maker.orderId, maker.userId, maker.positionId, side,
+                        level.price, traded, maker.remaining));
+                if (maker.remaining == 0) {
+                    remove(maker);
+                }
+                maker = next;
+            }
+        }
+
+        boolean resting = false;
+        if (remaining > 0 && limitPrice != MARKET_PRICE) {
+            rest(new RestingOrder(request.getOrderId(), userId, request.getPositionId(), side, limitPrice, remaining));
+            resting = true;
+        }
+        return new MatchResult(request, fills, remaining, resting, selfTradeCancels);
+    }
+
+    /**
+     * Cancels a resting order of {@code userId}; false if there is none with that id.
+     */
+    public boolean cancel(String orderId, String userId) {
+        RestingOrder order = ordersById.get(orderId);
+        if (order == null || !order.userId.equals(userId)) {
+            return false;
+        }
+        remove(order);
+        return true;
+    }
+
+    /**
+     * Puts back an order that was resting before a restart. Restored orders must arrive
+     * in their original time priority and are not journaled.
+     */
+    public void restore(OrderRequest order) {
+        RestingOrder restored = new RestingOrder(order.getOrderId(), order.getUserId(), order.getPositionId(), order.getSide(),
+                order.getLimitPrice(), order.getQuantity());
+        sideOf(restored).getOrCreate(restored.price).append(restored);
+        ordersById.put(restored.orderId, restored);
+    }
+
+    /**
+     * Journal position after the latest change.
+     */
+    public long mark() {
+        return journalStart + journal.size();
+    }
+
+    /**
+     * Keeps every change since the last commit or rollback.
+     */
+    public void commit() {
+        commitTo(mark());
+    }
+
+    /**
+     * Keeps the changes made before {@code mark}; later ones can still be rolled back.
+     */
+    public void commitTo(long mark) {
+        journal.subList(0, (int) (mark - journalStart)).clear();
+        journalStart = mark;
+    }
+
+    /**
+     * Undoes every change since the last commit, newest first.
+     */
+    public void rollback() {
+        rollbackTo(journalStart);
+    }
+
+    /**
+     * Undoes the changes made since {@code mark}, newest first.
+     */
+    public void rollbackTo(long mark) {
+        int keep = (int) (mark - journalStart);
+        for (int i = journal.size() - 1; i >= keep; i--) {
+            Undo undo = journal.get(i);
+            RestingOrder order = undo.order;
+            switch (undo.type) {
+                case FILLED -> {
+                    order.remaining += undo.quantity;
+                    order.level.totalQuantity += undo.quantity;
+                }
+                case UNLINKED -> {
+                    sideOf(order).getOrCreate(order.price).insert(order, undo.prev, undo.next);
+                    ordersById.put(order.orderId, order);
+                }
+                case RESTED -> {
+                    ordersById.remove(order.orderId);
+                    unlink(order);
+                }
+                default -> throw new IllegalStateException("Unknown undo entry " + undo.type);
+            }
+        }
+        journal.subList(keep, journal.size()).clear();
+    }
+
+    public boolean hasUncommittedChanges() {
+        return !journal.isEmpty();
+    }
+
+    public long bestBid() {
+        PriceLevel level = bids.best();
+        return level == null ? MARKET_PRICE : level.price;
+    }
+
+    public long bestAsk() {
+        PriceLevel level = asks.best();
+        return level == null ? MARKET_PRICE : level.price;
+    }
+
+    public int restingOrders() {
+        return ordersById.size();
+    }
+
+    private void rest(RestingOrder order) {
+        sideOf(order).getOrCreate(order.price).append(order);
+        ordersById.put(order.orderId, order);
+        journal.add(new Undo(RESTED, order, null, null, 0));
+    }
+
+    private void remove(RestingOrder order) {
+        journal.add(new Undo(UNLINKED, order, order.prev, order.next, 0));
+        ordersById.remove(order.orderId);
+        unlink(order);
+    }
+
+    private void unlink(RestingOrder order) {
+        PriceLevel level = order.level;
+        level.unlink(order);
+        if (level.isEmpty()) {
+            sideOf(order).remove(level);
+        }
+    }
+
+    private BookSide sideOf(RestingOrder order) {
+        return order.side == Side.BUY ? bids : asks;
+    }
+
+    private static boolean crosses(Side side, long limitPrice, long levelPrice) {
+        if (limitPrice == MARKET_PRICE) {
+            return true;
+        }
+        return side == Side.BUY ? levelPrice <= limitPrice : levelPrice >= limitPrice;
+    }
+
+    private static final class Undo {
+
+        private final byte type;
+        private final RestingOrder order;
+        private final RestingOrder prev;
+        private final RestingOrder next;
+        private final int quantity;
+
+        private Undo(byte type, RestingOrder order, RestingOrder prev, RestingOrder next, int quantity) {
+            this.type = type;
+            this.order = order;
+            this.prev = prev;
+            this.next = next;
+            this.quantity = quantity;
+        }
+    }
+}
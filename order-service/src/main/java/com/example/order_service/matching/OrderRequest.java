@@ -0,0 +1,68 @@
+package com.example.order_service.matching;
+
+/**
+ * An order as handed to the {@link MatchingEngine}. Prices are fixed point; a limit of
+ * {@link OrderBook#MARKET_PRICE} makes it a market order.
+ */
+public final class OrderRequest {
+
+    private final String orderId;
+    private final String userId;
+    private final Long positionId;
+    private final String symbol;
+    private final Side side;
+    private final long limitPrice;
+    private final int quantity;
+    private final long referencePrice;
+
+    public OrderRequest(String orderId, String userId, Long positionId, String symbol, Side side, long limitPrice, int quantity,
+                        long referencePrice) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.positionId = positionId;
+        this.symbol = symbol;
+        this.side = side;
+        this.limitPrice = limitPrice;
+        this.quantity = quantity;
+        this.referencePrice = referencePrice;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Long getPositionId() {
+        return positionId;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public Side getSide() {
+        return side;
+    }
+
+    public long getLimitPrice() {
+        return limitPrice;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Last known price when the order was accepted, 0 if none.
+     */
+    public long getReferencePrice() {
+        return referencePrice;
+    }
+
+    public boolean isMarket() {
+        return limitPrice == OrderBook.MARKET_PRICE;
+    }
+}
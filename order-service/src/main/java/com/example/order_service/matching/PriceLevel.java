@@ -0,0 +1,58 @@
+package com.example.order_service.matching;
+
+final class PriceLevel {
+
+    final long price;
+    long totalQuantity;
+    RestingOrder head;
+    RestingOrder tail;
+
+    PriceLevel(long price) {
+        this.price = price;
+    }
+
+    void append(RestingOrder order) {
+        insert(order, tail, null);
+    }
+
+    /**
+     * Links {@code order} back between two neighbours it was unlinked from.
+     */
+    void insert(RestingOrder order, RestingOrder prev, RestingOrder next) {
+        order.level = this;
+        order.prev = prev;
+        order.next = next;
+        if (prev == null) {
+            head = order;
+        } else {
+            prev.next = order;
+        }
+        if (next == null) {
+            tail = order;
+        } else {
+            next.prev = order;
+        }
+        totalQuantity += order.remaining;
+    }
+
+    void unlink(RestingOrder order) {
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        totalQuantity -= order.remaining;
+        order.prev = null;
+        order.next = null;
+        order.level = null;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.order_service.matching;
+
+/**
+ * Intrusive FIFO node: the order itself carries the links of the price level queue
+ * it sits in, so unlinking on cancel is O(1) once it has been found by id.
+ */
+final class RestingOrder {
+
+    final String orderId;
+    final String userId;
+    final Long positionId;
+    final Side side;
+    final long price;
+    int remaining;
+
+    PriceLevel level;
+    RestingOrder prev;
+    RestingOrder next;
+
+    RestingOrder(String orderId, String userId, Long positionId, Side side, long price, int remaining) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.positionId = positionId;
+        this.side = side;
+        this.price = price;
+        this.remaining = remaining;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.order_service.matching;
+
+public enum Side {
+    BUY,
+    SELL;
+
+    public static Side fromOrderType(String orderType) {
+        if (orderType == null || orderType.isBlank()) {
+            throw new IllegalArgumentException("orderType is required");
+        }
+        try {
+            return Side.valueOf(orderType.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown order type: " + orderType);
+        }
+    }
+}
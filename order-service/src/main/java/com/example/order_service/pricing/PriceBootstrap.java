@@ -0,0 +1,140 @@
+package com.example.order_service.pricing;
+
+import com.example.order_service.kafka.PriceTickDecoder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms the {@link PriceTable} from stock-service's compacted {@value #LATEST_TOPIC}
+ * topic, which holds the latest price per symbol. Runs before the application reports
+ * ready: the topic is read from the beginning up to the end offsets taken at start, and
+ * the {@code priceBootstrap} health contributor stays OUT_OF_SERVICE until then.
+ * <p>
+ * Ticks that arrive on the live listener meanwhile are kept, since replayed prices only
+ * replace older ones. If the topic cannot be read within {@code pricing.bootstrap.timeout-ms}
+ * the service starts anyway and the staleness check rejects orders for unpriced symbols
+ * until their first tick.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PriceBootstrap implements ApplicationRunner, HealthIndicator {
+
+    public static final String LATEST_TOPIC = "stock_prices_latest";
+
+    private final PriceTable priceTable;
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${pricing.bootstrap.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pricing.bootstrap.timeout-ms:30000}")
+    private long timeoutMillis;
+
+    private volatile Health health = Health.outOfService().withDetail("state", "loading").build();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            health = Health.up().withDetail("state", "disabled").build();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int records = load();
+            long tookMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Loaded {} latest prices for {} symbols in {} ms", records, priceTable.size(), tookMillis);
+            health = Health.up()
+                    .withDetail("state", "loaded")
+                    .withDetail("records", records)
+                    .withDetail("symbols", priceTable.size())
+                    .withDetail("tookMs", tookMillis)
+                    .build();
+        } catch (Exception e) {
+            log.warn("Could not load latest prices from {}, continuing with live ticks only: {}", LATEST_TOPIC, e.getMessage());
+            health = Health.up()
+                    .withDetail("state", "incomplete")
+                    .withDetail("error", String.valueOf(e.getMessage()))
+                    .build();
+        }
+    }
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    private int load() throws TimeoutException {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10_000);
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 4 * 1024 * 1024);
+
+        Duration timeout = Duration.ofMillis(timeoutMillis);
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try (Consumer<String, byte[]> consumer = createConsumer(props)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(LATEST_TOPIC, timeout).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            if (partitions.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> remaining = new HashMap<>(consumer.endOffsets(partitions, timeout));
+
+            PriceTickDecoder tick = new PriceTickDecoder();
+            int records = 0;
+            while (true) {
+                remaining.entrySet().removeIf(end -> consumer.position(end.getKey(), timeout) >= end.getValue());
+                if (remaining.isEmpty()) {
+                    return records;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new TimeoutException("Read " + records + " records, " + remaining.size() + " partitions unfinished");
+                }
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(100))) {
+                    try {
+                        if (record.key() == null || !tick.wrap(record.value()).isBinary()) {
+                            continue;
+                        }
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Skipping latest price for {}: {}", record.key(), e.getMessage());
+                        continue;
+                    }
+                    // Record time is when stock-service published the price, so staleness still applies
+                    priceTable.updateIfNewer(record.key(), tick.price(), tick.sequence(), record.timestamp());
+                    records++;
+                }
+            }
+        }
+    }
+
+    Consumer<String, byte[]> createConsumer(Map<String, Object> props) {
+        return new KafkaConsumer<>(props);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.order_service.pricing;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Last price per symbol, as fixed point with its tick sequence and local receive time.
+ * Symbols get a dense slot on first sight; each slot is guarded by a seqlock, so
+ * readers never block or allocate and just retry if they overlap a write.
+ */
+@Component
+public class PriceTable {
+
+    public static final long UNKNOWN = 0L;
+    public static final long STALE = -1L;
+
+    @Value("${pricing.max-symbols:65536}")
+    private int capacity;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Map<String, Queue<CompletableFuture<Void>>> waiters = new ConcurrentHashMap<>();
+
+    private long[] prices;
+    private long[] sequences;
+    private long[] receivedAt;
+
+    // Odd while a write is in progress
+    private AtomicLongArray versions;
+
+    @PostConstruct
+    public void init() {
+        prices = new long[capacity];
+        sequences = new long[capacity];
+        receivedAt = new long[capacity];
+        versions = new AtomicLongArray(capacity);
+    }
+
+    public void update(String symbol, long price, long sequence, long receivedAtMillis) {
+        write(symbol, price, sequence, receivedAtMillis, false);
+    }
+
+    /**
+     * Like {@link #update} but keeps the current price if it was received later, so a
+     * replayed price cannot overwrite a live tick that overtook it.
+     */
+    public void updateIfNewer(String symbol, long price, long sequence, long receivedAtMillis) {
+        write(symbol, price, sequence, receivedAtMillis, true);
+    }
+
+    private void write(String symbol, long price, long sequence, long receivedAtMillis, boolean onlyIfNewer) {
+        int id = register(symbol);
+        long version;
+        do {
+            version = versions.get(id);
+        } while ((version & 1) != 0 || !versions.compareAndSet(id, version, version + 1));
+        if (onlyIfNewer && prices[id] != UNKNOWN && receivedAt[id] > receivedAtMillis) {
+            versions.set(id, version + 2);
+            return;
+        }
+        prices[id] = price;
+        sequences[id] = sequence;
+        receivedAt[id] = receivedAtMillis;
+        versions.set(id, version + 2);
+
+        if (!waiters.isEmpty()) {
+            Queue<CompletableFuture<Void>> waiting = waiters.remove(symbol);
+            if (waiting != null) {
+                waiting.forEach(waiter -> waiter.complete(null));
+            }
+        }
+    }
+
+    /**
+     * The last price, or {@link #UNKNOWN} if none has arrived.
+     */
+    public long price(String symbol) {
+        return freshPrice(symbol, 0, 0);
+    }
+
+    /**
+     * The last price if it was received at most {@code maxAgeMillis} before {@code now},
+     * {@link #STALE} if it is older, {@link #UNKNOWN} if none has arrived. A max age of 0
+     * accepts any age.
+     */
+    public long freshPrice(String symbol, long now, long maxAgeMillis) {
+        Integer id = ids.get(symbol);
+        if (id == null) {
+            return UNKNOWN;
+        }
+        while (true) {
+            long version = versions.get(id);
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long price = prices[id];
+            long at = receivedAt[id];
+            // Keeps the two reads above from moving past the version re-check
+            VarHandle.acquireFence();
+            if (versions.get(id) == version) {
+                if (price == UNKNOWN) {
+                    return UNKNOWN;
+                }
+                return maxAgeMillis > 0 && now - at > maxAgeMillis ? STALE : price;
+            }
+        }
+    }
+
+    public long sequence(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id == null) {
+            return 0;
+        }
+        while (true) {
+            long version = versions.get(id);
+            long sequence = sequences[id];
+            VarHandle.acquireFence();
+            if ((version & 1) == 0 && versions.get(id) == version) {
+                return sequence;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public int size() {
+        return nextId.get();
+    }
+
+    /**
+     * Completes when the next price for {@code symbol} arrives, or fails with a
+     * {@link java.util.concurrent.TimeoutException} after {@code timeoutMillis}. Every
+     * caller gets its own future, and one that times out stops being tracked.
+     */
+    public CompletableFuture<Void> awaitUpdate(String symbol, long timeoutMillis) {
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiters.compute(symbol, (s, waiting) -> {
+            Queue<CompletableFuture<Void>> queue = waiting != null ? waiting : new ConcurrentLinkedQueue<>();
+            queue.add(waiter);
+            return queue;
+        });
+        waiter.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((ignored, ex) -> {
+            if (ex != null) {
+                waiters.computeIfPresent(symbol, (s, waiting) -> {
+                    waiting.remove(waiter);
+                    return waiting.isEmpty() ? null : waiting;
+                });
+            }
+        });
+        return waiter;
+    }
+
+    private int register(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        return ids.computeIfAbsent(symbol, s -> {
+            int next = nextId.getAndUpdate(n -> n < capacity ? n + 1 : n);
+            if (next >= capacity) {
+                throw new IllegalStateException("Price table is full, raise pricing.max-symbols");
+            }
+            return next;
+        });
+    }
+}
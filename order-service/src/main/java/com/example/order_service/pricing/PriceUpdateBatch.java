@@ -0,0 +1,95 @@
+package com.example.order_service.pricing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collapses one poll of price updates to the latest per symbol, remembering the high and
+ * low seen on the way so that triggers crossed by an intermediate tick still fire. Meant
+ * to be reused by one listener thread: {@link #clear()} keeps the arrays.
+ */
+public final class PriceUpdateBatch {
+
+    private final Map<String, Integer> slots = new HashMap<>();
+    private String[] symbols = new String[256];
+    private long[] prices = new long[256];
+    private long[] sequences = new long[256];
+    private long[] highs = new long[256];
+    private long[] lows = new long[256];
+    private int size;
+    private int updates;
+
+    public void add(String symbol, long price, long sequence) {
+        updates++;
+        Integer slot = slots.get(symbol);
+        if (slot == null) {
+            if (size == symbols.length) {
+                grow();
+            }
+            slots.put(symbol, size);
+            symbols[size] = symbol;
+            prices[size] = price;
+            sequences[size] = sequence;
+            highs[size] = price;
+            lows[size] = price;
+            size++;
+            return;
+        }
+        int i = slot;
+        prices[i] = price;
+        sequences[i] = sequence;
+        highs[i] = Math.max(highs[i], price);
+        lows[i] = Math.min(lows[i], price);
+    }
+
+    /**
+     * Distinct symbols.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Updates added, including the ones collapsed away.
+     */
+    public int updates() {
+        return updates;
+    }
+
+    public String symbol(int i) {
+        return symbols[i];
+    }
+
+    public long price(int i) {
+        return prices[i];
+    }
+
+    public long sequence(int i) {
+        return sequences[i];
+    }
+
+    public long high(int i) {
+        return highs[i];
+    }
+
+    public long low(int i) {
+        return lows[i];
+    }
+
+    public void clear() {
+        slots.clear();
+        Arrays.fill(symbols, 0, size, null);
+        size = 0;
+        updates = 0;
+    }
+
+    private void grow() {
+        int capacity = symbols.length * 2;
+        symbols = Arrays.copyOf(symbols, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.order_service.pricing;
+
+/**
+ * What happens to an order whose reference price is older than {@code pricing.max-age-ms}:
+ * rejected straight away, or held until the next tick for its symbol (at most
+ * {@code pricing.stale-wait-ms}).
+ */
+public enum StalePricePolicy {
+    REJECT,
+    QUEUE
+}
@@ -0,0 +1,24 @@
+package com.example.order_service.risk;
+
+import com.example.order_service.matching.Side;
+
+/**
+ * What one order holds against its user's limits: the open quantity and, for buys, that
+ * quantity times {@link #price} of buying power. Only touched under the user's stripe lock.
+ */
+public final class Reservation {
+
+    final int user;
+    final int symbol;
+    final Side side;
+    final long price;
+    int remaining;
+
+    Reservation(int user, int symbol, Side side, long price, int remaining) {
+        this.user = user;
+        this.symbol = symbol;
+        this.side = side;
+        this.price = price;
+        this.remaining = remaining;
+    }
+}
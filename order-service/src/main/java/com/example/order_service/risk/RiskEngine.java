@@ -0,0 +1,351 @@
+package com.example.order_service.risk;
+
+import com.example.order_service.matching.Fill;
+import com.example.order_service.matching.MatchResult;
+import com.example.order_service.matching.Side;
+import com.example.order_service.util.FixedPoint;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pre-trade checks against a local view of every user's money and positions, so
+ * placing an order never calls portfolio-service. The view is:
+ * <ul>
+ *     <li>cash - replicated from the compacted {@code kafka.topic.cash-balances} topic</li>
+ *     <li>spent - net notional of this service's own fills, seeded from {@code order_table}</li>
+ *     <li>reserved - buying power held by open buy orders</li>
+ *     <li>position and pending quantity per user and symbol</li>
+ * </ul>
+ * All amounts are fixed point. Users are hashed onto lock stripes, each owning the
+ * primitive maps of its users, so a check is a few array reads under an uncontended lock.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RiskEngine {
+
+    private static final String LOAD_FILLS_SQL = "SELECT user_id, stock_symbol, order_type, SUM(quantity) AS quantity, "
+            + "SUM(price) AS notional FROM order_table GROUP BY user_id, stock_symbol, order_type";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${risk.enabled:true}")
+    private boolean enabled;
+
+    @Value("${risk.max-users:262144}")
+    private int maxUsers;
+
+    @Value("${risk.stripes:64}")
+    private int stripeCount;
+
+    @Value("${risk.max-position:100000}")
+    private long maxPosition;
+
+    @Value("${risk.max-order-notional:1000000}")
+    private BigDecimal maxOrderNotional;
+
+    @Value("${risk.fat-finger-percent:10}")
+    private long fatFingerPercent;
+
+    @Value("${risk.market-slippage-percent:5}")
+    private long marketSlippagePercent;
+
+    private final Map<String, Integer> userIndex = new ConcurrentHashMap<>();
+    private final Map<String, Integer> symbolIndex = new ConcurrentHashMap<>();
+    private final AtomicInteger nextUser = new AtomicInteger();
+    private final AtomicInteger nextSymbol = new AtomicInteger();
+    private final Map<String, Reservation> resting = new ConcurrentHashMap<>();
+
+    private long[] cash;
+    private long[] spent;
+    private long[] reserved;
+    private Object[] locks;
+    private LongLongMap[] positions;
+    private LongLongMap[] pending;
+    private int stripeMask;
+    private long maxNotionalTicks;
+    private Map<String, Counter> rejections;
+
+    @PostConstruct
+    public void init() {
+        int stripes = Integer.highestOneBit(stripeCount);
+        stripeMask = stripes - 1;
+        cash = new long[maxUsers];
+        spent = new long[maxUsers];
+        reserved = new long[maxUsers];
+        locks = new Object[stripes];
+        positions = new LongLongMap[stripes];
+        pending = new LongLongMap[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new Object();
+            positions[i] = new LongLongMap(1024);
+            pending[i] = new LongLongMap(256);
+        }
+        maxNotionalTicks = FixedPoint.toTicks(maxOrderNotional);
+        rejections = new ConcurrentHashMap<>();
+        loadFills();
+    }
+
+    /**
+     * Checks the order and, if it passes, holds its quantity and buying power. The
+     * reservation is registered under the order id before the order reaches the book, so
+     * a fill against it as maker always finds it.
+     *
+     * @param limitPrice     fixed-point limit, or 0 for a market order
+     * @param referencePrice last known fixed-point price, or 0 if unknown
+     * @return the reservation to settle after matching, or null if risk checks are off
+     * @throws IllegalArgumentException if a check fails
+     * @throws RejectedExecutionException if the user is new and {@code risk.max-users} are tracked already
+     */
+    public Reservation reserve(String orderId, String userId, String stockSymbol, Side side, int quantity, long limitPrice, long referencePrice) {
+        if (!enabled) {
+            return null;
+        }
+        if (limitPrice > 0 && referencePrice > 0
+                && Math.abs(limitPrice - referencePrice) * 100 > fatFingerPercent * referencePrice) {
+            throw reject("fat-finger", "limit price is more than " + fatFingerPercent + "% away from the market");
+        }
+        long price = limitPrice > 0 ? limitPrice : referencePrice + referencePrice * marketSlippagePercent / 100;
+        if (price <= 0) {
+            throw reject("no-price", "no reference price for a market order on " + stockSymbol);
+        }
+        long notional = notional(quantity, price);
+        if (notional > maxNotionalTicks) {
+            throw reject("notional", "order value exceeds " + maxOrderNotional.toPlainString());
+        }
+
+        int user;
+        try {
+            user = userIndexOf(userId);
+        } catch (IllegalStateException e) {
+            rejections.computeIfAbsent("capacity", r -> meterRegistry.counter("orders.risk.rejected", "reason", r)).increment();
+            throw new RejectedExecutionException("Rejected by risk check: no room to track another user");
+        }
+        int symbol = symbolIndexOf(stockSymbol);
+        long key = key(user, symbol);
+        long signedQuantity = side == Side.BUY ? quantity : -quantity;
+        int stripe = user & stripeMask;
+        synchronized (locks[stripe]) {
+            long projected = positions[stripe].get(key) + pending[stripe].get(key) + signedQuantity;
+            if (Math.abs(projected) > maxPosition) {
+                throw reject("max-position", "position in " + stockSymbol + " would exceed " + maxPosition);
+            }
+            if (side == Side.BUY) {
+                long available = cash[user] - spent[user] - reserved[user];
+                if (notional > available) {
+                    throw reject("buying-power", "insufficient buying power");
+                }
+                reserved[user] += notional;
+            }
+            pending[stripe].add(key, signedQuantity);
+        }
+        Reservation reservation = new Reservation(user, symbol, side, price, quantity);
+        resting.put(orderId, reservation);
+        return reservation;
+    }
+
+    /**
+     * Holds quantity and buying power for an order that was resting before a restart,
+     * without checking it again.
+     */
+    public void restore(String orderId, String userId, String stockSymbol, Side side, int quantity, long limitPrice) {
+        if (!enabled) {
+            return;
+        }
+        int user = userIndexOf(userId);
+        int symbol = symbolIndexOf(stockSymbol);
+        int stripe = user & stripeMask;
+        synchronized (locks[stripe]) {
+            if (side == Side.BUY) {
+                reserved[user] += notional(quantity, limitPrice);
+            }
+            pending[stripe].add(key(user, symbol), side == Side.BUY ? quantity : -quantity);
+        }
+        resting.put(orderId, new Reservation(user, symbol, side, limitPrice, quantity));
+    }
+
+    /**
+     * Applies the outcome of matching: every fill moves positions and spent cash for the
+     * taker and the maker and releases what they had reserved for it. A resting remainder
+     * keeps its reservation until it fills or is cancelled; anything else is released.
+     *
+     * @param remainderPrice price at which an unmatched market remainder was filled
+     */
+    public void settle(MatchResult result, long remainderPrice) {
+        String orderId = result.getOrderId();
+        Reservation reservation = resting.get(orderId);
+        if (reservation == null) {
+            return;
+        }
+        Side makerSide = reservation.side == Side.BUY ? Side.SELL : Side.BUY;
+        for (Fill fill : result.getFills()) {
+            fill(reservation, fill.getQuantity(), fill.getPrice());
+            Reservation maker = resting.get(fill.getMakerOrderId());
+            if (maker != null) {
+                fill(maker, fill.getQuantity(), fill.getPrice());
+                if (maker.remaining == 0) {
+                    resting.remove(fill.getMakerOrderId());
+                }
+            } else {
+                applyFill(userIndexOf(fill.getMakerUserId()), reservation.symbol, makerSide, fill.getQuantity(), fill.getPrice());
+            }
+        }
+        if (result.isResting()) {
+            return;
+        }
+        resting.remove(orderId);
+        if (result.getRemainingQuantity() > 0 && remainderPrice > 0) {
+            fill(reservation, result.getRemainingQuantity(), remainderPrice);
+        }
+        release(reservation);
+    }
+
+    /**
+     * Releases what a resting order still holds, e.g. after a cancel.
+     */
+    public void cancel(String orderId) {
+        Reservation reservation = resting.remove(orderId);
+        if (reservation != null) {
+            release(reservation);
+        }
+    }
+
+    /**
+     * Releases the reservation of an order that never reached the book, or whose match
+     * was rolled back.
+     */
+    public void release(String orderId) {
+        Reservation reservation = resting.remove(orderId);
+        if (reservation != null) {
+            release(reservation);
+        }
+    }
+
+    private void release(Reservation reservation) {
+        int stripe = reservation.user & stripeMask;
+        synchronized (locks[stripe]) {
+            unreserve(reservation, reservation.remaining);
+        }
+    }
+
+    /**
+     * Every instance needs every balance, so the partitions are assigned rather than
+     * subscribed and read from offset 0 on each start; no consumer group is joined, and the
+     * group id only names where offsets are committed.
+     */
+    @KafkaListener(groupId = "order-service-risk", topicPartitions = @TopicPartition(topic = "${kafka.topic.cash-balances}",
+            partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0")))
+    public void consumeCashBalance(String message) {
+        try {
+            JsonNode event = objectMapper.readTree(message);
+            int user = userIndexOf(event.get("userId").asText());
+            long balance = FixedPoint.toTicks(new BigDecimal(event.get("cashBalance").asText()));
+            synchronized (locks[user & stripeMask]) {
+                cash[user] = balance;
+            }
+        } catch (Exception e) {
+            log.error("Error processing cash balance event: {}", e.getMessage());
+        }
+    }
+
+    private void fill(Reservation reservation, int quantity, long price) {
+        int stripe = reservation.user & stripeMask;
+        synchronized (locks[stripe]) {
+            int filled = Math.min(quantity, reservation.remaining);
+            unreserve(reservation, filled);
+            applyFillLocked(reservation.user, reservation.symbol, reservation.side, quantity, price);
+        }
+    }
+
+    private void applyFill(int user, int symbol, Side side, int quantity, long price) {
+        synchronized (locks[user & stripeMask]) {
+            applyFillLocked(user, symbol, side, quantity, price);
+        }
+    }
+
+    private void applyFillLocked(int user, int symbol, Side side, long quantity, long price) {
+        long signedQuantity = side == Side.BUY ? quantity : -quantity;
+        positions[user & stripeMask].add(key(user, symbol), signedQuantity);
+        spent[user] += signedQuantity * price;
+    }
+
+    private void unreserve(Reservation reservation, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        long signedQuantity = reservation.side == Side.BUY ? quantity : -quantity;
+        pending[reservation.user & stripeMask].add(key(reservation.user, reservation.symbol), -signedQuantity);
+        if (reservation.side == Side.BUY) {
+            reserved[reservation.user] -= notional(quantity, reservation.price);
+        }
+        reservation.remaining -= quantity;
+    }
+
+    /**
+     * Seeds positions and spent cash from the fills already in the database.
+     */
+    private void loadFills() {
+        try {
+            int[] rows = new int[1];
+            jdbcTemplate.query(LOAD_FILLS_SQL, rs -> {
+                int user = userIndexOf(rs.getString("user_id"));
+                int symbol = symbolIndexOf(rs.getString("stock_symbol"));
+                long sign = Side.BUY.name().equals(rs.getString("order_type")) ? 1 : -1;
+                positions[user & stripeMask].add(key(user, symbol), sign * rs.getLong("quantity"));
+                spent[user] += sign * FixedPoint.toTicks(rs.getBigDecimal("notional"));
+                rows[0]++;
+            });
+            log.info("Risk engine loaded {} position aggregates", rows[0]);
+        } catch (DataAccessException e) {
+            log.warn("Could not load existing fills into the risk engine: {}", e.getMessage());
+        }
+    }
+
+    private IllegalArgumentException reject(String reason, String message) {
+        rejections.computeIfAbsent(reason, r -> meterRegistry.counter("orders.risk.rejected", "reason", r)).increment();
+        return new IllegalArgumentException("Rejected by risk check: " + message);
+    }
+
+    private int userIndexOf(String userId) {
+        return userIndex.computeIfAbsent(userId, id -> {
+            int index = nextUser.getAndIncrement();
+            if (index >= maxUsers) {
+                throw new IllegalStateException("Risk engine is full, raise risk.max-users");
+            }
+            return index;
+        });
+    }
+
+    private int symbolIndexOf(String stockSymbol) {
+        return symbolIndex.computeIfAbsent(stockSymbol, s -> nextSymbol.getAndIncrement());
+    }
+
+    private static long key(int user, int symbol) {
+        return ((long) user << 32) | symbol;
+    }
+
+    // Fixed-point price times a share count is already a fixed-point amount
+    private static long notional(long quantity, long price) {
+        return Math.multiplyExact(quantity, price);
+    }
+}
@@ -1,30 +1,69 @@
 package com.example.order_service.service;
 
 
+import com.example.order_service.dto.BatchOrderResultDto;
 import com.example.order_service.dto.OrderDto;
+import com.example.order_service.dto.OrderStatusDto;
 import com.example.order_service.dto.OrderWithPositionsDto;
 import com.example.order_service.dto.PositionDto;
+import com.example.order_service.dto.TriggerOrderDto;
 import com.example.order_service.entity.Order;
+import com.example.order_service.intake.AckMode;
+import com.example.order_service.intake.OrderOutcomes;
+import com.example.order_service.intake.OrderScheduler;
+import com.example.order_service.intake.Placement;
+import com.example.order_service.intake.OrderWriter;
+import com.example.order_service.kafka.PriceTickDecoder;
+import com.example.order_service.matching.MatchResult;
+import com.example.order_service.matching.MatchingEngine;
+import com.example.order_service.matching.OrderBook;
+import com.example.order_service.matching.OrderRequest;
+import com.example.order_service.matching.Side;
+import com.example.order_service.pricing.PriceTable;
+import com.example.order_service.pricing.PriceUpdateBatch;
+import com.example.order_service.pricing.StalePricePolicy;
 import com.example.order_service.repository.OrderRepository;
+import com.example.order_service.risk.RiskEngine;
 import com.example.order_service.service.foreignService.PositionService;
+import com.example.order_service.settlement.SettlementBatcher;
+import com.example.order_service.trigger.Trigger;
+import com.example.order_service.trigger.TriggerCondition;
+import com.example.order_service.trigger.TriggerEngine;
+import com.example.order_service.util.FixedPoint;
+import com.example.order_service.util.OrderIds;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,7 +75,13 @@ public class OrderService {
     private OrderRepository orderRepository;
 
     @Autowired
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OrderWriter orderWriter;
+
+    @Autowired
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    private final RiskEngine riskEngine;
 
     @Autowired
     private final ObjectMapper objectMapper;
@@ -44,61 +89,376 @@ public class OrderService {
     @Autowired
     private final PositionService positionService;
 
-    private final Map<String, BigDecimal> lastestStockPrices= new ConcurrentHashMap<>();
+    @Autowired
+    private final MatchingEngine matchingEngine;
+
+    @Autowired
+    private final PriceTable priceTable;
+
+    @Autowired
+    private final TriggerEngine triggerEngine;
+
+    @Autowired
+    private final OrderOutcomes orderOutcomes;
+
+    @Autowired
+    private final OrderScheduler orderScheduler;
+
+    @Value("${pricing.max-age-ms:5000}")
+    private long maxPriceAgeMillis;
+
+    @Value("${pricing.stale-policy:REJECT}")
+    private StalePricePolicy stalePricePolicy;
+
+    @Value("${pricing.stale-wait-ms:2000}")
+    private long staleWaitMillis;
+
+    @Value("${orders.batch.max-orders:10000}")
+    private int maxBatchOrders;
+
+    private final ThreadLocal<PriceTickDecoder> tickDecoders = ThreadLocal.withInitial(PriceTickDecoder::new);
+    private final ThreadLocal<PriceUpdateBatch> priceBatches = ThreadLocal.withInitial(PriceUpdateBatch::new);
+    private final Map<Integer, AtomicLong> priceConsumerLag = new ConcurrentHashMap<>();
+
+    private Timer priceBatchApply;
+    private DistributionSummary priceBatchSize;
+    private Counter priceUpdatesConflated;
+
+    @PostConstruct
+    public void init() {
+        triggerEngine.onFire(this::placeTriggered);
+        priceBatchApply = meterRegistry.timer("orders.prices.batch.apply");
+        priceBatchSize = meterRegistry.summary("orders.prices.batch.size");
+        priceUpdatesConflated = meterRegistry.counter("orders.prices.conflated");
+    }
+
+    /**
+     * Ticks arrive either as binary {@link PriceTickDecoder} frames keyed by symbol or, from
+     * producers running with {@code kafka.tick-format=json}, as the legacy JSON message.
+     * <p>
+     * Each poll is collapsed to the latest price per symbol before it is applied, so a
+     * burst costs one table write per symbol. Triggers are checked against the poll's high
+     * and low, which covers every price in between.
+     */
+    @KafkaListener(topics = "${kafka.topic.stock-price-updates}", groupId = "order-service-group", batch = "true",
+            concurrency = "${kafka.price-updates.concurrency:3}",
+            properties = {
+                    "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer",
+                    "max.poll.records=${kafka.price-updates.max-poll-records:5000}"
+            })
+    public void consumeStockPriceUpdates(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        long start = System.nanoTime();
+        PriceTickDecoder tick = tickDecoders.get();
+        PriceUpdateBatch batch = priceBatches.get();
+        batch.clear();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            try {
+                if (tick.wrap(record.value()).isBinary()) {
+                    if (record.key() != null) {
+                        batch.add(record.key(), tick.price(), tick.sequence());
+                    }
+                } else {
+                    addJsonPrice(batch, record.value());
+                }
+            } catch (Exception e) {
+                log.error("Error processing stock price update event: {}", e.getMessage());
+            }
+        }
+
+        long receivedAt = System.currentTimeMillis();
+        for (int i = 0; i < batch.size(); i++) {
+            priceTable.update(batch.symbol(i), batch.price(i), batch.sequence(i), receivedAt);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            triggerEngine.onPrice(batch.symbol(i), batch.high(i));
+            if (batch.low(i) != batch.high(i)) {
+                triggerEngine.onPrice(batch.symbol(i), batch.low(i));
+            }
+        }
+
+        priceBatchApply.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        priceBatchSize.record(records.size());
+        priceUpdatesConflated.increment(batch.updates() - batch.size());
+        for (TopicPartition partition : consumer.assignment()) {
+            consumer.currentLag(partition).ifPresent(lag ->
+                    priceConsumerLag.computeIfAbsent(partition.partition(), this::registerLagGauge).set(lag));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Applied {} stock price updates for {} symbols", batch.updates(), batch.size());
+        }
+    }
+
+    // The legacy message is {"Stock Name": .., "symbol": .., "price": ".."}; streamed instead of building a tree
+    private void addJsonPrice(PriceUpdateBatch batch, byte[] message) throws IOException {
+        String symbol = null;
+        BigDecimal price = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("symbol".equals(field)) {
+                    symbol = parser.getValueAsString();
+                } else if ("price".equals(field)) {
+                    price = new BigDecimal(parser.getValueAsString());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        if (symbol == null || price == null) {
+            throw new IOException("Price update without symbol or price");
+        }
+        batch.add(symbol, FixedPoint.toTicks(price), 0);
+    }
+
+    private AtomicLong registerLagGauge(int partition) {
+        return meterRegistry.gauge("orders.prices.consumer.lag", Tags.of("partition", String.valueOf(partition)), new AtomicLong());
+    }
+
+    /**
+     * Validates the order, gives it a time-ordered id and runs it through the symbol's
+     * book. Limit orders rest for whatever does not cross; market orders that exhaust the
+     * book are filled for the remainder at the last known stock price, as before. Every
+     * fill becomes its own order row, and the book only keeps the match once those rows
+     * are committed; a failed write rolls the book and the risk reservation back.
+     * <p>
+     * Orders need a reference price no older than {@code pricing.max-age-ms}; otherwise
+     * they are rejected or, with {@link StalePricePolicy#QUEUE}, retried on the symbol's
+     * next tick.
+     * <p>
+     * With {@link AckMode#ACCEPTED} the id is returned straight away and the outcome is
+     * kept in {@link OrderOutcomes} for {@link #getOrderStatus}; {@link AckMode#DURABLE}
+     * completes once the rows are committed, or with the error that prevented it. Either
+     * way the returned placement is only done once the order is.
+     */
+    public Placement<String> submitOrder(String stockSymbol, Integer quantity, String orderType, String userId,
+                                                 Long positionId, BigDecimal limitPrice, AckMode ackMode) {
+        validate(stockSymbol, quantity, userId, limitPrice);
+        Side side = Side.fromOrderType(orderType);
+        if (!orderWriter.hasCapacity()) {
+            throw new RejectedExecutionException("Order intake is saturated");
+        }
+
+        long referencePrice = priceTable.freshPrice(stockSymbol, System.currentTimeMillis(), maxPriceAgeMillis);
+        if (referencePrice <= 0) {
+            if (stalePricePolicy == StalePricePolicy.QUEUE) {
+                CompletableFuture<Placement<String>> retried = priceTable.awaitUpdate(stockSymbol, staleWaitMillis)
+                        .handle((ignored, ex) -> {
+                            if (ex != null) {
+                                throw stalePrice(stockSymbol, referencePrice);
+                            }
+                            return null;
+                        })
+                        .thenApply(ignored -> submitOrder(stockSymbol, quantity, orderType, userId, positionId, limitPrice, ackMode));
+                return new Placement<>(retried.thenCompose(Placement::response), retried.thenCompose(Placement::done));
+            }
+            throw stalePrice(stockSymbol, referencePrice);
+        }
 
-    @Value("${kafka.topic.order-events}")
-    private String orderEventsTopic;
+        String orderId = OrderIds.next();
+        long limitTicks = limitPrice != null ? FixedPoint.toTicks(limitPrice) : OrderBook.MARKET_PRICE;
+        Timer.Sample sample = Timer.start(meterRegistry);
 
+        riskEngine.reserve(orderId, userId, stockSymbol, side, quantity, limitTicks, referencePrice);
 
-    @KafkaListener(topics = "${kafka.topic.stock-price-updates}", groupId = "order-service-group")
-    public void consumeStockPriceUpdates(String eventMessage) {
+        CompletableFuture<MatchResult> matched;
         try {
-            JsonNode jsonNode = objectMapper.readTree(eventMessage);
-            String stockSymbol = jsonNode.get("symbol").asText();
-            BigDecimal stockPrice = new BigDecimal(jsonNode.get("price").asText());
-            lastestStockPrices.put(stockSymbol, stockPrice);
-            log.info("Received stock price update event for symbol: {}, price: {}", stockSymbol, stockPrice);
-        } catch (Exception e) {
-            log.error("Error processing stock price update event: {}", e.getMessage());
-        }
-    }
-
-    @Transactional
-    public void placeOrder(String stockSymbol, Integer quantity, String orderType, String userId, Long positionId) throws JsonProcessingException {
-
-
-        BigDecimal stockPrice = lastestStockPrices.getOrDefault(stockSymbol, BigDecimal.TEN);
-        BigDecimal totalCost = stockPrice.multiply(BigDecimal.valueOf(quantity));
-
-        String orderStatus = positionId != null ? "CLOSED" : "OPEN";
-        Order newOrder = new Order();
-        newOrder.setOrderType(orderType);
-        newOrder.setStockSymbol(stockSymbol);
-        newOrder.setQuantity(quantity);
-        newOrder.setPrice(totalCost);
-        newOrder.setUserId(userId);
-        newOrder.setPositionId(positionId);
-        newOrder.setStatus(orderStatus);
-        Order order = orderRepository.save(newOrder);
-        newOrder.setId(order.getId());
-        publishOrderEvent(newOrder);
-    }
-
-    private void publishOrderEvent(Order order) throws JsonProcessingException {
-
-        String orderMessage = objectMapper.writeValueAsString(order);
-        CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(orderEventsTopic, orderMessage);
-
-        future.whenComplete((result, ex) -> {
-            if (ex != null) {
-                System.err.println("Failed to send message: " + ex.getMessage());
-            } else {
-                System.out.println("Message sent successfully: " +
-                        result.getProducerRecord().value() +
-                        " to partition " + result.getRecordMetadata().partition() +
-                        " with offset " + result.getRecordMetadata().offset());
+            matched = matchingEngine.submit(new OrderRequest(orderId, userId, positionId, stockSymbol, side, limitTicks, quantity,
+                    referencePrice));
+        } catch (RuntimeException e) {
+            riskEngine.release(orderId);
+            throw e;
+        }
+
+        CompletableFuture<String> acknowledged;
+        CompletableFuture<?> done = matched;
+        if (ackMode == AckMode.DURABLE) {
+            acknowledged = matched.thenApply(result -> orderId);
+        } else {
+            orderOutcomes.pending(orderId);
+            matched.whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.error("Failed to commit accepted order {}", orderId, ex);
+                    orderOutcomes.failed(orderId, ex.getMessage());
+                } else {
+                    orderOutcomes.committed(orderId, result.getFilledQuantity(), result.isResting() ? result.getRemainingQuantity() : 0);
+                }
+            });
+            acknowledged = CompletableFuture.completedFuture(orderId);
+        }
+        acknowledged = acknowledged.whenComplete((id, ex) -> sample.stop(meterRegistry.timer("orders.intake.latency", "ack", ackMode.name().toLowerCase())));
+        return new Placement<>(acknowledged, done);
+    }
+
+    /**
+     * Outcome of an order placed with {@link AckMode#ACCEPTED}, or null if it is unknown
+     * or too old to be remembered.
+     */
+    public OrderStatusDto getOrderStatus(String orderId) {
+        return orderOutcomes.get(orderId);
+    }
+
+    /**
+     * Places a whole batch for one user. The body (a JSON array or newline-delimited
+     * objects) is parsed as a stream and fully validated before anything is matched, so a
+     * malformed body executes nothing. Each order then waits its turn in the user's
+     * {@link OrderScheduler} queue like any other, so one that does not fit in the queue is
+     * rejected, and runs through its book; the shards commit their rows in groups, which
+     * also queues their events for a batched publish by the outbox relay.
+     * <p>
+     * Every order stands on its own: one that cannot be committed is rolled back out of
+     * its book and reported as {@code FAILED} while the rest of the batch goes through.
+     */
+    public CompletableFuture<List<BatchOrderResultDto>> placeOrderBatch(String userId, InputStream body) throws IOException {
+        List<OrderDto> orders = new ArrayList<>();
+        try (MappingIterator<OrderDto> iterator = objectMapper.readerFor(OrderDto.class).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                if (orders.size() == maxBatchOrders) {
+                    throw new IllegalArgumentException("A batch holds at most " + maxBatchOrders + " orders");
+                }
+                orders.add(iterator.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed order at index " + orders.size() + ": " + e.getOriginalMessage());
+        }
+        if (!orderWriter.hasCapacity()) {
+            throw new RejectedExecutionException("Order intake is saturated");
+        }
+
+        List<CompletableFuture<BatchOrderResultDto>> results = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            int index = i;
+            OrderDto dto = orders.get(i);
+            CompletableFuture<BatchOrderResultDto> result;
+            try {
+                result = orderScheduler.submit(userId, () -> Placement.of(placeBatchOrder(userId, index, dto)))
+                        .exceptionally(ex -> new BatchOrderResultDto(index, null, "FAILED", 0, 0, rootMessage(ex)));
+            } catch (RejectedExecutionException e) {
+                result = CompletableFuture.completedFuture(new BatchOrderResultDto(index, null, "REJECTED", 0, 0, e.getMessage()));
+            }
+            results.add(result);
+        }
+
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    // Never fails: a rejected or failed order is reported in its result
+    private CompletableFuture<BatchOrderResultDto> placeBatchOrder(String userId, int index, OrderDto dto) {
+        BigDecimal limitPrice = "LIMIT".equalsIgnoreCase(dto.getPriceType()) ? dto.getPrice() : null;
+        String orderId = OrderIds.next();
+        long limitTicks = limitPrice != null ? FixedPoint.toTicks(limitPrice) : OrderBook.MARKET_PRICE;
+        Side side;
+        long referencePrice;
+        try {
+            validate(dto.getStockSymbol(), dto.getQuantity(), userId, limitPrice);
+            side = Side.fromOrderType(dto.getOrderType());
+            referencePrice = priceTable.freshPrice(dto.getStockSymbol(), System.currentTimeMillis(), maxPriceAgeMillis);
+            if (referencePrice <= 0) {
+                throw stalePrice(dto.getStockSymbol(), referencePrice);
             }
-        });
+            riskEngine.reserve(orderId, userId, dto.getStockSymbol(), side, dto.getQuantity(), limitTicks, referencePrice);
+        } catch (IllegalArgumentException | RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(new BatchOrderResultDto(index, null, "REJECTED", 0, 0, e.getMessage()));
+        }
+
+        try {
+            return matchingEngine.submit(new OrderRequest(orderId, userId, null, dto.getStockSymbol(), side, limitTicks,
+                            dto.getQuantity(), referencePrice))
+                    .handle((result, ex) -> ex != null
+                            ? new BatchOrderResultDto(index, orderId, "FAILED", 0, 0, rootMessage(ex))
+                            : accepted(index, orderId, result));
+        } catch (RejectedExecutionException e) {
+            riskEngine.release(orderId);
+            return CompletableFuture.completedFuture(new BatchOrderResultDto(index, orderId, "REJECTED", 0, 0, e.getMessage()));
+        }
+    }
+
+    private static BatchOrderResultDto accepted(int index, String orderId, MatchResult result) {
+        int resting = result.isResting() ? result.getRemainingQuantity() : 0;
+        return new BatchOrderResultDto(index, orderId, "ACCEPTED", result.getFilledQuantity(), resting, null);
+    }
+
+    private static String rootMessage(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause.getMessage();
+    }
+
+    public String placeOrder(String stockSymbol, Integer quantity, String orderType, String userId, Long positionId, BigDecimal limitPrice) {
+        return submitOrder(stockSymbol, quantity, orderType, userId, positionId, limitPrice, AckMode.DURABLE).response().join();
+    }
+
+    /**
+     * Cancels what is left of a resting limit order; false if {@code userId} has no such
+     * order in the book.
+     */
+    public boolean cancelOrder(String userId, String stockSymbol, String orderId) {
+        return matchingEngine.cancel(stockSymbol, orderId, userId).join();
+    }
+
+    /**
+     * Registers a stop or take-profit order; it is submitted like any other order once a
+     * tick crosses its trigger price.
+     */
+    public String placeTriggerOrder(String userId, TriggerOrderDto dto) {
+        validate(dto.getStockSymbol(), dto.getQuantity(), userId, dto.getLimitPrice());
+        if (dto.getTriggerPrice() == null || dto.getTriggerPrice().signum() <= 0) {
+            throw new IllegalArgumentException("trigger price must be positive");
+        }
+        Side side = Side.fromOrderType(dto.getOrderType());
+        TriggerCondition condition = TriggerCondition.of(dto.getTriggerType(), side);
+        String triggerId = OrderIds.next();
+        triggerEngine.add(new Trigger(triggerId, userId, dto.getStockSymbol(), side, condition, FixedPoint.toTicks(dto.getTriggerPrice()),
+                dto.getQuantity(), dto.getLimitPrice(), dto.getPositionId()));
+        return triggerId;
+    }
+
+    public boolean cancelTriggerOrder(String userId, String triggerId) {
+        return triggerEngine.cancel(triggerId, userId);
+    }
+
+    public List<TriggerOrderDto> getTriggerOrdersByUserId(String userId) {
+        return triggerEngine.getTriggersByUserId(userId);
+    }
+
+    /**
+     * Goes through the {@link OrderScheduler} like any other order for the user; the
+     * future completes once the order's rows are committed.
+     */
+    private CompletableFuture<String> placeTriggered(Trigger trigger) {
+        return orderScheduler.submit(trigger.getUserId(), () -> submitOrder(trigger.getStockSymbol(), trigger.getQuantity(),
+                        trigger.getSide().name(), trigger.getUserId(), trigger.getPositionId(), trigger.getLimitPrice(), AckMode.DURABLE))
+                .whenComplete((orderId, ex) -> {
+                    if (ex == null) {
+                        log.info("Trigger {} placed order {}", trigger.getId(), orderId);
+                    }
+                });
+    }
+
+    private RejectedExecutionException stalePrice(String stockSymbol, long referencePrice) {
+        meterRegistry.counter("orders.price.stale", "policy", stalePricePolicy.name().toLowerCase()).increment();
+        if (referencePrice == PriceTable.UNKNOWN) {
+            return new RejectedExecutionException("No price received yet for " + stockSymbol);
+        }
+        return new RejectedExecutionException("Reference price for " + stockSymbol + " is older than " + maxPriceAgeMillis + " ms");
+    }
+
+    private static void validate(String stockSymbol, Integer quantity, String userId, BigDecimal limitPrice) {
+        if (stockSymbol == null || stockSymbol.isBlank()) {
+            throw new IllegalArgumentException("stockSymbol is required");
+        }
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be positive");
+        }
+        if (limitPrice != null && limitPrice.signum() <= 0) {
+            throw new IllegalArgumentException("limit price must be positive");
+        }
     }
 
     public List<OrderDto> getOrdersByUserId(String userId) {
@@ -117,6 +477,15 @@ public class OrderService {
 
     }
 
+    /**
+     * The raw fills netted into one settlement.
+     */
+    public List<OrderDto> getFillsBySettlementId(String settlementId) {
+        return orderRepository.findBySettlementId(settlementId).stream()
+                .map(order -> new OrderDto(order.getId(), order.getStockSymbol(), order.getQuantity(), order.getOrderType(), order.getPrice()))
+                .collect(Collectors.toList());
+    }
+
     public OrderWithPositionsDto getOrderWithPositions(String orderId) {
         Order order = orderRepository.findById(orderId).orElse(null);
 
@@ -129,8 +498,12 @@ public class OrderService {
         OrderWithPositionsDto orderWithPositionsDto = new OrderWithPositionsDto();
         orderWithPositionsDto.setOrder(new OrderDto(order.getId(),order.getStockSymbol(), order.getQuantity(), order.getOrderType(), order.getPrice()));
 
-        PositionDto positionDto = positionService.getPosition(orderId);
-        orderWithPositionsDto.setPosition(positionDto);
+        // Netted fills have no position of their own; the settlement's position covers them
+        String settlementId = order.getSettlementId();
+        if (!SettlementBatcher.PENDING.equals(settlementId)) {
+            PositionDto positionDto = positionService.getPosition(settlementId != null ? settlementId : orderId);
+            orderWithPositionsDto.setPosition(positionDto);
+        }
 
         return orderWithPositionsDto;
     }
@@ -0,0 +1,179 @@
+package com.example.order_service.settlement;
+
+import com.example.order_service.dto.SettlementClose;
+import com.example.order_service.dto.SettlementEvent;
+import com.example.order_service.matching.Side;
+import com.example.order_service.util.OrderIds;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nets fills per user and symbol once every {@code settlement.window-ms} and publishes
+ * one {@link SettlementEvent} per pair instead of one event per fill. Fills are written
+ * by the order writer with settlement id {@link #PENDING}; a pass locks a batch of them
+ * ({@code SKIP LOCKED}), stamps each with the id of the settlement it went into and queues
+ * the events in the outbox, all in one transaction. The fills themselves stay in
+ * {@code order_table} and can be looked up by settlement id.
+ * <p>
+ * Every window with fills publishes an event, even one that nets to zero, since its
+ * closes and realized profit still have to reach portfolio-service. Off by default.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SettlementBatcher {
+
+    public static final String PENDING = "pending";
+
+    private static final String SELECT_PENDING_SQL = "SELECT id, user_id, stock_symbol, order_type, quantity, price, position_id "
+            + "FROM order_table WHERE settlement_id = '" + PENDING + "' ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String MARK_SETTLED_SQL = "UPDATE order_table SET settlement_id = ? WHERE id = ANY(?)";
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO order_outbox (topic, message_key, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${settlement.enabled:false}")
+    private boolean enabled;
+
+    @Value("${settlement.batch-size:10000}")
+    private int batchSize;
+
+    @Value("${kafka.topic.settlements}")
+    private String settlementsTopic;
+
+    @Scheduled(fixedDelayString = "${settlement.window-ms:1000}")
+    public void settle() {
+        if (!enabled) {
+            return;
+        }
+        Integer settled;
+        do {
+            settled = transactionTemplate.execute(status -> settleBatch());
+        } while (settled != null && settled == batchSize);
+    }
+
+    private int settleBatch() {
+        Map<String, Net> nets = new HashMap<>();
+        int[] fills = new int[1];
+        jdbcTemplate.query(SELECT_PENDING_SQL, rs -> {
+            String userId = rs.getString("user_id");
+            String stockSymbol = rs.getString("stock_symbol");
+            Net net = nets.computeIfAbsent(userId + '\u0000' + stockSymbol, key -> new Net(userId, stockSymbol));
+            net.add(rs.getString("id"), Side.valueOf(rs.getString("order_type")), rs.getInt("quantity"), rs.getBigDecimal("price"),
+                    rs.getObject("position_id", Long.class));
+            fills[0]++;
+        }, batchSize);
+        if (fills[0] == 0) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Object[]> outboxRows = new ArrayList<>(nets.size());
+        for (Net net : nets.values()) {
+            net.settlementId = OrderIds.next();
+            outboxRows.add(new Object[]{settlementsTopic, net.userId, toJson(net.toEvent(now)), now});
+        }
+        jdbcTemplate.batchUpdate(MARK_SETTLED_SQL, nets.values(), 500, (ps, net) -> {
+            ps.setString(1, net.settlementId);
+            ps.setArray(2, ps.getConnection().createArrayOf("varchar", net.fillIds.toArray()));
+        });
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, outboxRows);
+
+        meterRegistry.counter("settlement.fills").increment(fills[0]);
+        meterRegistry.counter("settlement.events").increment(nets.size());
+        log.debug("Netted {} fills into {} settlements", fills[0], nets.size());
+        return fills[0];
+    }
+
+    private String toJson(SettlementEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize settlement " + event.getId(), e);
+        }
+    }
+
+    private static final class Net {
+
+        private final String userId;
+        private final String stockSymbol;
+        private final List<String> fillIds = new ArrayList<>();
+        private final Map<Long, SettlementClose> closes = new LinkedHashMap<>();
+        private long buyQuantity;
+        private long sellQuantity;
+        private BigDecimal buyPrice = BigDecimal.ZERO;
+        private BigDecimal sellPrice = BigDecimal.ZERO;
+        private String settlementId;
+
+        private Net(String userId, String stockSymbol) {
+            this.userId = userId;
+            this.stockSymbol = stockSymbol;
+        }
+
+        // A fill with a position id closes that position and is not netted with the rest
+        private void add(String fillId, Side side, int quantity, BigDecimal price, Long positionId) {
+            fillIds.add(fillId);
+            if (positionId != null) {
+                SettlementClose close = closes.computeIfAbsent(positionId, id -> new SettlementClose(id, 0L, BigDecimal.ZERO));
+                close.setQuantity(close.getQuantity() + quantity);
+                close.setPrice(close.getPrice().add(price));
+            } else if (side == Side.BUY) {
+                buyQuantity += quantity;
+                buyPrice = buyPrice.add(price);
+            } else {
+                sellQuantity += quantity;
+                sellPrice = sellPrice.add(price);
+            }
+        }
+
+        private SettlementEvent toEvent(long settledAt) {
+            long netQuantity = buyQuantity - sellQuantity;
+            long matched = Math.min(buyQuantity, sellQuantity);
+            BigDecimal netPrice = netQuantity > 0 ? share(buyPrice, netQuantity, buyQuantity)
+                    : share(sellPrice, -netQuantity, sellQuantity).negate();
+            return SettlementEvent.builder()
+                    .id(settlementId)
+                    .userId(userId)
+                    .stockSymbol(stockSymbol)
+                    .quantity(netQuantity)
+                    .price(netPrice)
+                    .buyQuantity(buyQuantity)
+                    .buyPrice(buyPrice)
+                    .sellQuantity(sellQuantity)
+                    .sellPrice(sellPrice)
+                    .realizedProfitLoss(share(sellPrice, matched, sellQuantity).subtract(share(buyPrice, matched, buyQuantity)))
+                    .closes(new ArrayList<>(closes.values()))
+                    .fillCount(fillIds.size())
+                    .settledAt(settledAt)
+                    .build();
+        }
+
+        // The part of a total that {@code quantity} of {@code totalQuantity} shares account for
+        private static BigDecimal share(BigDecimal total, long quantity, long totalQuantity) {
+            if (quantity == 0) {
+                return BigDecimal.ZERO;
+            }
+            return total.multiply(BigDecimal.valueOf(quantity)).divide(BigDecimal.valueOf(totalQuantity), 4, RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.order_service.trigger;
+
+import com.example.order_service.matching.Side;
+
+import java.math.BigDecimal;
+
+/**
+ * A resting conditional order as held by the {@link TriggerEngine}.
+ */
+public final class Trigger {
+
+    private final String id;
+    private final String userId;
+    private final String stockSymbol;
+    private final Side side;
+    private final TriggerCondition condition;
+    private final long triggerPrice;
+    private final int quantity;
+    private final BigDecimal limitPrice;
+    private final Long positionId;
+
+    public Trigger(String id, String userId, String stockSymbol, Side side, TriggerCondition condition, long triggerPrice,
+                   int quantity, BigDecimal limitPrice, Long positionId) {
+        this.id = id;
+        this.userId = userId;
+        this.stockSymbol = stockSymbol;
+        this.side = side;
+        this.condition = condition;
+        this.triggerPrice = triggerPrice;
+        this.quantity = quantity;
+        this.limitPrice = limitPrice;
+        this.positionId = positionId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+
+    public Side getSide() {
+        return side;
+    }
+
+    public TriggerCondition getCondition() {
+        return condition;
+    }
+
+    /**
+     * Fixed point.
+     */
+    public long getTriggerPrice() {
+        return triggerPrice;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Limit for the order placed on trigger, or null for a market order.
+     */
+    public BigDecimal getLimitPrice() {
+        return limitPrice;
+    }
+
+    public Long getPositionId() {
+        return positionId;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.order_service.trigger;
+
+import com.example.order_service.matching.Side;
+
+/**
+ * Which way the price has to cross a trigger: ABOVE fires once the price is at or over
+ * it, BELOW once it is at or under it.
+ */
+public enum TriggerCondition {
+    ABOVE,
+    BELOW;
+
+    /**
+     * @param triggerType STOP or TAKE_PROFIT
+     */
+    public static TriggerCondition of(String triggerType, Side side) {
+        boolean stop = switch (triggerType == null ? "" : triggerType.trim().toUpperCase()) {
+            case "STOP", "STOP_LOSS" -> true;
+            case "TAKE_PROFIT" -> false;
+            default -> throw new IllegalArgumentException("triggerType must be STOP or TAKE_PROFIT");
+        };
+        return stop == (side == Side.BUY) ? ABOVE : BELOW;
+    }
+
+    public String triggerType(Side side) {
+        return (this == ABOVE) == (side == Side.BUY) ? "STOP" : "TAKE_PROFIT";
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.order_service.trigger;
+
+import com.example.order_service.dto.TriggerOrderDto;
+import com.example.order_service.matching.Side;
+import com.example.order_service.util.FixedPoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Holds stop and take-profit orders in one {@link TriggerLadder} per symbol and fires
+ * them from the price feed. Firing only removes the triggers from their ladder; placing
+ * the resulting orders is handed to the {@link #onFire} handler on a small pool, so the
+ * price listener never waits for matching or the database.
+ * <p>
+ * Triggers are stored in {@code order_trigger} and reloaded on startup. A row is deleted
+ * once its order has been placed, so a trigger that fired just before a crash fires again
+ * after the restart. If the order is rejected or fails the row is kept as
+ * {@value #FAILED} with the reason, visible to the user until they cancel it; it is not
+ * re-armed, since the price that crossed it would fire it again straight away.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TriggerEngine {
+
+    private static final String ACTIVE = "ACTIVE";
+    private static final String FAILED = "FAILED";
+
+    private static final String INSERT_SQL = "INSERT INTO order_trigger (id, user_id, stock_symbol, order_type, trigger_condition, "
+            + "trigger_price, limit_price, quantity, position_id, created_at, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, '" + ACTIVE + "')";
+    private static final String DELETE_SQL = "DELETE FROM order_trigger WHERE id = ?";
+    private static final String DELETE_FAILED_SQL = "DELETE FROM order_trigger WHERE id = ? AND user_id = ? AND status = '" + FAILED + "'";
+    private static final String FAIL_SQL = "UPDATE order_trigger SET status = '" + FAILED + "', failure_reason = ? WHERE id = ?";
+    private static final String SELECT_SQL = "SELECT id, user_id, stock_symbol, order_type, trigger_condition, trigger_price, "
+            + "limit_price, quantity, position_id, status, failure_reason FROM order_trigger";
+    // rows written before the status column existed have a null status
+    private static final String ARMED = " WHERE status IS NULL OR status = '" + ACTIVE + "'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${triggers.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    private final Map<String, TriggerLadder> ladders = new ConcurrentHashMap<>();
+    private final Map<String, Trigger> triggers = new ConcurrentHashMap<>();
+
+    private ExecutorService dispatcher;
+    private volatile Function<Trigger, CompletableFuture<?>> handler = trigger ->
+            CompletableFuture.failedFuture(new IllegalStateException("No handler for fired triggers"));
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threads = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "trigger-dispatch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("orders.triggers.resting", triggers, Map::size);
+        load();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Called with every fired trigger, on a dispatch thread. The returned future completes
+     * once the order is placed, or exceptionally if it was not.
+     */
+    public void onFire(Function<Trigger, CompletableFuture<?>> handler) {
+        this.handler = handler;
+    }
+
+    public void add(Trigger trigger) {
+        jdbcTemplate.update(INSERT_SQL, trigger.getId(), trigger.getUserId(), trigger.getStockSymbol(), trigger.getSide().name(),
+                trigger.getCondition().name(), FixedPoint.toBigDecimal(trigger.getTriggerPrice()), trigger.getLimitPrice(),
+                trigger.getQuantity(), trigger.getPositionId(), System.currentTimeMillis());
+        index(trigger);
+    }
+
+    /**
+     * Cancels a resting trigger, or clears one that has {@value #FAILED}.
+     *
+     * @return false if {@code userId} has no such trigger or it is being placed
+     */
+    public boolean cancel(String triggerId, String userId) {
+        Trigger trigger = triggers.get(triggerId);
+        if (trigger == null) {
+            return jdbcTemplate.update(DELETE_FAILED_SQL, triggerId, userId) > 0;
+        }
+        if (!trigger.getUserId().equals(userId) || !ladders.get(trigger.getStockSymbol()).remove(trigger)) {
+            return false;
+        }
+        triggers.remove(triggerId);
+        jdbcTemplate.update(DELETE_SQL, triggerId);
+        return true;
+    }
+
+    /**
+     * Fires every trigger of {@code symbol} crossed by {@code price}, given in fixed point.
+     */
+    public void onPrice(String symbol, long price) {
+        TriggerLadder ladder = ladders.get(symbol);
+        if (ladder == null || !ladder.crossedBy(price)) {
+            return;
+        }
+        List<Trigger> fired = new ArrayList<>();
+        ladder.fire(price, fired);
+        for (Trigger trigger : fired) {
+            triggers.remove(trigger.getId());
+            dispatcher.execute(() -> dispatch(trigger));
+        }
+        meterRegistry.counter("orders.triggers.fired").increment(fired.size());
+    }
+
+    public List<TriggerOrderDto> getTriggersByUserId(String userId) {
+        return jdbcTemplate.query(SELECT_SQL + " WHERE user_id = ? ORDER BY id", (rs, row) -> {
+            Side side = Side.valueOf(rs.getString("order_type"));
+            return new TriggerOrderDto(rs.getString("id"), rs.getString("stock_symbol"), rs.getInt("quantity"), side.name(),
+                    TriggerCondition.valueOf(rs.getString("trigger_condition")).triggerType(side), rs.getBigDecimal("trigger_price"),
+                    rs.getBigDecimal("limit_price"), rs.getObject("position_id", Long.class),
+                    rs.getString("status") == null ? ACTIVE : rs.getString("status"), rs.getString("failure_reason"));
+        }, userId);
+    }
+
+    private void dispatch(Trigger trigger) {
+        CompletableFuture<?> placed;
+        try {
+            placed = handler.apply(trigger);
+        } catch (RuntimeException e) {
+            placed = CompletableFuture.failedFuture(e);
+        }
+        placed.whenCompleteAsync((ignored, ex) -> settle(trigger, ex), dispatcher);
+    }
+
+    private void settle(Trigger trigger, Throwable ex) {
+        try {
+            if (ex == null) {
+                jdbcTemplate.update(DELETE_SQL, trigger.getId());
+                return;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            meterRegistry.counter("orders.triggers.failed").increment();
+            log.warn("Order for trigger {} was not placed: {}", trigger.getId(), cause.getMessage());
+            jdbcTemplate.update(FAIL_SQL, String.valueOf(cause.getMessage()), trigger.getId());
+        } catch (DataAccessException e) {
+            // the row stays active, so the trigger fires again after a restart
+            log.error("Could not record the outcome of fired trigger {}", trigger.getId(), e);
+        }
+    }
+
+    private void index(Trigger trigger) {
+        triggers.put(trigger.getId(), trigger);
+        ladders.computeIfAbsent(trigger.getStockSymbol(), symbol -> new TriggerLadder()).add(trigger);
+    }
+
+    private void load() {
+        try {
+            jdbcTemplate.query(SELECT_SQL + ARMED, rs -> {
+                index(new Trigger(rs.getString("id"), rs.getString("user_id"), rs.getString("stock_symbol"),
+                        Side.valueOf(rs.getString("order_type")), TriggerCondition.valueOf(rs.getString("trigger_condition")),
+                        FixedPoint.toTicks(rs.getBigDecimal("trigger_price")), rs.getInt("quantity"),
+                        rs.getBigDecimal("limit_price"), rs.getObject("position_id", Long.class)));
+            });
+            log.info("Trigger engine loaded {} resting triggers", triggers.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not load resting triggers: {}", e.getMessage());
+        }
+    }
+}
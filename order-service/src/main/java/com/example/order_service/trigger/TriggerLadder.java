@@ -0,0 +1,80 @@
+package com.example.order_service.trigger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The triggers of one symbol, sorted by trigger price into two ladders. A tick at price p
+ * fires the ABOVE levels up to p and the BELOW levels from p upwards: a sub-map view, so
+ * O(log n + k) for k fired triggers. The nearest level of each ladder is kept in a
+ * volatile so a tick that crosses nothing never takes the lock.
+ */
+final class TriggerLadder {
+
+    private static final long NONE_ABOVE = Long.MAX_VALUE;
+    private static final long NONE_BELOW = Long.MIN_VALUE;
+
+    private final NavigableMap<Long, List<Trigger>> above = new TreeMap<>();
+    private final NavigableMap<Long, List<Trigger>> below = new TreeMap<>();
+
+    private volatile long lowestAbove = NONE_ABOVE;
+    private volatile long highestBelow = NONE_BELOW;
+
+    synchronized void add(Trigger trigger) {
+        ladder(trigger.getCondition()).computeIfAbsent(trigger.getTriggerPrice(), price -> new ArrayList<>(2)).add(trigger);
+        updateBounds();
+    }
+
+    synchronized boolean remove(Trigger trigger) {
+        NavigableMap<Long, List<Trigger>> ladder = ladder(trigger.getCondition());
+        List<Trigger> level = ladder.get(trigger.getTriggerPrice());
+        if (level == null || !level.remove(trigger)) {
+            return false;
+        }
+        if (level.isEmpty()) {
+            ladder.remove(trigger.getTriggerPrice());
+            updateBounds();
+        }
+        return true;
+    }
+
+    boolean crossedBy(long price) {
+        return price >= lowestAbove || price <= highestBelow;
+    }
+
+    /**
+     * Removes every trigger crossed by {@code price} and adds it to {@code fired}.
+     */
+    synchronized void fire(long price, List<Trigger> fired) {
+        if (!crossedBy(price)) {
+            return;
+        }
+        drain(above.headMap(price, true), fired);
+        drain(below.tailMap(price, true), fired);
+        updateBounds();
+    }
+
+    synchronized boolean isEmpty() {
+        return above.isEmpty() && below.isEmpty();
+    }
+
+    private NavigableMap<Long, List<Trigger>> ladder(TriggerCondition condition) {
+        return condition == TriggerCondition.ABOVE ? above : below;
+    }
+
+    private static void drain(NavigableMap<Long, List<Trigger>> crossed, List<Trigger> fired) {
+        for (Iterator<Map.Entry<Long, List<Trigger>>> it = crossed.entrySet().iterator(); it.hasNext(); ) {
+            fired.addAll(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    private void updateBounds() {
+        lowestAbove = above.isEmpty() ? NONE_ABOVE : above.firstKey();
+        highestBelow = below.isEmpty() ? NONE_BELOW : below.lastKey();
+    }
+}
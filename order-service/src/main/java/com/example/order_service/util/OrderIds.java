@@ -0,0 +1,27 @@
+package com.example.order_service.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered order ids in the UUIDv7 layout: 48 bits of epoch millis, a 12-bit counter
+ * for ids issued within the same millisecond, then random bits. Ids sort by creation time
+ * and index well as primary keys.
+ */
+public final class OrderIds {
+
+    // epoch millis << 12 | counter of the last id issued
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private OrderIds() {
+    }
+
+    public static String next() {
+        long now = System.currentTimeMillis() << 12;
+        long stamp = LAST.updateAndGet(previous -> Math.max(previous + 1, now));
+        long mostSignificant = ((stamp >>> 12) << 16) | 0x7000L | (stamp & 0xFFFL);
+        long leastSignificant = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
+}
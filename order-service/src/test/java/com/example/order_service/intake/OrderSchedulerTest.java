@@ -0,0 +1,105 @@
+package com.example.order_service.intake;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderSchedulerTest {
+
+    private final List<String> served = Collections.synchronizedList(new ArrayList<>());
+    private OrderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("orders.scheduler.tier.gold.weight", "2")
+                .withProperty("orders.scheduler.tier.gold.queue-capacity", "10")
+                .withProperty("orders.scheduler.tier.standard.weight", "1")
+                .withProperty("orders.scheduler.tier.standard.queue-capacity", "3")
+                .withProperty("orders.scheduler.users.gold-user", "gold");
+        scheduler = new OrderScheduler(environment, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "tierNames", new String[]{"gold", "standard"});
+        ReflectionTestUtils.setField(scheduler, "defaultTier", "standard");
+        ReflectionTestUtils.setField(scheduler, "maxInFlight", 1);
+        ReflectionTestUtils.setField(scheduler, "maxQueued", 100);
+        scheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        scheduler.stop();
+    }
+
+    @Test
+    void servesUsersInProportionToTheirWeight() throws Exception {
+        CompletableFuture<Void> gate = holdOnlySlot();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(scheduler.submit("gold-user", () -> record("gold")));
+        }
+        for (int i = 0; i < 3; i++) {
+            results.add(scheduler.submit("someone", () -> record("standard")));
+        }
+
+        gate.complete(null);
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThat(served).containsExactly("gold", "gold", "standard", "gold", "gold", "standard", "gold", "gold", "standard");
+    }
+
+    @Test
+    void rejectsOrdersBeyondTheUsersQueueCapacity() throws Exception {
+        CompletableFuture<Void> gate = holdOnlySlot();
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit("someone", () -> record("standard"));
+        }
+
+        assertThatThrownBy(() -> scheduler.submit("someone", () -> record("standard")))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(scheduler.submit("gold-user", () -> record("gold"))).isNotNull();
+        gate.complete(null);
+    }
+
+    @Test
+    void holdsTheSlotUntilTheOrderIsDone() throws Exception {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<String> answered = scheduler.submit("someone",
+                () -> new Placement<>(CompletableFuture.completedFuture("accepted"), done));
+        assertThat(answered.get(5, TimeUnit.SECONDS)).isEqualTo("accepted");
+
+        CompletableFuture<String> next = scheduler.submit("other", () -> record("standard"));
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertThat(next).isNotDone();
+
+        done.complete(null);
+        assertThat(next.get(5, TimeUnit.SECONDS)).isEqualTo("standard");
+    }
+
+    // Occupies the only in-flight slot until the returned future completes
+    private CompletableFuture<Void> holdOnlySlot() throws Exception {
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        CompletableFuture<String> started = scheduler.submit("warm-up",
+                () -> new Placement<>(CompletableFuture.completedFuture("started"), gate));
+        started.get(5, TimeUnit.SECONDS);
+        return gate;
+    }
+
+    private Placement<String> record(String tier) {
+        served.add(tier);
+        return Placement.of(CompletableFuture.completedFuture(tier));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.order_service.intake;
+
+import com.example.order_service.entity.Order;
+import com.example.order_service.settlement.SettlementBatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Rows passed to each batchUpdate, keyed by statement
+    private final Map<String, List<List<Object[]>>> batches = new ConcurrentHashMap<>();
+    private OrderWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            batches.computeIfAbsent(invocation.getArgument(0), sql -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(new ArrayList<>(rows));
+            return new int[rows.size()];
+        });
+        writer = new OrderWriter(jdbcTemplate, transactionTemplate, new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(writer, "maxBatch", 3);
+        ReflectionTestUtils.setField(writer, "lingerMicros", TimeUnit.SECONDS.toMicros(2));
+        ReflectionTestUtils.setField(writer, "queueCapacity", 10);
+        ReflectionTestUtils.setField(writer, "orderEventsTopic", "order-events");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void commitsAFullGroupInOneTransaction() throws Exception {
+        writer.start();
+        OpenOrderChanges resting = new OpenOrderChanges();
+        resting.insert("o-2", "bob", "ACME", "BUY", new BigDecimal("10.00"), 5, null, 7);
+
+        CompletableFuture<Void> first = writer.write(List.of(order("o-1", "alice")), new OpenOrderChanges());
+        CompletableFuture<Void> second = writer.write(List.of(order("o-2", "bob")), resting);
+        CompletableFuture<Void> third = writer.write(List.of(order("o-3", "carol")), new OpenOrderChanges());
+        CompletableFuture.allOf(first, second, third).get(1, TimeUnit.SECONDS);
+
+        assertThat(statement("INSERT INTO order_table")).singleElement()
+                .satisfies(rows -> assertThat(rows).extracting(row -> row[0]).containsExactly("o-1", "o-2", "o-3"));
+        assertThat(statement("INSERT INTO open_order")).singleElement()
+                .satisfies(rows -> assertThat(rows).extracting(row -> row[0]).containsExactly("o-2"));
+        assertThat(statement("INSERT INTO order_outbox")).singleElement()
+                .satisfies(rows -> assertThat(rows).extracting(row -> row[1]).containsExactly("alice", "bob", "carol"));
+        assertThat(meterRegistry.summary("orders.writer.batch.size").max()).isEqualTo(3);
+    }
+
+    @Test
+    void failsEveryWriteOfTheGroupWhenTheTransactionFails() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        writer.start();
+
+        CompletableFuture<Void> first = writer.write(List.of(order("o-1", "alice")), new OpenOrderChanges());
+        CompletableFuture<Void> second = writer.write(List.of(order("o-2", "bob")), new OpenOrderChanges());
+        CompletableFuture<Void> third = writer.write(List.of(order("o-3", "carol")), new OpenOrderChanges());
+
+        for (CompletableFuture<Void> future : List.of(first, second, third)) {
+            assertThatThrownBy(() -> future.get(1, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        }
+        assertThat(meterRegistry.summary("orders.writer.batch.size").count()).isZero();
+    }
+
+    @Test
+    void leavesOrdersPendingWithoutOutboxEventsUnderSettlement() throws Exception {
+        ReflectionTestUtils.setField(writer, "settlementEnabled", true);
+        ReflectionTestUtils.setField(writer, "lingerMicros", 0L);
+        writer.start();
+
+        writer.write(List.of(order("o-1", "alice")), new OpenOrderChanges()).get(1, TimeUnit.SECONDS);
+
+        assertThat(statement("INSERT INTO order_table")).singleElement()
+                .satisfies(rows -> assertThat(rows.get(0)[9]).isEqualTo(SettlementBatcher.PENDING));
+        assertThat(statement("INSERT INTO order_outbox")).isEmpty();
+    }
+
+    private List<List<Object[]>> statement(String prefix) {
+        String sql = batches.keySet().stream().filter(key -> key.startsWith(prefix)).findFirst().orElse(null);
+        return sql == null ? List.of() : batches.get(sql);
+    }
+
+    private static Order order(String id, String userId) {
+        return Order.builder()
+                .id(id)
+                .userId(userId)
+                .stockSymbol("ACME")
+                .quantity(5)
+                .orderType("BUY")
+                .price(new BigDecimal("10.00"))
+                .status("FILLED")
+                .build();
+    }
+}
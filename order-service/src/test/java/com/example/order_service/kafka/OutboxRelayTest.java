@@ -0,0 +1,132 @@
+package com.example.order_service.kafka;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    // Rows the next SELECT returns, one list per query
+    private final Deque<List<Object[]>> batches = new ArrayDeque<>();
+    private final List<List<Object>> deletedIds = new ArrayList<>();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            List<Object[]> rows = batches.isEmpty() ? List.of() : batches.poll();
+            for (Object[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn((Long) row[0]);
+                when(rs.getString("topic")).thenReturn("order-events");
+                when(rs.getString("message_key")).thenReturn((String) row[1]);
+                when(rs.getString("payload")).thenReturn("{}");
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object.class));
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenAnswer(invocation -> {
+            PreparedStatement ps = mock(PreparedStatement.class);
+            Connection connection = mock(Connection.class);
+            when(ps.getConnection()).thenReturn(connection);
+            when(connection.createArrayOf(eq("bigint"), any())).thenAnswer(create -> {
+                deletedIds.add(List.of(create.<Object[]>getArgument(1)));
+                return mock(Array.class);
+            });
+            invocation.<PreparedStatementSetter>getArgument(1).setValues(ps);
+            return 0;
+        });
+        relay = new OutboxRelay(jdbcTemplate, transactionTemplate, kafkaTemplate);
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMillis", 1_000L);
+    }
+
+    @Test
+    void deletesTheBatchOnceEverySendIsAcknowledged() {
+        acknowledgeSends();
+        batches.add(List.<Object[]>of(row(1L, "alice")));
+
+        relay.relay();
+
+        verify(kafkaTemplate).send("order-events", "alice", "{}");
+        verify(kafkaTemplate).flush();
+        assertThat(deletedIds).containsExactly(List.of(1L));
+    }
+
+    @Test
+    void keepsRelayingWhileBatchesComeBackFull() {
+        acknowledgeSends();
+        batches.add(List.of(row(1L, "alice"), row(2L, "bob")));
+        batches.add(List.<Object[]>of(row(3L, "carol")));
+
+        relay.relay();
+
+        verify(transactionTemplate, times(2)).execute(any());
+        assertThat(deletedIds).containsExactly(List.of(1L, 2L), List.of(3L));
+    }
+
+    @Test
+    void leavesTheRowsInPlaceWhenASendFails() {
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        batches.add(List.of(row(1L, "alice"), row(2L, "bob")));
+
+        assertThatThrownBy(() -> relay.relay()).isInstanceOf(IllegalStateException.class).hasMessageContaining("batch of 2");
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    void doesNothingWhenTheOutboxIsEmpty() {
+        relay.relay();
+
+        verify(kafkaTemplate, never()).flush();
+        assertThat(deletedIds).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void acknowledgeSends() {
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+    }
+
+    private static Object[] row(long id, String key) {
+        return new Object[]{id, key};
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.order_service.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceTickDecoderTest {
+
+    private final PriceTickDecoder decoder = new PriceTickDecoder();
+
+    @Test
+    void decodesStockServiceLayout() {
+        byte[] tick = tick(PriceTickDecoder.VERSION, 70_000, 1_234_567_890L, 5_000_000_000L, 1_760_000_000_000L);
+
+        assertThat(decoder.wrap(tick).isBinary()).isTrue();
+        assertThat(decoder.symbolId()).isEqualTo(70_000);
+        assertThat(decoder.price()).isEqualTo(1_234_567_890L);
+        assertThat(decoder.sequence()).isEqualTo(5_000_000_000L);
+        assertThat(decoder.timestamp()).isEqualTo(1_760_000_000_000L);
+    }
+
+    @Test
+    void treatsJsonAndShortMessagesAsNotBinary() {
+        byte[] json = "{\"symbol\": \"ACME\", \"price\": \"12.50\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(decoder.wrap(json).isBinary()).isFalse();
+        assertThat(decoder.wrap(new byte[]{PriceTickDecoder.MAGIC, PriceTickDecoder.VERSION}).isBinary()).isFalse();
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        byte[] tick = tick((byte) 2, 1, 1, 1, 1);
+
+        assertThatThrownBy(() -> decoder.wrap(tick).isBinary()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] tick(byte version, int symbolId, long price, long sequence, long timestamp) {
+        return ByteBuffer.allocate(PriceTickDecoder.LENGTH)
+                .put(PriceTickDecoder.MAGIC)
+                .put(version)
+                .putInt(symbolId)
+                .putLong(price)
+                .putLong(sequence)
+                .putLong(timestamp)
+                .array();
+    }
+}
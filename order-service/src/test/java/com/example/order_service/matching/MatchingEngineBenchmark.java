@@ -0,0 +1,129 @@
+package com.example.order_service.matching;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Orders per second through {@link MatchingEngine#submit}, from submission to the committed
+ * result, for bursts of {@value #ORDERS} orders over four shards, with a committer that takes
+ * {@code commitMicros} per write on a single thread like the order writer. {@code maxUncommitted = 1} makes a shard wait for every write before
+ * matching more than one batch ahead, which is close to the old join-per-batch behaviour.
+ * <p>
+ * Run with {@code mvn test-compile} and then {@code MatchingEngineBenchmark#main} on the
+ * test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchingEngineBenchmark {
+
+    private static final int ORDERS = 8192;
+    private static final long MID = 1_000_000L;
+    private static final String[] SYMBOLS = {"AAA", "BBB", "CCC", "DDD", "EEE", "FFF", "GGG", "HHH"};
+
+    @Param({"0", "1000"})
+    private long commitMicros;
+
+    @Param({"1", "4096"})
+    private int maxUncommitted;
+
+    private final CompletableFuture<?>[] results = new CompletableFuture<?>[ORDERS];
+    private ExecutorService writer;
+    private MatchingEngine engine;
+    private SplittableRandom random;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        writer = Executors.newSingleThreadExecutor();
+        engine = new MatchingEngine(4, 256, 65_536, maxUncommitted, new SlowCommitter(writer, commitMicros));
+        engine.start();
+        random = new SplittableRandom(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.shutdown();
+        writer.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void submit() {
+        for (int i = 0; i < ORDERS; i++) {
+            results[i] = engine.submit(nextOrder());
+        }
+        CompletableFuture.allOf(results).join();
+    }
+
+    private OrderRequest nextOrder() {
+        Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+        long price = MID + random.nextInt(-5, 6);
+        return new OrderRequest(Long.toString(nextId++), "user-" + random.nextInt(64), null, SYMBOLS[random.nextInt(SYMBOLS.length)],
+                side, price, random.nextInt(1, 101), MID);
+    }
+
+    // One write at a time, each taking a fixed time, in submission order
+    private static final class SlowCommitter implements BookCommitter {
+
+        private final ExecutorService writer;
+        private final long commitNanos;
+
+        private SlowCommitter(ExecutorService writer, long commitMicros) {
+            this.writer = writer;
+            this.commitNanos = TimeUnit.MICROSECONDS.toNanos(commitMicros);
+        }
+
+        @Override
+        public List<OrderRequest> openOrders() {
+            return List.of();
+        }
+
+        @Override
+        public CompletableFuture<Void> commit(List<MatchResult> matches, List<String> cancelledOrderIds) {
+            return CompletableFuture.runAsync(() -> {
+                if (commitNanos > 0) {
+                    LockSupport.parkNanos(commitNanos);
+                }
+            }, writer);
+        }
+
+        @Override
+        public void afterCommit(List<MatchResult> matches, List<String> cancelledOrderIds) {
+        }
+
+        @Override
+        public void afterRollback(List<MatchResult> matches, List<String> cancelledOrderIds, Throwable cause) {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MatchingEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
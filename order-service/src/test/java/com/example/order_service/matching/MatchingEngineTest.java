@@ -0,0 +1,130 @@
+package com.example.order_service.matching;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MatchingEngineTest {
+
+    private final HeldCommitter committer = new HeldCommitter();
+    private MatchingEngine engine;
+    private int nextId;
+
+    @BeforeEach
+    void setUp() {
+        engine = new MatchingEngine(1, 16, 1024, 1024, committer);
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void completesOnlyOnceTheWriteIsCommitted() throws Exception {
+        CompletableFuture<MatchResult> rested = engine.submit(order("alice", Side.SELL, 100, 5));
+
+        awaitWrites(1);
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertThat(rested).isNotDone();
+
+        committer.writes.get(0).complete(null);
+        assertThat(rested.get(5, TimeUnit.SECONDS).isResting()).isTrue();
+        assertThat(committer.committed).hasSize(1);
+    }
+
+    @Test
+    void keepsMatchingWhileAWriteIsInFlightAndWritesTheBacklogAsOneGroup() throws Exception {
+        CompletableFuture<MatchResult> first = engine.submit(order("alice", Side.SELL, 100, 5));
+        awaitWrites(1);
+
+        CompletableFuture<MatchResult> second = engine.submit(order("bob", Side.BUY, 100, 2));
+        CompletableFuture<MatchResult> third = engine.submit(order("carol", Side.BUY, 100, 2));
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(committer.writes).hasSize(1);
+
+        committer.writes.get(0).complete(null);
+        awaitWrites(2);
+        assertThat(committer.written.get(1)).hasSize(2);
+        assertThat(second).isNotDone();
+
+        committer.writes.get(1).complete(null);
+        assertThat(first.get(5, TimeUnit.SECONDS).getFilledQuantity()).isZero();
+        assertThat(second.get(5, TimeUnit.SECONDS).getFilledQuantity()).isEqualTo(2);
+        assertThat(third.get(5, TimeUnit.SECONDS).getFilledQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void failedWriteRollsBackTheBatchesMatchedBehindIt() throws Exception {
+        CompletableFuture<MatchResult> rested = engine.submit(order("alice", Side.SELL, 100, 5));
+        awaitWrites(1);
+        CompletableFuture<MatchResult> crossed = engine.submit(order("bob", Side.BUY, 100, 5));
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        committer.writes.get(0).completeExceptionally(new IllegalStateException("disk full"));
+
+        assertThatThrownBy(() -> rested.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasMessageContaining("disk full");
+        assertThatThrownBy(() -> crossed.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasMessageContaining("disk full");
+        assertThat(committer.rolledBack).hasSize(2);
+        assertThat(committer.writes).hasSize(1);
+
+        CompletableFuture<MatchResult> after = engine.submit(order("carol", Side.BUY, 100, 5));
+        awaitWrites(2);
+        committer.writes.get(1).complete(null);
+        assertThat(after.get(5, TimeUnit.SECONDS).getFills()).isEmpty();
+    }
+
+    private void awaitWrites(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (committer.writes.size() < count && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertThat(committer.writes).hasSize(count);
+    }
+
+    private OrderRequest order(String userId, Side side, long price, int quantity) {
+        return new OrderRequest("o" + nextId++, userId, null, "ACME", side, price, quantity, 100);
+    }
+
+    // Every write stays pending until the test completes it
+    private static final class HeldCommitter implements BookCommitter {
+
+        private final List<CompletableFuture<Void>> writes = new CopyOnWriteArrayList<>();
+        private final List<List<MatchResult>> written = new CopyOnWriteArrayList<>();
+        private final List<List<MatchResult>> committed = new CopyOnWriteArrayList<>();
+        private final List<List<MatchResult>> rolledBack = new CopyOnWriteArrayList<>();
+
+        @Override
+        public List<OrderRequest> openOrders() {
+            return List.of();
+        }
+
+        @Override
+        public CompletableFuture<Void> commit(List<MatchResult> matches, List<String> cancelledOrderIds) {
+            CompletableFuture<Void> write = new CompletableFuture<>();
+            written.add(matches);
+            writes.add(write);
+            return write;
+        }
+
+        @Override
+        public void afterCommit(List<MatchResult> matches, List<String> cancelledOrderIds) {
+            committed.add(matches);
+        }
+
+        @Override
+        public void afterRollback(List<MatchResult> matches, List<String> cancelledOrderIds, Throwable cause) {
+            rolledBack.add(matches);
+        }
+    }
+}
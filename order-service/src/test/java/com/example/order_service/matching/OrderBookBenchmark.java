@@ -0,0 +1,76 @@
+package com.example.order_service.matching;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Match latency of a single book as seen by its shard thread: limit orders from 64 users
+ * within a few ticks of the mid, so roughly half of them cross and the rest rest, with the
+ * undo journal committed after every order. {@code SampleTime} reports the percentiles the
+ * sub-10us target is about; {@code Throughput} the orders per second one shard sustains.
+ * <p>
+ * Run with {@code mvn test-compile} and then {@code OrderBookBenchmark#main} on the test
+ * classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBookBenchmark {
+
+    private static final long MID = 1_000_000L;
+    private static final int USERS = 64;
+
+    private final String[] users = new String[USERS];
+    private OrderBook book;
+    private SplittableRandom random;
+    private long nextId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            users[i] = "user-" + i;
+        }
+        book = new OrderBook("BENCH");
+        random = new SplittableRandom(42);
+        for (int i = 0; i < 10_000; i++) {
+            book.match(nextOrder());
+        }
+        book.commit();
+    }
+
+    @Benchmark
+    public MatchResult match() {
+        MatchResult result = book.match(nextOrder());
+        book.commit();
+        return result;
+    }
+
+    private OrderRequest nextOrder() {
+        Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+        long price = MID + random.nextInt(-5, 6);
+        return new OrderRequest(Long.toString(nextId++), users[random.nextInt(USERS)], null, "BENCH", side, price,
+                random.nextInt(1, 101), MID);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OrderBookBenchmark.class.getSimpleName()).build()).run();
+    }
+}
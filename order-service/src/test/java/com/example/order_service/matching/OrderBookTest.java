@@ -0,0 +1,145 @@
+package com.example.order_service.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class OrderBookTest {
+
+    private final OrderBook book = new OrderBook("ACME");
+    private int nextId;
+
+    @Test
+    void fillsAtBestPriceFirstAndMakerPrice() {
+        limit("alice", Side.SELL, 102, 10);
+        limit("bob", Side.SELL, 101, 10);
+
+        MatchResult result = book.match(order("carol", Side.BUY, 105, 15));
+
+        assertThat(result.getFills()).extracting(Fill::getMakerUserId, Fill::getPrice, Fill::getQuantity)
+                .containsExactly(tuple("bob", 101L, 10), tuple("alice", 102L, 5));
+        assertThat(result.getRemainingQuantity()).isZero();
+        assertThat(result.isResting()).isFalse();
+        assertThat(book.bestAsk()).isEqualTo(102);
+    }
+
+    @Test
+    void fillsOrdersAtOnePriceInTimePriority() {
+        String first = limit("alice", Side.BUY, 100, 5);
+        String second = limit("bob", Side.BUY, 100, 5);
+
+        MatchResult result = book.match(order("carol", Side.SELL, 100, 7));
+
+        assertThat(result.getFills()).extracting(Fill::getMakerOrderId).containsExactly(first, second);
+        assertThat(result.getFills().get(1).getMakerRemaining()).isEqualTo(3);
+        assertThat(book.restingOrders()).isEqualTo(1);
+    }
+
+    @Test
+    void restsLimitRemainderButNotMarketRemainder() {
+        limit("alice", Side.SELL, 101, 4);
+
+        MatchResult limit = book.match(order("bob", Side.BUY, 101, 10));
+        assertThat(limit.getRemainingQuantity()).isEqualTo(6);
+        assertThat(limit.isResting()).isTrue();
+        assertThat(book.bestBid()).isEqualTo(101);
+
+        MatchResult market = book.match(order("carol", Side.SELL, OrderBook.MARKET_PRICE, 10));
+        assertThat(market.getFilledQuantity()).isEqualTo(6);
+        assertThat(market.isResting()).isFalse();
+        assertThat(book.restingOrders()).isZero();
+    }
+
+    @Test
+    void doesNotCrossWorseLimit() {
+        limit("alice", Side.SELL, 105, 10);
+
+        MatchResult result = book.match(order("bob", Side.BUY, 104, 10));
+
+        assertThat(result.getFills()).isEmpty();
+        assertThat(book.bestBid()).isEqualTo(104);
+        assertThat(book.bestAsk()).isEqualTo(105);
+    }
+
+    @Test
+    void cancelsOwnRestingOrderInsteadOfTradingWithIt() {
+        String own = limit("alice", Side.SELL, 100, 5);
+        limit("bob", Side.SELL, 100, 5);
+
+        MatchResult result = book.match(order("alice", Side.BUY, 100, 5));
+
+        assertThat(result.getSelfTradeCancels()).containsExactly(own);
+        assertThat(result.getFills()).extracting(Fill::getMakerUserId).containsExactly("bob");
+        assertThat(book.restingOrders()).isZero();
+    }
+
+    @Test
+    void rollbackRestoresQuantitiesAndTimePriority() {
+        String first = limit("alice", Side.SELL, 100, 5);
+        String second = limit("bob", Side.SELL, 100, 5);
+
+        book.match(order("carol", Side.BUY, 100, 7));
+        book.match(order("dave", Side.BUY, 99, 3));
+        assertThat(book.hasUncommittedChanges()).isTrue();
+        book.rollback();
+
+        assertThat(book.hasUncommittedChanges()).isFalse();
+        assertThat(book.restingOrders()).isEqualTo(2);
+        assertThat(book.bestBid()).isEqualTo(OrderBook.MARKET_PRICE);
+        MatchResult replay = book.match(order("erin", Side.BUY, 100, 10));
+        assertThat(replay.getFills()).extracting(Fill::getMakerOrderId, Fill::getQuantity)
+                .containsExactly(tuple(first, 5), tuple(second, 5));
+    }
+
+    @Test
+    void rollbackToMarkKeepsEarlierUncommittedBatch() {
+        String first = limit("alice", Side.SELL, 100, 5);
+
+        book.match(order("bob", Side.BUY, 100, 2));
+        long mark = book.mark();
+        book.match(order("carol", Side.BUY, 100, 3));
+        book.rollbackTo(mark);
+        book.commitTo(mark);
+
+        assertThat(book.hasUncommittedChanges()).isFalse();
+        MatchResult next = book.match(order("dave", Side.BUY, 100, 5));
+        assertThat(next.getFills()).extracting(Fill::getMakerOrderId, Fill::getQuantity).containsExactly(tuple(first, 3));
+        assertThat(book.bestBid()).isEqualTo(100);
+    }
+
+    @Test
+    void onlyOwnerCanCancel() {
+        String id = limit("alice", Side.BUY, 100, 5);
+
+        assertThat(book.cancel(id, "bob")).isFalse();
+        assertThat(book.cancel(id, "alice")).isTrue();
+        assertThat(book.cancel(id, "alice")).isFalse();
+        assertThat(book.restingOrders()).isZero();
+    }
+
+    @Test
+    void restoredOrdersKeepTheirOrder() {
+        book.restore(new OrderRequest("r1", "alice", 7L, "ACME", Side.SELL, 100, 5, 0));
+        book.restore(new OrderRequest("r2", "bob", null, "ACME", Side.SELL, 100, 5, 0));
+
+        List<Fill> fills = book.match(order("carol", Side.BUY, 100, 6)).getFills();
+
+        assertThat(fills).extracting(Fill::getMakerOrderId).containsExactly("r1", "r2");
+        assertThat(fills.get(0).getMakerPositionId()).isEqualTo(7L);
+        assertThat(book.hasUncommittedChanges()).isTrue();
+    }
+
+    private String limit(String userId, Side side, long price, int quantity) {
+        OrderRequest request = order(userId, side, price, quantity);
+        book.match(request);
+        book.commit();
+        return request.getOrderId();
+    }
+
+    private OrderRequest order(String userId, Side side, long price, int quantity) {
+        return new OrderRequest("o" + nextId++, userId, null, "ACME", side, price, quantity, 100);
+    }
+}
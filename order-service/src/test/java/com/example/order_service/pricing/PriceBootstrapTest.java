@@ -0,0 +1,122 @@
+package com.example.order_service.pricing;
+
+import com.example.order_service.kafka.PriceTickDecoder;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceBootstrapTest {
+
+    private static final TopicPartition P0 = new TopicPartition(PriceBootstrap.LATEST_TOPIC, 0);
+    private static final TopicPartition P1 = new TopicPartition(PriceBootstrap.LATEST_TOPIC, 1);
+
+    private final MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private PriceTable priceTable;
+    private PriceBootstrap bootstrap;
+
+    @BeforeEach
+    void setUp() {
+        priceTable = new PriceTable();
+        ReflectionTestUtils.setField(priceTable, "capacity", 16);
+        priceTable.init();
+        bootstrap = new PriceBootstrap(priceTable) {
+            @Override
+            Consumer<String, byte[]> createConsumer(Map<String, Object> props) {
+                return consumer;
+            }
+        };
+        ReflectionTestUtils.setField(bootstrap, "bootstrapServers", "localhost:9092");
+        ReflectionTestUtils.setField(bootstrap, "enabled", true);
+        ReflectionTestUtils.setField(bootstrap, "timeoutMillis", 300L);
+        consumer.updatePartitions(PriceBootstrap.LATEST_TOPIC, List.of(
+                new PartitionInfo(PriceBootstrap.LATEST_TOPIC, 0, null, null, null),
+                new PartitionInfo(PriceBootstrap.LATEST_TOPIC, 1, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L, P1, 0L));
+    }
+
+    @Test
+    void reportsOutOfServiceUntilItHasRun() {
+        assertThat(bootstrap.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    }
+
+    @Test
+    void readsEveryPartitionUpToTheEndOffsetsTakenAtStart() {
+        consumer.updateEndOffsets(Map.of(P0, 2L, P1, 2L));
+        // a live tick newer than the replayed ACME price
+        priceTable.update("ACME", 105_000L, 12, 3_000L);
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(P0, 0, "ACME", tick(101_000L, 10), 2_000L));
+            consumer.addRecord(record(P0, 1, "MSFT", tick(202_000L, 4), 2_000L));
+            consumer.addRecord(record(P1, 0, "IBM", "{\"price\": \"1.00\"}".getBytes(StandardCharsets.UTF_8), 2_000L));
+            consumer.addRecord(record(P1, 1, "ORCL", tick(303_000L, 8), 2_500L));
+        });
+
+        bootstrap.run(new DefaultApplicationArguments());
+
+        assertThat(priceTable.price("ACME")).isEqualTo(105_000L);
+        assertThat(priceTable.freshPrice("MSFT", 2_100L, 500)).isEqualTo(202_000L);
+        assertThat(priceTable.freshPrice("MSFT", 2_501L, 500)).isEqualTo(PriceTable.STALE);
+        assertThat(priceTable.price("IBM")).isEqualTo(PriceTable.UNKNOWN);
+        assertThat(priceTable.sequence("ORCL")).isEqualTo(8);
+        assertThat(bootstrap.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(bootstrap.health().getDetails()).containsEntry("state", "loaded").containsEntry("records", 3);
+        assertThat(consumer.closed()).isTrue();
+    }
+
+    @Test
+    void startsWithWhatItHasWhenThePartitionsDoNotDrainInTime() {
+        consumer.updateEndOffsets(Map.of(P0, 5L, P1, 0L));
+        consumer.schedulePollTask(() -> consumer.addRecord(record(P0, 0, "ACME", tick(101_000L, 1), 2_000L)));
+
+        bootstrap.run(new DefaultApplicationArguments());
+
+        assertThat(priceTable.price("ACME")).isEqualTo(101_000L);
+        assertThat(bootstrap.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(bootstrap.health().getDetails()).containsEntry("state", "incomplete");
+        assertThat((String) bootstrap.health().getDetails().get("error")).contains("1 partitions unfinished");
+    }
+
+    @Test
+    void staysOffTheBrokerWhenDisabled() {
+        ReflectionTestUtils.setField(bootstrap, "enabled", false);
+
+        bootstrap.run(new DefaultApplicationArguments());
+
+        assertThat(bootstrap.health().getDetails()).containsEntry("state", "disabled");
+        assertThat(consumer.assignment()).isEmpty();
+    }
+
+    private static ConsumerRecord<String, byte[]> record(TopicPartition partition, long offset, String key, byte[] value, long timestamp) {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, timestamp, TimestampType.CREATE_TIME,
+                key.length(), value.length, key, value, new RecordHeaders(), Optional.empty());
+    }
+
+    private static byte[] tick(long price, long sequence) {
+        return ByteBuffer.allocate(PriceTickDecoder.LENGTH)
+                .put(PriceTickDecoder.MAGIC)
+                .put(PriceTickDecoder.VERSION)
+                .putInt(0)
+                .putLong(price)
+                .putLong(sequence)
+                .putLong(0)
+                .array();
+    }
+}
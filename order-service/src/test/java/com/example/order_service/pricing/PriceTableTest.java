@@ -0,0 +1,82 @@
+package com.example.order_service.pricing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceTableTest {
+
+    private PriceTable priceTable;
+
+    @BeforeEach
+    void setUp() {
+        priceTable = new PriceTable();
+        ReflectionTestUtils.setField(priceTable, "capacity", 2);
+        priceTable.init();
+    }
+
+    @Test
+    void reportsAPriceAsStaleOnceItIsOlderThanTheMaxAge() {
+        priceTable.update("ACME", 101_000L, 7, 1_000L);
+
+        assertThat(priceTable.freshPrice("ACME", 1_500L, 500)).isEqualTo(101_000L);
+        assertThat(priceTable.freshPrice("ACME", 1_501L, 500)).isEqualTo(PriceTable.STALE);
+        assertThat(priceTable.freshPrice("ACME", 99_000L, 0)).isEqualTo(101_000L);
+        assertThat(priceTable.freshPrice("MSFT", 1_000L, 500)).isEqualTo(PriceTable.UNKNOWN);
+        assertThat(priceTable.sequence("ACME")).isEqualTo(7);
+    }
+
+    @Test
+    void keepsALiveTickOverAReplayedOlderOne() {
+        priceTable.update("ACME", 102_000L, 9, 2_000L);
+
+        priceTable.updateIfNewer("ACME", 100_000L, 3, 1_000L);
+        assertThat(priceTable.price("ACME")).isEqualTo(102_000L);
+
+        priceTable.updateIfNewer("ACME", 103_000L, 10, 3_000L);
+        assertThat(priceTable.price("ACME")).isEqualTo(103_000L);
+        assertThat(priceTable.sequence("ACME")).isEqualTo(10);
+    }
+
+    @Test
+    void wakesEveryWaiterOnTheNextPriceForItsSymbol() throws Exception {
+        CompletableFuture<Void> first = priceTable.awaitUpdate("ACME", 5_000);
+        CompletableFuture<Void> second = priceTable.awaitUpdate("ACME", 5_000);
+        CompletableFuture<Void> other = priceTable.awaitUpdate("MSFT", 5_000);
+
+        priceTable.update("ACME", 101_000L, 1, System.currentTimeMillis());
+
+        CompletableFuture.allOf(first, second).get(1, TimeUnit.SECONDS);
+        assertThat(other).isNotDone();
+    }
+
+    @Test
+    void forgetsAWaiterThatTimedOut() {
+        CompletableFuture<Void> waiter = priceTable.awaitUpdate("ACME", 10);
+
+        assertThatThrownBy(() -> waiter.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(priceTable, "waiters")).isEmpty();
+    }
+
+    @Test
+    void refusesSymbolsBeyondItsCapacity() {
+        priceTable.update("ACME", 1L, 1, 1L);
+        priceTable.update("MSFT", 1L, 1, 1L);
+
+        assertThatThrownBy(() -> priceTable.update("IBM", 1L, 1, 1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("pricing.max-symbols");
+        assertThat(priceTable.size()).isEqualTo(2);
+    }
+}
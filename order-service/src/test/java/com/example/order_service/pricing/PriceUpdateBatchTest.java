@@ -0,0 +1,57 @@
+package com.example.order_service.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceUpdateBatchTest {
+
+    private final PriceUpdateBatch batch = new PriceUpdateBatch();
+
+    @Test
+    void keepsTheLatestPricePerSymbolWithTheRangeItMovedThrough() {
+        batch.add("ACME", 100, 1);
+        batch.add("MSFT", 500, 1);
+        batch.add("ACME", 120, 2);
+        batch.add("ACME", 90, 3);
+        batch.add("ACME", 105, 4);
+
+        assertThat(batch.size()).isEqualTo(2);
+        assertThat(batch.updates()).isEqualTo(5);
+        assertThat(batch.symbol(0)).isEqualTo("ACME");
+        assertThat(batch.price(0)).isEqualTo(105);
+        assertThat(batch.sequence(0)).isEqualTo(4);
+        assertThat(batch.high(0)).isEqualTo(120);
+        assertThat(batch.low(0)).isEqualTo(90);
+        assertThat(batch.symbol(1)).isEqualTo("MSFT");
+        assertThat(batch.high(1)).isEqualTo(batch.low(1)).isEqualTo(500);
+    }
+
+    @Test
+    void startsTheNextPollFromScratchAfterClear() {
+        batch.add("ACME", 100, 1);
+        batch.add("ACME", 300, 2);
+        batch.clear();
+
+        batch.add("ACME", 200, 3);
+
+        assertThat(batch.size()).isEqualTo(1);
+        assertThat(batch.updates()).isEqualTo(1);
+        assertThat(batch.high(0)).isEqualTo(200);
+        assertThat(batch.low(0)).isEqualTo(200);
+    }
+
+    @Test
+    void growsPastItsInitialCapacityInArrivalOrder() {
+        for (int i = 0; i < 1_000; i++) {
+            batch.add("S" + i, i, i);
+        }
+        batch.add("S7", 1_007, 1_000);
+
+        assertThat(batch.size()).isEqualTo(1_000);
+        assertThat(batch.symbol(999)).isEqualTo("S999");
+        assertThat(batch.price(999)).isEqualTo(999);
+        assertThat(batch.price(7)).isEqualTo(1_007);
+        assertThat(batch.low(7)).isEqualTo(7);
+    }
+}
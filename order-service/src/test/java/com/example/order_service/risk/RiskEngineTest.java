@@ -0,0 +1,104 @@
+package com.example.order_service.risk;
+
+import com.example.order_service.matching.Fill;
+import com.example.order_service.matching.MatchResult;
+import com.example.order_service.matching.OrderRequest;
+import com.example.order_service.matching.Side;
+import com.example.order_service.util.FixedPoint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class RiskEngineTest {
+
+    private static final long TEN = FixedPoint.toTicks(new BigDecimal("10.00"));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RiskEngine riskEngine;
+
+    @BeforeEach
+    void setUp() {
+        riskEngine = new RiskEngine(mock(JdbcTemplate.class), new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(riskEngine, "enabled", true);
+        ReflectionTestUtils.setField(riskEngine, "maxUsers", 4);
+        ReflectionTestUtils.setField(riskEngine, "stripeCount", 2);
+        ReflectionTestUtils.setField(riskEngine, "maxPosition", 1_000L);
+        ReflectionTestUtils.setField(riskEngine, "maxOrderNotional", new BigDecimal("1000000"));
+        ReflectionTestUtils.setField(riskEngine, "fatFingerPercent", 10L);
+        ReflectionTestUtils.setField(riskEngine, "marketSlippagePercent", 5L);
+        riskEngine.init();
+        riskEngine.consumeCashBalance("{\"userId\":\"alice\",\"cashBalance\":\"1000.00\"}");
+    }
+
+    @Test
+    void openBuyOrdersHoldBuyingPowerUntilCancelled() {
+        riskEngine.reserve("o-1", "alice", "ACME", Side.BUY, 60, TEN, TEN);
+
+        assertThatThrownBy(() -> riskEngine.reserve("o-2", "alice", "ACME", Side.BUY, 50, TEN, TEN))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("insufficient buying power");
+
+        riskEngine.cancel("o-1");
+        assertThatCode(() -> riskEngine.reserve("o-2", "alice", "ACME", Side.BUY, 50, TEN, TEN)).doesNotThrowAnyException();
+        assertThat(meterRegistry.counter("orders.risk.rejected", "reason", "buying-power").count()).isEqualTo(1);
+    }
+
+    @Test
+    void aFillSpendsAtTheExecutionPriceAndFreesTheRestOfTheHold() {
+        riskEngine.reserve("o-1", "alice", "ACME", Side.BUY, 60, TEN, TEN);
+        long nine = FixedPoint.toTicks(new BigDecimal("9.00"));
+        OrderRequest request = new OrderRequest("o-1", "alice", null, "ACME", Side.BUY, TEN, 60, TEN);
+        Fill fill = new Fill("ACME", "o-1", "alice", "m-1", "bob", null, Side.BUY, nine, 60, 0);
+
+        riskEngine.settle(new MatchResult(request, List.of(fill), 0, false, List.of()), 0);
+
+        // 540.00 spent leaves 460.00
+        assertThatThrownBy(() -> riskEngine.reserve("o-2", "alice", "MSFT", Side.BUY, 47, TEN, TEN))
+                .hasMessageContaining("insufficient buying power");
+        assertThatCode(() -> riskEngine.reserve("o-3", "alice", "MSFT", Side.BUY, 46, TEN, TEN)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void pendingSellsCountTowardsThePositionLimit() {
+        riskEngine.reserve("o-1", "bob", "ACME", Side.SELL, 800, TEN, TEN);
+
+        assertThatThrownBy(() -> riskEngine.reserve("o-2", "bob", "ACME", Side.SELL, 300, TEN, TEN))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("would exceed 1000");
+
+        riskEngine.release("o-1");
+        assertThatCode(() -> riskEngine.reserve("o-2", "bob", "ACME", Side.SELL, 300, TEN, TEN)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rejectsLimitsFarFromTheMarketAndMarketOrdersWithoutAPrice() {
+        long twelve = FixedPoint.toTicks(new BigDecimal("12.00"));
+
+        assertThatThrownBy(() -> riskEngine.reserve("o-1", "alice", "ACME", Side.BUY, 1, twelve, TEN))
+                .hasMessageContaining("more than 10% away");
+        assertThatThrownBy(() -> riskEngine.reserve("o-2", "alice", "ACME", Side.BUY, 1, 0, 0))
+                .hasMessageContaining("no reference price");
+    }
+
+    @Test
+    void turnsAwayNewUsersOnceEverySlotIsTaken() {
+        for (String user : List.of("bob", "carol", "dave")) {
+            riskEngine.reserve("o-" + user, user, "ACME", Side.SELL, 1, TEN, TEN);
+        }
+
+        assertThatThrownBy(() -> riskEngine.reserve("o-erin", "erin", "ACME", Side.SELL, 1, TEN, TEN))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+}
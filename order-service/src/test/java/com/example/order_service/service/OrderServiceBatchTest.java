@@ -0,0 +1,135 @@
+package com.example.order_service.service;
+
+import com.example.order_service.dto.BatchOrderResultDto;
+import com.example.order_service.intake.OrderOutcomes;
+import com.example.order_service.intake.OrderScheduler;
+import com.example.order_service.intake.OrderWriter;
+import com.example.order_service.matching.MatchResult;
+import com.example.order_service.matching.MatchingEngine;
+import com.example.order_service.matching.OrderRequest;
+import com.example.order_service.pricing.PriceTable;
+import com.example.order_service.pricing.StalePricePolicy;
+import com.example.order_service.risk.RiskEngine;
+import com.example.order_service.service.foreignService.PositionService;
+import com.example.order_service.trigger.TriggerEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceBatchTest {
+
+    private final OrderWriter orderWriter = mock(OrderWriter.class);
+    private final RiskEngine riskEngine = mock(RiskEngine.class);
+    private final MatchingEngine matchingEngine = mock(MatchingEngine.class);
+    private final PriceTable priceTable = mock(PriceTable.class);
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        // disabled, the scheduler runs each order on the calling thread
+        OrderScheduler orderScheduler = new OrderScheduler(new MockEnvironment(), new SimpleMeterRegistry());
+        orderService = new OrderService(orderWriter, new SimpleMeterRegistry(), riskEngine, new ObjectMapper(),
+                mock(PositionService.class), matchingEngine, priceTable, mock(TriggerEngine.class), mock(OrderOutcomes.class),
+                orderScheduler);
+        ReflectionTestUtils.setField(orderService, "maxPriceAgeMillis", 5_000L);
+        ReflectionTestUtils.setField(orderService, "stalePricePolicy", StalePricePolicy.REJECT);
+        ReflectionTestUtils.setField(orderService, "maxBatchOrders", 3);
+        when(orderWriter.hasCapacity()).thenReturn(true);
+        when(priceTable.freshPrice(anyString(), anyLong(), anyLong())).thenReturn(1_000_000L);
+    }
+
+    @Test
+    void reportsEachOrderOnItsOwnInRequestOrder() throws Exception {
+        when(matchingEngine.submit(any())).thenAnswer(invocation -> {
+            OrderRequest request = invocation.getArgument(0);
+            if ("MSFT".equals(request.getSymbol())) {
+                return CompletableFuture.failedFuture(new IllegalStateException("commit failed"));
+            }
+            return CompletableFuture.completedFuture(new MatchResult(request, List.of(), 2, true, List.of()));
+        });
+
+        List<BatchOrderResultDto> results = orderService.placeOrderBatch("alice", body("""
+                [{"stockSymbol":"ACME","quantity":5,"orderType":"BUY","priceType":"LIMIT","price":10.00},
+                 {"stockSymbol":"ACME","quantity":0,"orderType":"BUY"},
+                 {"stockSymbol":"MSFT","quantity":1,"orderType":"SELL"}]
+                """)).get(5, TimeUnit.SECONDS);
+
+        assertThat(results)
+                .extracting(BatchOrderResultDto::getIndex, BatchOrderResultDto::getStatus, BatchOrderResultDto::getFilledQuantity,
+                        BatchOrderResultDto::getRestingQuantity, BatchOrderResultDto::getMessage)
+                .containsExactly(
+                        tuple(0, "ACCEPTED", 3, 2, null),
+                        tuple(1, "REJECTED", 0, 0, "quantity must be positive"),
+                        tuple(2, "FAILED", 0, 0, "commit failed"));
+        assertThat(results.get(0).getOrderId()).isNotNull();
+        assertThat(results.get(1).getOrderId()).isNull();
+        verify(riskEngine, times(2)).reserve(anyString(), eq("alice"), anyString(), any(), anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    void rejectsAnOrderWithoutAFreshPriceBeforeReservingForIt() throws Exception {
+        when(priceTable.freshPrice(eq("ACME"), anyLong(), anyLong())).thenReturn(PriceTable.STALE);
+
+        List<BatchOrderResultDto> results = orderService.placeOrderBatch("alice", body("""
+                {"stockSymbol":"ACME","quantity":5,"orderType":"BUY"}
+                """)).get(5, TimeUnit.SECONDS);
+
+        assertThat(results).singleElement().extracting(BatchOrderResultDto::getStatus).isEqualTo("REJECTED");
+        verify(riskEngine, never()).reserve(anyString(), anyString(), anyString(), any(), anyInt(), anyLong(), anyLong());
+        verify(matchingEngine, never()).submit(any());
+    }
+
+    @Test
+    void executesNothingWhenAnyOrderOfTheBodyIsMalformed() {
+        InputStream body = body("""
+                {"stockSymbol":"ACME","quantity":5,"orderType":"BUY"}
+                {"stockSymbol":"ACME","quantity":"five","orderType":"BUY"}
+                """);
+
+        assertThatThrownBy(() -> orderService.placeOrderBatch("alice", body))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Malformed order at index 1");
+        verify(matchingEngine, never()).submit(any());
+    }
+
+    @Test
+    void refusesBatchesOverTheConfiguredSize() {
+        InputStream body = body("""
+                [{"stockSymbol":"A","quantity":1,"orderType":"BUY"},{"stockSymbol":"B","quantity":1,"orderType":"BUY"},
+                 {"stockSymbol":"C","quantity":1,"orderType":"BUY"},{"stockSymbol":"D","quantity":1,"orderType":"BUY"}]
+                """);
+
+        assertThatThrownBy(() -> orderService.placeOrderBatch("alice", body))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("A batch holds at most 3 orders");
+        verify(matchingEngine, never()).submit(any());
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
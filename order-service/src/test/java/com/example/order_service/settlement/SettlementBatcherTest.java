@@ -0,0 +1,175 @@
+package com.example.order_service.settlement;
+
+import com.example.order_service.dto.SettlementEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SettlementBatcherTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Pending fills the next SELECT returns, one list per query
+    private final Deque<List<Object[]>> batches = new ArrayDeque<>();
+    private final List<SettlementEvent> events = new ArrayList<>();
+    // Fill ids stamped with each settlement id
+    private final Map<String, List<Object>> settledFills = new HashMap<>();
+    private SettlementBatcher batcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] row : batches.isEmpty() ? List.<Object[]>of() : batches.poll()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString("id")).thenReturn((String) row[0]);
+                when(rs.getString("user_id")).thenReturn((String) row[1]);
+                when(rs.getString("stock_symbol")).thenReturn((String) row[2]);
+                when(rs.getString("order_type")).thenReturn((String) row[3]);
+                when(rs.getInt("quantity")).thenReturn((Integer) row[4]);
+                when(rs.getBigDecimal("price")).thenReturn(new BigDecimal((String) row[5]));
+                when(rs.getObject("position_id", Long.class)).thenReturn((Long) row[6]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object.class));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            for (Object[] row : invocation.<List<Object[]>>getArgument(1)) {
+                events.add(objectMapper.readValue((String) row[2], SettlementEvent.class));
+            }
+            return new int[0];
+        });
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any())).thenAnswer(invocation -> {
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            for (Object net : invocation.<Collection<?>>getArgument(1)) {
+                PreparedStatement ps = mock(PreparedStatement.class);
+                Connection connection = mock(Connection.class);
+                when(ps.getConnection()).thenReturn(connection);
+                String[] settlementId = new String[1];
+                doAnswer(set -> settlementId[0] = set.getArgument(1)).when(ps).setString(eq(1), anyString());
+                when(connection.createArrayOf(eq("varchar"), any())).thenAnswer(create -> {
+                    settledFills.put(settlementId[0], List.of(create.<Object[]>getArgument(1)));
+                    return mock(Array.class);
+                });
+                setter.setValues(ps, net);
+            }
+            return new int[0][];
+        });
+        batcher = new SettlementBatcher(jdbcTemplate, transactionTemplate, objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(batcher, "enabled", true);
+        ReflectionTestUtils.setField(batcher, "batchSize", 10);
+        ReflectionTestUtils.setField(batcher, "settlementsTopic", "settlements");
+    }
+
+    @Test
+    void netsBuysAgainstSellsAndRealizesTheMatchedPart() {
+        batches.add(List.of(
+                fill("f-1", "alice", "ACME", "BUY", 10, "1000.00", null),
+                fill("f-2", "alice", "ACME", "BUY", 10, "1100.00", null),
+                fill("f-3", "alice", "ACME", "SELL", 5, "600.00", null),
+                fill("f-4", "alice", "ACME", "SELL", 3, "330.00", 42L)));
+
+        batcher.settle();
+
+        SettlementEvent event = events.get(0);
+        assertThat(events).hasSize(1);
+        assertThat(event.getQuantity()).isEqualTo(15);
+        // 15 of the 20 bought at 105.00 on average
+        assertThat(event.getPrice()).isEqualByComparingTo("1575");
+        // 5 sold at 120.00 against 5 bought at 105.00
+        assertThat(event.getRealizedProfitLoss()).isEqualByComparingTo("75");
+        assertThat(event.getCloses()).singleElement().satisfies(close -> {
+            assertThat(close.getPositionId()).isEqualTo(42L);
+            assertThat(close.getQuantity()).isEqualTo(3L);
+            assertThat(close.getPrice()).isEqualByComparingTo("330");
+        });
+        assertThat(event.getFillCount()).isEqualTo(4);
+        assertThat(settledFills).containsEntry(event.getId(), List.of("f-1", "f-2", "f-3", "f-4"));
+    }
+
+    @Test
+    void publishesAWindowThatNetsToZeroForItsProfit() {
+        batches.add(List.of(
+                fill("f-1", "bob", "MSFT", "SELL", 4, "400.00", null),
+                fill("f-2", "bob", "MSFT", "BUY", 4, "360.00", null),
+                fill("f-3", "carol", "MSFT", "SELL", 2, "200.00", null)));
+
+        batcher.settle();
+
+        assertThat(events).extracting(SettlementEvent::getUserId).containsExactlyInAnyOrder("bob", "carol");
+        SettlementEvent bob = events.stream().filter(event -> event.getUserId().equals("bob")).findFirst().orElseThrow();
+        assertThat(bob.getQuantity()).isZero();
+        assertThat(bob.getPrice()).isEqualByComparingTo("0");
+        assertThat(bob.getRealizedProfitLoss()).isEqualByComparingTo("40");
+        SettlementEvent carol = events.stream().filter(event -> event.getUserId().equals("carol")).findFirst().orElseThrow();
+        assertThat(carol.getQuantity()).isEqualTo(-2);
+        assertThat(carol.getPrice()).isEqualByComparingTo("-200");
+        assertThat(carol.getCloses()).isEmpty();
+    }
+
+    @Test
+    void takesAnotherBatchWhileTheLastOneCameBackFull() {
+        ReflectionTestUtils.setField(batcher, "batchSize", 2);
+        batches.add(List.of(
+                fill("f-1", "alice", "ACME", "BUY", 1, "100.00", null),
+                fill("f-2", "bob", "ACME", "BUY", 1, "100.00", null)));
+        batches.add(List.<Object[]>of(fill("f-3", "alice", "ACME", "BUY", 1, "100.00", null)));
+
+        batcher.settle();
+
+        verify(transactionTemplate, times(2)).execute(any());
+        assertThat(events).hasSize(3);
+        assertThat(settledFills.values()).flatExtracting(ids -> ids).containsExactlyInAnyOrder("f-1", "f-2", "f-3");
+    }
+
+    @Test
+    void leavesPendingFillsAloneWhenDisabled() {
+        ReflectionTestUtils.setField(batcher, "enabled", false);
+        batches.add(List.<Object[]>of(fill("f-1", "alice", "ACME", "BUY", 1, "100.00", null)));
+
+        batcher.settle();
+
+        verify(transactionTemplate, never()).execute(any());
+        assertThat(events).isEmpty();
+    }
+
+    private static Object[] fill(String id, String userId, String symbol, String side, int quantity, String price, Long positionId) {
+        return new Object[]{id, userId, symbol, side, quantity, price, positionId};
+    }
+}
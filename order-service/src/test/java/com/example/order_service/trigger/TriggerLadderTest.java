@@ -0,0 +1,86 @@
+package com.example.order_service.trigger;
+
+import com.example.order_service.matching.Side;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TriggerLadderTest {
+
+    private final TriggerLadder ladder = new TriggerLadder();
+
+    @Test
+    void firesAboveLevelsUpToThePriceInclusive() {
+        ladder.add(trigger("a1", TriggerCondition.ABOVE, 105));
+        ladder.add(trigger("a2", TriggerCondition.ABOVE, 110));
+        ladder.add(trigger("a3", TriggerCondition.ABOVE, 120));
+
+        assertThat(fire(104)).isEmpty();
+        assertThat(fire(110)).containsExactly("a1", "a2");
+        assertThat(fire(115)).isEmpty();
+        assertThat(fire(125)).containsExactly("a3");
+        assertThat(ladder.isEmpty()).isTrue();
+    }
+
+    @Test
+    void firesBelowLevelsFromThePriceUpwards() {
+        ladder.add(trigger("b1", TriggerCondition.BELOW, 95));
+        ladder.add(trigger("b2", TriggerCondition.BELOW, 90));
+        ladder.add(trigger("a1", TriggerCondition.ABOVE, 100));
+
+        assertThat(fire(96)).isEmpty();
+        assertThat(fire(90)).containsExactly("b2", "b1");
+        assertThat(ladder.crossedBy(80)).isFalse();
+        assertThat(ladder.crossedBy(100)).isTrue();
+    }
+
+    @Test
+    void firesEveryTriggerOfALevelOnce() {
+        ladder.add(trigger("a1", TriggerCondition.ABOVE, 100));
+        ladder.add(trigger("a2", TriggerCondition.ABOVE, 100));
+
+        assertThat(fire(100)).containsExactly("a1", "a2");
+        assertThat(fire(100)).isEmpty();
+    }
+
+    @Test
+    void removedTriggersDoNotFire() {
+        Trigger kept = trigger("a1", TriggerCondition.ABOVE, 100);
+        Trigger removed = trigger("a2", TriggerCondition.ABOVE, 100);
+        Trigger only = trigger("b1", TriggerCondition.BELOW, 90);
+        ladder.add(kept);
+        ladder.add(removed);
+        ladder.add(only);
+
+        assertThat(ladder.remove(removed)).isTrue();
+        assertThat(ladder.remove(removed)).isFalse();
+        assertThat(ladder.remove(only)).isTrue();
+        assertThat(ladder.crossedBy(50)).isFalse();
+        assertThat(fire(100)).containsExactly("a1");
+    }
+
+    @Test
+    void mapsTriggerTypeAndSideToCondition() {
+        assertThat(TriggerCondition.of("STOP", Side.SELL)).isEqualTo(TriggerCondition.BELOW);
+        assertThat(TriggerCondition.of("stop_loss", Side.BUY)).isEqualTo(TriggerCondition.ABOVE);
+        assertThat(TriggerCondition.of("TAKE_PROFIT", Side.SELL)).isEqualTo(TriggerCondition.ABOVE);
+        assertThat(TriggerCondition.of("TAKE_PROFIT", Side.BUY)).isEqualTo(TriggerCondition.BELOW);
+        assertThat(TriggerCondition.BELOW.triggerType(Side.SELL)).isEqualTo("STOP");
+        assertThatThrownBy(() -> TriggerCondition.of("TRAILING", Side.BUY)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<String> fire(long price) {
+        List<Trigger> fired = new ArrayList<>();
+        ladder.fire(price, fired);
+        return fired.stream().map(Trigger::getId).toList();
+    }
+
+    private static Trigger trigger(String id, TriggerCondition condition, long price) {
+        return new Trigger(id, "alice", "ACME", condition == TriggerCondition.ABOVE ? Side.BUY : Side.SELL, condition, price, 1,
+                null, null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.portfolio_service.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    @Value("${kafka.topic.cash-balances}")
+    private String cashBalancesTopic;
+
+    /**
+     * Latest cash balance per user. Compaction keeps one record per key, so a consumer
+     * reading from the beginning rebuilds every balance.
+     */
+    @Bean
+    public NewTopic cashBalancesTopic() {
+        return TopicBuilder.name(cashBalancesTopic)
+                .partitions(6)
+                .compact()
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.portfolio_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Fills of a settlement that closed (part of) one position; {@code price} is their
+ * total proceeds.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementClose {
+
+    private Long positionId;
+    private Long quantity;
+    private BigDecimal price;
+
+}
@@ -0,0 +1,38 @@
+package com.example.portfolio_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Fills of one user in one symbol netted by order-service over a settlement window.
+ * {@code quantity} and {@code price} are net, negative for a net sell: the cost of a net
+ * buy or the proceeds of a net sell. Fills that close a position come separately in
+ * {@code closes}; {@code realizedProfitLoss} is the profit of what was both bought and
+ * sold within the window.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SettlementEvent {
+
+    private String id;
+    private String userId;
+    private String stockSymbol;
+    private Long quantity;
+    private BigDecimal price;
+    private Long buyQuantity;
+    private BigDecimal buyPrice;
+    private Long sellQuantity;
+    private BigDecimal sellPrice;
+    private BigDecimal realizedProfitLoss;
+    private List<SettlementClose> closes;
+    private Integer fillCount;
+    private Long settledAt;
+
+}
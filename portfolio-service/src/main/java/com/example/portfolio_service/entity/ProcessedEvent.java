@@ -0,0 +1,26 @@
+package com.example.portfolio_service.entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * An order or settlement event that has been applied. The id is the event's own id, so
+ * recording a redelivered event fails and it is applied at most once.
+ */
+@Entity
+@Table(name = "processed_event")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+
+public class ProcessedEvent {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private Long processedAt;
+}
@@ -12,5 +12,6 @@ import java.util.Optional;
 public interface PositionRepository extends JpaRepository<Position, Long> {
     List<Position> findByPortfolioId(Long portfolioId);
     Optional<Position> findByPortfolioIdAndSymbol(Long portfolioId, String symbol);
+    List<Position> findByPortfolioIdAndSymbolOrderByIdAsc(Long portfolioId, String symbol);
     Optional<Position> getByOrderId(String orderId);
 }
@@ -0,0 +1,20 @@
+package com.example.portfolio_service.repository;
+
+import com.example.portfolio_service.entity.ProcessedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, String> {
+
+    /**
+     * Records the event unless it already is; returns 0 for an event seen before.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO processed_event (id, processed_at) VALUES (:id, :processedAt) ON CONFLICT (id) DO NOTHING",
+            nativeQuery = true)
+    int markProcessed(@Param("id") String id, @Param("processedAt") long processedAt);
+}
@@ -3,21 +3,35 @@ package com.example.portfolio_service.service;
 
 import com.example.portfolio_service.dto.PortfolioResponse;
 import com.example.portfolio_service.dto.PositionDto;
+import com.example.portfolio_service.dto.SettlementClose;
+import com.example.portfolio_service.dto.SettlementEvent;
 import com.example.portfolio_service.entity.Portfolio;
 import com.example.portfolio_service.entity.Position;
 import com.example.portfolio_service.repository.PortfolioRepository;
 import com.example.portfolio_service.repository.PositionRepository;
+import com.example.portfolio_service.repository.ProcessedEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,7 +42,18 @@ public class PortfolioService {
 
     private final PortfolioRepository portfolioRepository;
     private final PositionRepository positionRepository;
+    private final ProcessedEventRepository processedEventRepository;
     private final ObjectMapper objectMapper;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${kafka.topic.cash-balances}")
+    private String cashBalancesTopic;
+
+    @Value("${portfolio.cash-snapshot.enabled:true}")
+    private boolean cashSnapshotEnabled;
+
+    @Value("${portfolio.cash-snapshot.page-size:1000}")
+    private int cashSnapshotPageSize;
 
 
     @Transactional
@@ -64,6 +89,7 @@ public class PortfolioService {
 
         portfolio.setCashBalance(portfolio.getCashBalance().add(amount));
         portfolioRepository.save(portfolio);
+        publishCashBalance(portfolio);
     }
 
     @Transactional
@@ -81,6 +107,55 @@ public class PortfolioService {
 
         portfolio.setCashBalance(portfolio.getCashBalance().subtract(amount));
         portfolioRepository.save(portfolio);
+        publishCashBalance(portfolio);
+    }
+
+    /**
+     * Sends the user's absolute cash balance to the compacted cash topic once the
+     * surrounding transaction has committed. order-service replicates it for its
+     * pre-trade buying-power checks.
+     */
+    private void publishCashBalance(Portfolio portfolio) {
+        Map<String, Object> event = Map.of(
+                "userId", portfolio.getUserId(),
+                "cashBalance", portfolio.getCashBalance());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                kafkaTemplate.send(cashBalancesTopic, portfolio.getUserId(), event)
+                        .exceptionally(ex -> {
+                            log.error("Failed to publish cash balance for user {}", portfolio.getUserId(), ex);
+                            return null;
+                        });
+            }
+        });
+    }
+
+    /**
+     * Publishes every user's current balance once the service is up, so the cash topic
+     * also covers users whose balance has not changed since it was introduced. Balances
+     * changed later are published by the deposit or withdrawal itself.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void publishCashBalanceSnapshot() {
+        if (!cashSnapshotEnabled) {
+            return;
+        }
+        int published = 0;
+        Page<Portfolio> page = portfolioRepository.findAll(PageRequest.of(0, cashSnapshotPageSize, Sort.by("id")));
+        while (true) {
+            for (Portfolio portfolio : page) {
+                kafkaTemplate.send(cashBalancesTopic, portfolio.getUserId(),
+                        Map.of("userId", portfolio.getUserId(), "cashBalance", portfolio.getCashBalance()));
+                published++;
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = portfolioRepository.findAll(page.nextPageable());
+        }
+        kafkaTemplate.flush();
+        log.info("Published cash balance snapshot of {} portfolios", published);
     }
 
     private Portfolio createNewPortfolio(String userId) {
@@ -103,7 +178,13 @@ public class PortfolioService {
         }
         return BigDecimal.ZERO;
     }
+    /**
+     * Opens a position per order event. The relay delivers at least once, so the order id
+     * is recorded in {@code processed_event} in the same transaction and a redelivered
+     * event is skipped; a failure rolls both back and leaves the event to be retried.
+     */
     @KafkaListener(topics = "${kafka.topic.order-events}", groupId = "portfolio-service-group")
+    @Transactional
     public void handleOrderEvent(String orderEventJson) {
         try {
 
@@ -123,6 +204,10 @@ public class PortfolioService {
             String status = jsonNode.get("status").asText();
             String orderId = jsonNode.get("id").asText();
 
+            if (processedEventRepository.markProcessed(orderId, System.currentTimeMillis()) == 0) {
+                log.debug("Order event {} already applied", orderId);
+                return;
+            }
 
             Portfolio portfolio = portfolioRepository.findByUserId(userId)
                     .orElseGet(() -> createNewPortfolio(userId));
@@ -144,11 +229,132 @@ public class PortfolioService {
             positionRepository.save(position);
             log.info("Order event processed successfully: {}", orderEventJson);
 
-        } catch (Exception e) {
+        } catch (JsonProcessingException e) {
             log.error("Error processing order event: {}", orderEventJson, e);
         }
     }
 
+    /**
+     * Applies one netted settlement, at most once per settlement id:
+     * <ul>
+     *     <li>each close reduces the position it names, realizing its profit</li>
+     *     <li>a net buy opens one position, keyed by the settlement id in place of an order id,
+     *     so the fills behind it can be looked up in order-service</li>
+     *     <li>a net sell reduces the user's oldest positions in the symbol; selling more
+     *     than is held never opens a negative position</li>
+     * </ul>
+     * Realized profit, including what was bought and sold within the window, is added to
+     * the portfolio's profit and loss.
+     */
+    @KafkaListener(topics = "${kafka.topic.settlements}", groupId = "portfolio-service-group")
+    @Transactional
+    public void handleSettlementEvent(String message) {
+        try {
+            // The outbox relay's JSON serializer wraps the payload in a JSON string
+            String json = message.startsWith("\"") ? objectMapper.readValue(message, String.class) : message;
+            SettlementEvent settlement = objectMapper.readValue(json, SettlementEvent.class);
+
+            if (processedEventRepository.markProcessed(settlement.getId(), System.currentTimeMillis()) == 0) {
+                log.debug("Settlement {} already applied", settlement.getId());
+                return;
+            }
+
+            Portfolio portfolio = portfolioRepository.findByUserId(settlement.getUserId())
+                    .orElseGet(() -> createNewPortfolio(settlement.getUserId()));
+            String symbol = settlement.getStockSymbol();
+            BigDecimal realized = settlement.getRealizedProfitLoss() != null ? settlement.getRealizedProfitLoss() : BigDecimal.ZERO;
+
+            if (settlement.getCloses() != null) {
+                for (SettlementClose close : settlement.getCloses()) {
+                    realized = realized.add(applyClose(portfolio, symbol, close));
+                }
+            }
+
+            long quantity = settlement.getQuantity();
+            if (quantity > 0) {
+                BigDecimal averagePrice = settlement.getPrice().divide(BigDecimal.valueOf(quantity), 4, RoundingMode.HALF_UP);
+                Position position = Position.builder()
+                        .symbol(symbol)
+                        .quantity(Math.toIntExact(quantity))
+                        .boughtAt(averagePrice)
+                        .currentPrice(averagePrice)
+                        .investmentValue(settlement.getPrice())
+                        .currentValue(settlement.getPrice())
+                        .profitLoss(BigDecimal.ZERO)
+                        .profitLossPercentage(BigDecimal.ZERO)
+                        .portfolio(portfolio)
+                        .orderId(settlement.getId())
+                        .build();
+                positionRepository.save(position);
+            } else if (quantity < 0) {
+                BigDecimal averagePrice = settlement.getPrice().negate().divide(BigDecimal.valueOf(-quantity), 4, RoundingMode.HALF_UP);
+                realized = realized.add(sellOldest(portfolio, symbol, -quantity, averagePrice, settlement.getId()));
+            }
+
+            if (realized.signum() != 0) {
+                portfolio.setProfitLoss(portfolio.getProfitLoss().add(realized));
+                portfolioRepository.save(portfolio);
+            }
+            log.debug("Settlement {} of {} fills applied", settlement.getId(), settlement.getFillCount());
+        } catch (JsonProcessingException e) {
+            log.error("Could not read settlement event: {}", message, e);
+        }
+    }
+
+    // Closes the named position; anything it does not cover is sold from the oldest positions
+    private BigDecimal applyClose(Portfolio portfolio, String symbol, SettlementClose close) {
+        BigDecimal averagePrice = close.getPrice().divide(BigDecimal.valueOf(close.getQuantity()), 4, RoundingMode.HALF_UP);
+        long remaining = close.getQuantity();
+        BigDecimal realized = BigDecimal.ZERO;
+        Position position = positionRepository.findById(close.getPositionId())
+                .filter(p -> p.getPortfolio().getId().equals(portfolio.getId()) && p.getSymbol().equals(symbol))
+                .orElse(null);
+        if (position != null) {
+            long sold = Math.min(remaining, position.getQuantity());
+            realized = reduce(position, sold, averagePrice);
+            remaining -= sold;
+        }
+        if (remaining > 0) {
+            realized = realized.add(sellOldest(portfolio, symbol, remaining, averagePrice, "close of position " + close.getPositionId()));
+        }
+        return realized;
+    }
+
+    private BigDecimal sellOldest(Portfolio portfolio, String symbol, long quantity, BigDecimal averagePrice, String source) {
+        BigDecimal realized = BigDecimal.ZERO;
+        long remaining = quantity;
+        for (Position position : positionRepository.findByPortfolioIdAndSymbolOrderByIdAsc(portfolio.getId(), symbol)) {
+            if (remaining == 0) {
+                break;
+            }
+            long sold = Math.min(remaining, position.getQuantity());
+            realized = realized.add(reduce(position, sold, averagePrice));
+            remaining -= sold;
+        }
+        if (remaining > 0) {
+            log.warn("{} sold {} {} more than user {} holds; no negative position opened", source, remaining, symbol, portfolio.getUserId());
+        }
+        return realized;
+    }
+
+    // Takes quantity out of a position at the given sale price and returns the realized profit
+    private BigDecimal reduce(Position position, long quantity, BigDecimal salePrice) {
+        if (quantity <= 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal realized = salePrice.subtract(position.getBoughtAt()).multiply(BigDecimal.valueOf(quantity));
+        int left = Math.toIntExact(position.getQuantity() - quantity);
+        if (left == 0) {
+            positionRepository.delete(position);
+            return realized;
+        }
+        position.setQuantity(left);
+        position.setInvestmentValue(position.getBoughtAt().multiply(BigDecimal.valueOf(left)));
+        position.setCurrentValue(position.getCurrentPrice().multiply(BigDecimal.valueOf(left)));
+        positionRepository.save(position);
+        return realized;
+    }
+
     public PositionDto getPosition(String orderId) {
         Position position = positionRepository.getByOrderId(orderId).orElseThrow(() -> new RuntimeException("Position not found"));
         return mapToPositionDto(position);
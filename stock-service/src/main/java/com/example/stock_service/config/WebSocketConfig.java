@@ -1,16 +1,33 @@
 package com.example.stock_service.config;
 
 
+import com.example.stock_service.websocket.BinarySubscriptionInterceptor;
+import com.example.stock_service.websocket.MarketDataBroker;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private MarketDataBroker marketDataBroker;
+
+    @Autowired
+    private BinarySubscriptionInterceptor binarySubscriptionInterceptor;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.enableSimpleBroker("/topic", "/queue");
@@ -18,10 +35,41 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     }
 
 
+    /**
+     * {@code /ws} is the SockJS endpoint for JSON destinations. Binary price frames need
+     * real binary WebSocket frames, which SockJS cannot carry, so they are only served on
+     * the plain WebSocket endpoint.
+     */
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+        registry.addEndpoint(BinarySubscriptionInterceptor.NATIVE_ENDPOINT)
+                .setAllowedOriginPatterns("*")
+                .addInterceptors(new HandshakeInterceptor() {
+                    @Override
+                    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+                                                   Map<String, Object> attributes) {
+                        attributes.put(BinarySubscriptionInterceptor.NATIVE_SESSION_ATTRIBUTE, true);
+                        return true;
+                    }
+
+                    @Override
+                    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+                                               Exception exception) {
+                    }
+                });
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(binarySubscriptionInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // per-session bounded, latest-value-wins outbound queues for market data
+        registration.addDecoratorFactory(marketDataBroker::decorate);
     }
 }
@@ -1,11 +1,21 @@
 package com.example.stock_service.controller;
 
 
+import com.example.stock_service.dto.CandlesDto;
+import com.example.stock_service.dto.DepthDto;
 import com.example.stock_service.dto.ResponseDto;
 import com.example.stock_service.dto.StockDto;
+import com.example.stock_service.dto.TickDto;
+import com.example.stock_service.market.MarketSnapshot;
+import com.example.stock_service.market.candle.CandleAggregator;
+import com.example.stock_service.market.candle.CandleInterval;
+import com.example.stock_service.market.depth.DepthFeed;
+import com.example.stock_service.market.journal.TickJournal;
 import com.example.stock_service.service.StockService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -13,15 +23,30 @@ import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping(path = "/api/stock", produces = {MediaType.APPLICATION_JSON_VALUE})
 @RequiredArgsConstructor
+@Slf4j
 @CrossOrigin(origins = "*")
 public class StockController {
 
     @Autowired
     private StockService stockService;
 
+    @Autowired
+    private CandleAggregator candleAggregator;
+
+    @Autowired
+    private TickJournal tickJournal;
+
+    @Autowired
+    private MarketSnapshot marketSnapshot;
+
+    @Autowired
+    private DepthFeed depthFeed;
+
     @PostMapping("/create")
     public ResponseEntity<ResponseDto> createNewStock(@RequestBody StockDto stockDto){
         stockService.addStock(stockDto);
@@ -34,11 +59,69 @@ public class StockController {
         return ResponseEntity.ok(new ResponseDto(HttpStatus.OK, "Stock sent to kafka successfully"));
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<StockDto>> searchStocks(@RequestParam(value = "q", required = false) String query,
+                                                       @RequestParam(value = "category", required = false) String category,
+                                                       @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(stockService.searchStocks(query, category, limit));
+    }
+
+    @GetMapping("/snapshot")
+    public ResponseEntity<byte[]> getSnapshot(@RequestParam(value = "category", required = false) String category,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        MarketSnapshot.Snapshot snapshot = marketSnapshot.get();
+        String etag = "\"" + snapshot.version(category) + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.body(category));
+    }
+
+    @GetMapping("/{symbol}/candles")
+    public ResponseEntity<CandlesDto> getCandles(@PathVariable("symbol") String symbol,
+                                                 @RequestParam(value = "interval", defaultValue = "1m") String interval,
+                                                 @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        CandlesDto candles = candleAggregator.getCandles(symbol, CandleInterval.fromCode(interval), limit);
+        if (candles == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(candles);
+    }
+
+    @GetMapping("/{symbol}/candles/{interval}/latest")
+    public ResponseEntity<CandlesDto> getLatestCandle(@PathVariable("symbol") String symbol, @PathVariable("interval") String interval) {
+        CandlesDto candles = candleAggregator.getCandles(symbol, CandleInterval.fromCode(interval), 1);
+        if (candles == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(candles);
+    }
+
+    @GetMapping("/{symbol}/depth")
+    public ResponseEntity<DepthDto> getDepth(@PathVariable("symbol") String symbol) {
+        DepthDto depth = depthFeed.getDepth(symbol);
+        if (depth == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(depth);
+    }
+
+    @GetMapping("/{symbol}/ticks")
+    public ResponseEntity<List<TickDto>> getTicks(@PathVariable("symbol") String symbol,
+                                                  @RequestParam("from") long from,
+                                                  @RequestParam(value = "to", defaultValue = "" + Long.MAX_VALUE) long to,
+                                                  @RequestParam(value = "limit", defaultValue = "10000") int limit) {
+        return ResponseEntity.ok(tickJournal.query(symbol, from, to, limit));
+    }
+
 
     @MessageMapping("/subscribe")
     @SendTo("/topic/stock-updates")
     public String processSubscription(String message) {
-        System.out.println("Subscription request received: " + message);
+        log.debug("Subscription request received: {}", message);
         return "Subscription successful";
     }
 
@@ -0,0 +1,25 @@
+package com.example.stock_service.dto;
+
+
+import lombok.*;
+
+/**
+ * Column-oriented OHLCV bars: index i of every array describes the same bar.
+ * {@code time} is the bar open time in epoch millis.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlesDto {
+
+    private String symbol;
+    private String interval;
+    private long[] time;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private long[] volume;
+
+}
@@ -0,0 +1,25 @@
+package com.example.stock_service.dto;
+
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Full depth of one symbol, best level first on both sides. Incremental updates with a
+ * higher {@code sequence} apply on top of it.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepthDto {
+
+    private String symbol;
+    private long sequence;
+    private BigDecimal[] bidPrices;
+    private int[] bidSizes;
+    private BigDecimal[] askPrices;
+    private int[] askSizes;
+
+}
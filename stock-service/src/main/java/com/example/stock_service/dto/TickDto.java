@@ -0,0 +1,19 @@
+package com.example.stock_service.dto;
+
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TickDto {
+
+    private String symbol;
+    private BigDecimal price;
+    private long sequence;
+    private long timestamp;
+
+}
@@ -0,0 +1,74 @@
+package com.example.stock_service.kafka;
+
+import com.example.stock_service.market.depth.DepthUpdates;
+
+/**
+ * Binary encoding of one incremental depth message, big endian:
+ * <pre>
+ *   0  byte  magic    0x8B
+ *   1  byte  version
+ *   2  int   symbolId dense id from the producing instance's symbol table
+ *   6  long  sequence per-symbol book sequence
+ *   14 long  timestamp epoch millis
+ *   22 short count    number of level changes that follow
+ *   24 count x { byte action, byte side, long price, int size }
+ * </pre>
+ * As with ticks the symbol travels as the record key.
+ */
+public final class DepthUpdateCodec {
+
+    public static final byte MAGIC = (byte) 0x8B;
+    public static final byte VERSION = 1;
+    public static final int HEADER_LENGTH = 24;
+    public static final int ENTRY_LENGTH = 14;
+
+    private DepthUpdateCodec() {
+    }
+
+    public static byte[] encode(int symbolId, long sequence, long timestamp, DepthUpdates updates) {
+        int count = updates.count();
+        byte[] buffer = new byte[HEADER_LENGTH + count * ENTRY_LENGTH];
+        buffer[0] = MAGIC;
+        buffer[1] = VERSION;
+        PriceTickCodec.putInt(buffer, 2, symbolId);
+        PriceTickCodec.putLong(buffer, 6, sequence);
+        PriceTickCodec.putLong(buffer, 14, timestamp);
+        buffer[22] = (byte) (count >>> 8);
+        buffer[23] = (byte) count;
+        int offset = HEADER_LENGTH;
+        for (int i = 0; i < count; i++) {
+            buffer[offset] = updates.action(i);
+            buffer[offset + 1] = updates.side(i);
+            PriceTickCodec.putLong(buffer, offset + 2, updates.price(i));
+            PriceTickCodec.putInt(buffer, offset + 10, updates.size(i));
+            offset += ENTRY_LENGTH;
+        }
+        return buffer;
+    }
+
+    public static boolean isDepth(byte[] buffer) {
+        return buffer != null && buffer.length >= HEADER_LENGTH && buffer[0] == MAGIC;
+    }
+
+    public static long sequence(byte[] buffer) {
+        return PriceTickCodec.getLong(buffer, 6);
+    }
+
+    public static long timestamp(byte[] buffer) {
+        return PriceTickCodec.getLong(buffer, 14);
+    }
+
+    /**
+     * Replaces the contents of {@code out} with the level changes in {@code buffer}.
+     */
+    public static void decode(byte[] buffer, DepthUpdates out) {
+        out.reset();
+        int count = ((buffer[22] & 0xFF) << 8) | (buffer[23] & 0xFF);
+        int offset = HEADER_LENGTH;
+        for (int i = 0; i < count; i++) {
+            out.add(buffer[offset], buffer[offset + 1],
+                    PriceTickCodec.getLong(buffer, offset + 2), PriceTickCodec.getInt(buffer, offset + 10));
+            offset += ENTRY_LENGTH;
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.example.stock_service.kafka;
 
 
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
@@ -21,6 +24,9 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${kafka.latest-prices.partitions:6}")
+    private int latestPricePartitions;
+
     @Bean
     public Map<String, Object> producerConfig() {
         Map<String, Object> props = new java.util.HashMap<>();
@@ -39,4 +45,31 @@ public class KafkaConfig {
     public KafkaTemplate<String, String> kafkaProducer() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    @Bean
+    public ProducerFactory<String, byte[]> tickProducerFactory() {
+        Map<String, Object> props = new java.util.HashMap<>(producerConfig());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, byte[]> tickKafkaTemplate() {
+        return new KafkaTemplate<>(tickProducerFactory());
+    }
+
+    /**
+     * One record per symbol after compaction; small segments keep the uncompacted tail,
+     * and so the cold-start read, short.
+     */
+    @Bean
+    public NewTopic latestPricesTopic() {
+        return TopicBuilder.name(LatestPricePublisher.LATEST_TOPIC)
+                .partitions(latestPricePartitions)
+                .replicas(1)
+                .compact()
+                .config("segment.ms", "600000")
+                .config("min.cleanable.dirty.ratio", "0.1")
+                .build();
+    }
 }
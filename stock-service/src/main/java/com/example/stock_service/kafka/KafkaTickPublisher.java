@@ -0,0 +1,62 @@
+package com.example.stock_service.kafka;
+
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.market.shard.ShardAssignment;
+import com.example.stock_service.pipeline.TickHandler;
+import com.example.stock_service.util.FixedPoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code kafka} pipeline stage. Sends every tick keyed by symbol so each symbol
+ * stays ordered on one partition; batching on the wire is left to the producer's
+ * linger/batch settings. Runs as a DROP stage, so when the broker falls behind the ring
+ * laps this stage and the skipped ticks are counted rather than holding back the generator.
+ * Ticks of symbols owned by another instance came from the topic and are not sent back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KafkaTickPublisher implements TickHandler {
+
+    private final KafkaTemplate<String, byte[]> tickKafkaTemplate;
+    private final SymbolTable symbolTable;
+    private final ShardAssignment shardAssignment;
+
+    @Value("${kafka.tick-format:binary}")
+    private String tickFormat;
+
+    @Value("${kafka.topic.stock-price-updates:stock_price_updates}")
+    private String topic;
+
+    @Override
+    public String stageName() {
+        return "kafka";
+    }
+
+    @Override
+    public void onTick(int symbolId, long price, long sequence, long timestamp) {
+        if (!shardAssignment.owns(symbolId)) {
+            return;
+        }
+        String symbol = symbolTable.symbol(symbolId);
+
+        // The record owns its bytes once handed to Kafka, so each tick gets its own array
+        byte[] payload;
+        if ("json".equalsIgnoreCase(tickFormat)) {
+            payload = PriceTickCodec.encodeJson(symbolTable.stockName(symbolId), symbol, FixedPoint.toBigDecimal(price).toPlainString());
+        } else {
+            payload = new byte[PriceTickCodec.LENGTH];
+            PriceTickCodec.encode(payload, 0, symbolId, price, sequence, timestamp);
+        }
+
+        tickKafkaTemplate.send(topic, symbol, payload)
+                .exceptionally(ex -> {
+                    log.error("Failed to send event to Kafka", ex);
+                    return null;
+                });
+    }
+}
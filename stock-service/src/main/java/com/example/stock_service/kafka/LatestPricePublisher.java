@@ -0,0 +1,72 @@
+package com.example.stock_service.kafka;
+
+import com.example.stock_service.market.DirtySymbols;
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.market.shard.ShardAssignment;
+import com.example.stock_service.pipeline.TickHandler;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code latest} pipeline stage. Marks symbols that ticked and, on its own interval,
+ * sends the current price of each of them as a {@link PriceTickCodec} frame to the
+ * log-compacted {@value #LATEST_TOPIC} topic, keyed by symbol. After compaction the topic
+ * holds one record per symbol, which consumers read from the beginning to warm up.
+ * Only the owner of a symbol publishes its latest price.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LatestPricePublisher implements TickHandler {
+
+    public static final String LATEST_TOPIC = "stock_prices_latest";
+
+    private final KafkaTemplate<String, byte[]> tickKafkaTemplate;
+    private final SymbolTable symbolTable;
+    private final ShardAssignment shardAssignment;
+
+    @Value("${market.max-symbols:65536}")
+    private int capacity;
+
+    private DirtySymbols dirty;
+
+    @PostConstruct
+    public void init() {
+        dirty = new DirtySymbols(capacity);
+    }
+
+    @Override
+    public String stageName() {
+        return "latest";
+    }
+
+    @Override
+    public void onTick(int symbolId, long price, long sequence, long timestamp) {
+        if (shardAssignment.owns(symbolId)) {
+            dirty.mark(symbolId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.latest-prices.publish-interval-ms:250}")
+    public void publish() {
+        int sent = dirty.drain(symbolTable.size(), id -> {
+            byte[] payload = new byte[PriceTickCodec.LENGTH];
+            PriceTickCodec.encode(payload, 0, id, symbolTable.price(id), symbolTable.sequence(id), symbolTable.updatedAt(id));
+            tickKafkaTemplate.send(LATEST_TOPIC, symbolTable.symbol(id), payload)
+                    .exceptionally(ex -> {
+                        // Re-mark so the next round retries with whatever price is current then
+                        dirty.mark(id);
+                        log.warn("Failed to publish latest price: {}", ex.getMessage());
+                        return null;
+                    });
+        });
+        if (sent > 0) {
+            log.debug("Published {} latest prices", sent);
+        }
+    }
+}
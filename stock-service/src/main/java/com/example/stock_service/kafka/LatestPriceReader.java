@@ -0,0 +1,71 @@
+package com.example.stock_service.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads the compacted {@value LatestPricePublisher#LATEST_TOPIC} topic from the beginning up
+ * to the end offsets taken when the read starts, handing every binary tick to the caller
+ * keyed by symbol. Used when an instance takes over symbols from another one.
+ */
+@Component
+@Slf4j
+public class LatestPriceReader {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    public int read(long timeoutMillis, BiConsumer<String, byte[]> sink) throws TimeoutException {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10_000);
+
+        Duration timeout = Duration.ofMillis(timeoutMillis);
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(props)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(LatestPricePublisher.LATEST_TOPIC, timeout).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            if (partitions.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> remaining = new HashMap<>(consumer.endOffsets(partitions, timeout));
+
+            int records = 0;
+            while (true) {
+                remaining.entrySet().removeIf(end -> consumer.position(end.getKey(), timeout) >= end.getValue());
+                if (remaining.isEmpty()) {
+                    return records;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new TimeoutException("Read " + records + " records, " + remaining.size() + " partitions unfinished");
+                }
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(100))) {
+                    if (record.key() != null && PriceTickCodec.isBinary(record.value())) {
+                        sink.accept(record.key(), record.value());
+                        records++;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.stock_service.kafka;
+
+import com.example.stock_service.market.SymbolRegistrar;
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.market.depth.DepthFeed;
+import com.example.stock_service.market.depth.DepthUpdates;
+import com.example.stock_service.market.shard.ShardAssignment;
+import com.example.stock_service.pipeline.TickPipeline;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps symbols generated by other instances current on a sharded generator. Their ticks
+ * are read from the tick topic and go into the local {@link TickPipeline}, so snapshot,
+ * search, candles, journal and WebSocket subscribers cover every symbol whichever replica
+ * a request lands on; their depth updates move the local books. Every instance uses its
+ * own consumer group and skips the symbols it owns.
+ */
+@Component
+@ConditionalOnProperty(name = "market.sharding.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PeerTickConsumer {
+
+    private final SymbolTable symbolTable;
+    private final SymbolRegistrar symbolRegistrar;
+    private final TickPipeline tickPipeline;
+    private final ShardAssignment shardAssignment;
+    private final DepthFeed depthFeed;
+
+    // Only touched by the depth listener thread
+    private final DepthUpdates depthUpdates = new DepthUpdates(64);
+
+    @KafkaListener(topics = "${kafka.topic.stock-price-updates:stock_price_updates}", groupId = "${market.sharding.peer-group-id}", batch = "true",
+            properties = {
+                    "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer",
+                    "auto.offset.reset=latest"
+            })
+    public void consumeTicks(List<ConsumerRecord<String, byte[]>> records) {
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (record.key() == null || !PriceTickCodec.isBinary(record.value())) {
+                continue;
+            }
+            int id = symbolRegistrar.resolve(record.key());
+            if (id < 0) {
+                log.debug("Skipping peer tick for unknown symbol {}", record.key());
+                continue;
+            }
+            if (shardAssignment.owns(id)) {
+                // our own tick, or a late one from the previous owner
+                continue;
+            }
+            byte[] tick = record.value();
+            long price = PriceTickCodec.price(tick);
+            long sequence = PriceTickCodec.sequence(tick);
+            long timestamp = PriceTickCodec.timestamp(tick);
+            symbolTable.applyTick(id, price, sequence, timestamp);
+            tickPipeline.publish(id, price, sequence, timestamp);
+        }
+    }
+
+    @KafkaListener(topics = DepthFeed.DEPTH_TOPIC, groupId = "${market.sharding.peer-group-id}", batch = "true",
+            properties = {
+                    "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer",
+                    "auto.offset.reset=latest"
+            })
+    public void consumeDepth(List<ConsumerRecord<String, byte[]>> records) {
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (record.key() == null || !DepthUpdateCodec.isDepth(record.value())) {
+                continue;
+            }
+            int id = symbolTable.idOf(record.key());
+            if (id < 0 || shardAssignment.owns(id)) {
+                continue;
+            }
+            DepthUpdateCodec.decode(record.value(), depthUpdates);
+            depthFeed.applyRemote(id, DepthUpdateCodec.sequence(record.value()), depthUpdates);
+        }
+    }
+}
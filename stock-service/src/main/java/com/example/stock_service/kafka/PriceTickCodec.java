@@ -0,0 +1,82 @@
+package com.example.stock_service.kafka;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-layout binary encoding of a price tick, big endian:
+ * <pre>
+ *   0  byte  magic    0x8A, never a valid first byte of the JSON format
+ *   1  byte  version
+ *   2  int   symbolId dense id from the producing instance's symbol table
+ *   6  long  price    fixed point, 4 decimals
+ *   14 long  sequence per-symbol tick sequence
+ *   22 long  timestamp epoch millis
+ * </pre>
+ * The symbol itself travels as the record key, which also keeps each symbol on one
+ * partition. Encoding writes into a caller-supplied buffer and allocates nothing.
+ */
+public final class PriceTickCodec {
+
+    public static final byte MAGIC = (byte) 0x8A;
+    public static final byte VERSION = 1;
+    public static final int LENGTH = 30;
+
+    private PriceTickCodec() {
+    }
+
+    public static void encode(byte[] buffer, int offset, int symbolId, long price, long sequence, long timestamp) {
+        buffer[offset] = MAGIC;
+        buffer[offset + 1] = VERSION;
+        putInt(buffer, offset + 2, symbolId);
+        putLong(buffer, offset + 6, price);
+        putLong(buffer, offset + 14, sequence);
+        putLong(buffer, offset + 22, timestamp);
+    }
+
+    public static boolean isBinary(byte[] buffer) {
+        return buffer != null && buffer.length >= LENGTH && buffer[0] == MAGIC;
+    }
+
+    public static long price(byte[] buffer) {
+        return getLong(buffer, 6);
+    }
+
+    public static long sequence(byte[] buffer) {
+        return getLong(buffer, 14);
+    }
+
+    public static long timestamp(byte[] buffer) {
+        return getLong(buffer, 22);
+    }
+
+    /**
+     * Legacy JSON form, kept for consumers that have not moved to the binary layout.
+     */
+    public static byte[] encodeJson(String stockName, String symbol, String price) {
+        return String.format("{\"Stock Name\": \"%s\", \"symbol\": \"%s\", \"price\": \"%s\"}",
+                stockName, symbol, price).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    static void putLong(byte[] buffer, int offset, long value) {
+        putInt(buffer, offset, (int) (value >>> 32));
+        putInt(buffer, offset + 4, (int) value);
+    }
+
+    static int getInt(byte[] buffer, int offset) {
+        return ((buffer[offset] & 0xFF) << 24)
+                | ((buffer[offset + 1] & 0xFF) << 16)
+                | ((buffer[offset + 2] & 0xFF) << 8)
+                | (buffer[offset + 3] & 0xFF);
+    }
+
+    static long getLong(byte[] buffer, int offset) {
+        return ((long) getInt(buffer, offset) << 32) | (getInt(buffer, offset + 4) & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.stock_service.kafka;
+
+import com.example.stock_service.market.MarketSnapshot;
+import com.example.stock_service.market.SymbolRegistrar;
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.market.depth.DepthFeed;
+import com.example.stock_service.market.depth.DepthUpdates;
+import com.example.stock_service.pipeline.TickPipeline;
+import com.example.stock_service.websocket.DepthFrame;
+import com.example.stock_service.websocket.SubscriptionIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Feeds a fan-out node (profile {@code fanout}) from the tick topic instead of the
+ * simulator. Ticks go into the local {@link TickPipeline}, so WebSocket subscribers,
+ * candles and the snapshot are served exactly as on a generator node. Every fan-out
+ * node uses its own consumer group and therefore sees every tick.
+ * <p>
+ * Depth is not simulated here; the generator's incremental depth messages are relayed
+ * to {@code /topic/depth/{symbol}} as they arrive.
+ */
+@Component
+@ConditionalOnProperty(name = "market.fanout.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class TickFanoutConsumer {
+
+    private final SymbolTable symbolTable;
+    private final SymbolRegistrar symbolRegistrar;
+    private final TickPipeline tickPipeline;
+    private final MarketSnapshot marketSnapshot;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SubscriptionIndex subscriptionIndex;
+
+    // Only touched by the depth listener thread
+    private final DepthUpdates depthUpdates = new DepthUpdates(64);
+
+    @KafkaListener(topics = "${kafka.topic.stock-price-updates:stock_price_updates}", groupId = "${market.fanout.group-id}", batch = "true",
+            properties = {
+                    "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer",
+                    "auto.offset.reset=latest"
+            })
+    public void consumeTicks(List<ConsumerRecord<String, byte[]>> records) {
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (record.key() == null || !PriceTickCodec.isBinary(record.value())) {
+                continue;
+            }
+            int id = symbolRegistrar.resolve(record.key());
+            if (id < 0) {
+                log.debug("Skipping tick for unknown symbol {}", record.key());
+                continue;
+            }
+            byte[] tick = record.value();
+            long price = PriceTickCodec.price(tick);
+            long sequence = PriceTickCodec.sequence(tick);
+            long timestamp = PriceTickCodec.timestamp(tick);
+            symbolTable.applyTick(id, price, sequence, timestamp);
+            tickPipeline.publish(id, price, sequence, timestamp);
+        }
+    }
+
+    @KafkaListener(topics = DepthFeed.DEPTH_TOPIC, groupId = "${market.fanout.group-id}", batch = "true",
+            properties = {
+                    "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer",
+                    "auto.offset.reset=latest"
+            })
+    public void consumeDepth(List<ConsumerRecord<String, byte[]>> records) {
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (record.key() == null || !DepthUpdateCodec.isDepth(record.value())
+                    || !subscriptionIndex.hasDepthSubscribers(record.key())) {
+                continue;
+            }
+            DepthUpdateCodec.decode(record.value(), depthUpdates);
+            messagingTemplate.convertAndSend(SubscriptionIndex.DEPTH_PREFIX + record.key(),
+                    DepthFrame.json(record.key(), DepthUpdateCodec.sequence(record.value()), depthUpdates));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${market.tick-interval-ms:2000}")
+    public void rebuildSnapshot() {
+        marketSnapshot.rebuild();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.stock_service.market;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Lock-free bitset of symbol ids that changed since the last drain. Marking a symbol
+ * that is already dirty is a plain read, so hot symbols cost almost nothing.
+ */
+public class DirtySymbols {
+
+    private final AtomicLongArray words;
+
+    public DirtySymbols(int capacity) {
+        this.words = new AtomicLongArray((capacity + 63) >>> 6);
+    }
+
+    public void mark(int id) {
+        int word = id >>> 6;
+        long bit = 1L << id;
+        if ((words.get(word) & bit) == 0) {
+            words.getAndUpdate(word, value -> value | bit);
+        }
+    }
+
+    /**
+     * Clears and visits every dirty id below {@code limit}, in ascending order.
+     */
+    public int drain(int limit, IntConsumer consumer) {
+        int words = (limit + 63) >>> 6;
+        int count = 0;
+        for (int word = 0; word < words; word++) {
+            long bits = this.words.get(word) == 0 ? 0 : this.words.getAndSet(word, 0);
+            while (bits != 0) {
+                consumer.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+                count++;
+            }
+        }
+        return count;
+    }
+}
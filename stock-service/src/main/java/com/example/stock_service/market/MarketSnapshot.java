@@ -0,0 +1,147 @@
+package com.example.stock_service.market;
+
+import com.example.stock_service.util.FixedPoint;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Current prices for all symbols, serialized into ready-to-send JSON bytes (one buffer
+ * for everything plus one per category) whenever some symbol has ticked since the last
+ * rebuild. Serving a request is a volatile read and a copy of the buffer.
+ * <p>
+ * Each body carries its own version: the symbol count and the sum of per-symbol
+ * sequences it was built from. Sequences only grow, so the version changes exactly when
+ * the body does, and replicas fed the same ticks agree on it.
+ */
+@Component
+@RequiredArgsConstructor
+public class MarketSnapshot {
+
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .enable(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN)
+            .build();
+
+    private final SymbolTable symbolTable;
+
+    // Reused by every rebuild; rebuild is synchronized
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+    private volatile Snapshot current = new Snapshot(Body.EMPTY, Map.of());
+
+    public synchronized void rebuild() {
+        int size = symbolTable.size();
+        long sequences = 0;
+        for (int id = 0; id < size; id++) {
+            sequences += symbolTable.sequence(id);
+        }
+        if (current.all.version.equals(version(size, sequences))) {
+            return;
+        }
+
+        Map<String, List<Integer>> idsByCategory = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            idsByCategory.computeIfAbsent(key(symbolTable.category(id)), category -> new ArrayList<>()).add(id);
+        }
+        Map<String, Body> categories = new HashMap<>(idsByCategory.size() * 2);
+        idsByCategory.forEach((category, ids) -> categories.put(category, write(ids.size(), ids::get)));
+        current = new Snapshot(write(size, IntUnaryOperator.identity()), categories);
+    }
+
+    public Snapshot get() {
+        return current;
+    }
+
+    private Body write(int count, IntUnaryOperator ids) {
+        buffer.reset();
+        long sequences = 0;
+        try (JsonGenerator json = JSON.createGenerator(buffer)) {
+            json.writeStartArray();
+            for (int i = 0; i < count; i++) {
+                int id = ids.applyAsInt(i);
+                long sequence = symbolTable.sequence(id);
+                sequences += sequence;
+                json.writeStartObject();
+                json.writeStringField("symbol", symbolTable.symbol(id));
+                json.writeStringField("stockName", symbolTable.stockName(id));
+                json.writeStringField("category", symbolTable.category(id));
+                json.writeFieldName("price");
+                json.writeNumber(FixedPoint.toBigDecimal(symbolTable.price(id)));
+                json.writeNumberField("sequence", sequence);
+                json.writeNumberField("timestamp", symbolTable.updatedAt(id));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        } catch (IOException e) {
+            // only the in-memory buffer is written to
+            throw new UncheckedIOException(e);
+        }
+        return new Body(version(count, sequences), buffer.toByteArray());
+    }
+
+    private static String version(int count, long sequences) {
+        return count + "." + sequences;
+    }
+
+    private static String key(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Body {
+
+        private static final Body EMPTY = new Body(version(0, 0), "[]".getBytes(StandardCharsets.UTF_8));
+
+        private final String version;
+        private final byte[] json;
+
+        private Body(String version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+
+    public static final class Snapshot {
+
+        private final Body all;
+        private final Map<String, Body> byCategory;
+
+        private Snapshot(Body all, Map<String, Body> byCategory) {
+            this.all = all;
+            this.byCategory = byCategory;
+        }
+
+        /**
+         * Version of {@link #body(String)} for the same category, usable as its ETag.
+         */
+        public String version(String category) {
+            return select(category).version;
+        }
+
+        /**
+         * The whole market, or one category (an empty array if it has no symbols).
+         */
+        public byte[] body(String category) {
+            return select(category).json;
+        }
+
+        private Body select(String category) {
+            if (category == null || category.isBlank()) {
+                return all;
+            }
+            return byCategory.getOrDefault(key(category), Body.EMPTY);
+        }
+    }
+}
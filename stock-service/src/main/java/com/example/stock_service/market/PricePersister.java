@@ -0,0 +1,94 @@
+package com.example.stock_service.market;
+
+import com.example.stock_service.market.shard.ShardAssignment;
+import com.example.stock_service.pipeline.TickHandler;
+import com.example.stock_service.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Write-behind for live prices. As the {@code persistence} pipeline stage it only marks
+ * symbols that ticked; on its own interval it flushes the latest price of each of them
+ * from the {@link SymbolTable} as JDBC batches. Intermediate ticks are never written.
+ * <p>
+ * The stage must run with {@code BLOCK}: a dropped tick would leave its symbol clean. A
+ * batch that fails to write marks its symbols dirty again for the next flush. Only the
+ * owner of a symbol writes its price.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PricePersister implements TickHandler {
+
+    private static final String UPDATE_PRICE_SQL = "UPDATE stock SET stock_price = ? WHERE id = ?";
+
+    private final SymbolTable symbolTable;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardAssignment shardAssignment;
+
+    @Value("${market.max-symbols:65536}")
+    private int capacity;
+
+    @Value("${market.flush-batch-size:500}")
+    private int batchSize;
+
+    private DirtySymbols dirty;
+
+    @PostConstruct
+    public void init() {
+        dirty = new DirtySymbols(capacity);
+    }
+
+    @Override
+    public String stageName() {
+        return "persistence";
+    }
+
+    @Override
+    public void onTick(int symbolId, long price, long sequence, long timestamp) {
+        if (shardAssignment.owns(symbolId)) {
+            dirty.mark(symbolId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${market.flush-interval-ms:5000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        int[] ids = new int[batchSize];
+        int drained = dirty.drain(symbolTable.size(), id -> {
+            ids[batch.size()] = id;
+            batch.add(new Object[]{FixedPoint.toBigDecimal(symbolTable.price(id)), symbolTable.stockId(id)});
+            if (batch.size() == batchSize) {
+                write(batch, ids);
+            }
+        });
+        if (!batch.isEmpty()) {
+            write(batch, ids);
+        }
+        if (drained > 0) {
+            log.debug("Flushed {} stock prices", drained);
+        }
+    }
+
+    // Never throws: the drain has already cleared the rest of the current word
+    private void write(List<Object[]> batch, int[] ids) {
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_PRICE_SQL, batch);
+        } catch (DataAccessException e) {
+            for (int i = 0; i < batch.size(); i++) {
+                dirty.mark(ids[i]);
+            }
+            log.warn("Failed to flush {} stock prices, retrying on the next flush: {}", batch.size(), e.getMessage());
+        }
+        batch.clear();
+    }
+}
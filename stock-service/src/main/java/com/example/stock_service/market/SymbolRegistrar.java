@@ -0,0 +1,79 @@
+package com.example.stock_service.market;
+
+import com.example.stock_service.entity.Stock;
+import com.example.stock_service.market.search.SymbolSearchIndex;
+import com.example.stock_service.repository.StockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks up stocks added after startup, possibly through another instance. A symbol first
+ * seen on a topic is looked up in the database right away; symbols that are not found are
+ * not looked up again for {@code market.symbols.retry-interval-ms}. Independently the whole
+ * table is re-read every {@code market.symbols.refresh-interval-ms}, so instances that never
+ * see a tick for a new symbol (e.g. the generator that owns it) still register it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SymbolRegistrar {
+
+    private final SymbolTable symbolTable;
+    private final SymbolSearchIndex symbolSearchIndex;
+    private final StockRepository stockRepository;
+
+    @Value("${market.symbols.retry-interval-ms:30000}")
+    private long retryIntervalMillis;
+
+    private final Map<String, Long> missedAt = new ConcurrentHashMap<>();
+
+    /**
+     * Id of {@code symbol}, registering it from the database if needed, or -1 if it is
+     * not a known stock.
+     */
+    public int resolve(String symbol) {
+        int id = symbolTable.idOf(symbol);
+        if (id >= 0) {
+            return id;
+        }
+        long now = System.currentTimeMillis();
+        Long missed = missedAt.get(symbol);
+        if (missed != null && now - missed < retryIntervalMillis) {
+            return -1;
+        }
+        Stock stock = stockRepository.findBySymbol(symbol).orElse(null);
+        if (stock == null) {
+            missedAt.put(symbol, now);
+            return -1;
+        }
+        missedAt.remove(symbol);
+        return register(stock);
+    }
+
+    @Scheduled(fixedDelayString = "${market.symbols.refresh-interval-ms:30000}",
+            initialDelayString = "${market.symbols.refresh-interval-ms:30000}")
+    public void refresh() {
+        int added = 0;
+        for (Stock stock : stockRepository.findAll()) {
+            if (symbolTable.idOf(stock.getSymbol()) < 0) {
+                register(stock);
+                added++;
+            }
+        }
+        if (added > 0) {
+            log.info("Registered {} stocks added since startup", added);
+        }
+    }
+
+    private int register(Stock stock) {
+        int id = symbolTable.register(stock);
+        symbolSearchIndex.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.stock_service.market;
+
+import com.example.stock_service.entity.Stock;
+import com.example.stock_service.repository.StockRepository;
+import com.example.stock_service.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Live market state, indexed by a dense symbol id assigned on registration. Prices are
+ * fixed-point longs; the database only sees them through {@link PricePersister}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SymbolTable {
+
+    private final StockRepository stockRepository;
+
+    @Value("${market.max-symbols:65536}")
+    private int capacity;
+
+    private final Map<String, Integer> idsBySymbol = new ConcurrentHashMap<>();
+    private String[] symbols;
+    private String[] stockNames;
+    private String[] categories;
+    private String[] stockIds;
+    private AtomicLongArray prices;
+    private AtomicLongArray sequences;
+    private AtomicLongArray updatedAt;
+    private volatile int size;
+
+    @PostConstruct
+    public void load() {
+        symbols = new String[capacity];
+        stockNames = new String[capacity];
+        categories = new String[capacity];
+        stockIds = new String[capacity];
+        prices = new AtomicLongArray(capacity);
+        sequences = new AtomicLongArray(capacity);
+        updatedAt = new AtomicLongArray(capacity);
+        for (Stock stock : stockRepository.findAll()) {
+            register(stock);
+        }
+        log.info("Loaded {} symbols into the symbol table", size);
+    }
+
+    public synchronized int register(Stock stock) {
+        Integer existing = idsBySymbol.get(stock.getSymbol());
+        if (existing != null) {
+            return existing;
+        }
+        int id = size;
+        if (id == capacity) {
+            throw new IllegalStateException("Symbol table is full, raise market.max-symbols");
+        }
+        symbols[id] = stock.getSymbol();
+        stockNames[id] = stock.getStockName();
+        categories[id] = stock.getCategory();
+        stockIds[id] = stock.getId();
+        prices.set(id, FixedPoint.toTicks(stock.getStockPrice()));
+        updatedAt.set(id, System.currentTimeMillis());
+        size = id + 1;
+        idsBySymbol.put(stock.getSymbol(), id);
+        return id;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int idOf(String symbol) {
+        Integer id = idsBySymbol.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    public String symbol(int id) {
+        return symbols[id];
+    }
+
+    public String stockName(int id) {
+        return stockNames[id];
+    }
+
+    public String category(int id) {
+        return categories[id];
+    }
+
+    public String stockId(int id) {
+        return stockIds[id];
+    }
+
+    public long price(int id) {
+        return prices.get(id);
+    }
+
+    public long sequence(int id) {
+        return sequences.get(id);
+    }
+
+    public long updatedAt(int id) {
+        return updatedAt.get(id);
+    }
+
+    /**
+     * Applies a tick generated elsewhere, keeping the producer's sequence and timestamp.
+     */
+    public void applyTick(int id, long price, long sequence, long timestamp) {
+        prices.set(id, price);
+        updatedAt.set(id, timestamp);
+        sequences.set(id, sequence);
+    }
+
+    /**
+     * Records a new price for the symbol and returns its per-symbol tick sequence.
+     * Each symbol is only ever ticked by one thread, so the sequence needs no CAS.
+     */
+    public long updatePrice(int id, long price, long timestamp) {
+        prices.set(id, price);
+        updatedAt.set(id, timestamp);
+        long sequence = sequences.get(id) + 1;
+        sequences.set(id, sequence);
+        return sequence;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.stock_service.market.candle;
+
+import com.example.stock_service.dto.CandlesDto;
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.pipeline.TickHandler;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code candles} pipeline stage. Folds every tick into the current bar of each
+ * {@link CandleInterval} for its symbol, so serving a chart is a copy of one series.
+ */
+@Component
+@RequiredArgsConstructor
+public class CandleAggregator implements TickHandler {
+
+    private static final CandleInterval[] INTERVALS = CandleInterval.values();
+
+    private final SymbolTable symbolTable;
+
+    @Value("${market.max-symbols:65536}")
+    private int capacity;
+
+    @Value("${market.candles.bars-per-series:300}")
+    private int barsPerSeries;
+
+    private CandleSeries[][] series;
+
+    @PostConstruct
+    public void init() {
+        series = new CandleSeries[INTERVALS.length][capacity];
+    }
+
+    @Override
+    public String stageName() {
+        return "candles";
+    }
+
+    @Override
+    public void onTick(int symbolId, long price, long sequence, long timestamp) {
+        for (CandleInterval interval : INTERVALS) {
+            seriesFor(interval, symbolId).update(timestamp, price);
+        }
+    }
+
+    public CandlesDto getCandles(String symbol, CandleInterval interval, int limit) {
+        int id = symbolTable.idOf(symbol);
+        if (id < 0) {
+            return null;
+        }
+        return seriesFor(interval, id).snapshot(symbol, interval.code(), limit);
+    }
+
+    private CandleSeries seriesFor(CandleInterval interval, int symbolId) {
+        CandleSeries[] byInterval = series[interval.ordinal()];
+        CandleSeries current = byInterval[symbolId];
+        if (current == null) {
+            synchronized (byInterval) {
+                current = byInterval[symbolId];
+                if (current == null) {
+                    current = new CandleSeries(interval.millis(), barsPerSeries);
+                    byInterval[symbolId] = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.stock_service.market.candle;
+
+import com.example.stock_service.dto.CandlesDto;
+import com.example.stock_service.util.FixedPoint;
+
+/**
+ * Fixed-size ring of OHLCV bars for one symbol and interval, stored column-wise in
+ * primitive arrays. Once full, the oldest bar is overwritten by the newest.
+ * Volume is the number of ticks in the bar, as the feed carries no traded size.
+ */
+public class CandleSeries {
+
+    private final long intervalMillis;
+    private final int capacity;
+    private final long[] openTimes;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final long[] volumes;
+    private long bars;
+
+    public CandleSeries(long intervalMillis, int capacity) {
+        this.intervalMillis = intervalMillis;
+        this.capacity = capacity;
+        this.openTimes = new long[capacity];
+        this.opens = new long[capacity];
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.closes = new long[capacity];
+        this.volumes = new long[capacity];
+    }
+
+    public synchronized void update(long timestamp, long price) {
+        long openTime = timestamp - timestamp % intervalMillis;
+        int current = (int) ((bars - 1) % capacity);
+        if (bars == 0 || openTime > openTimes[current]) {
+            int next = (int) (bars % capacity);
+            openTimes[next] = openTime;
+            opens[next] = price;
+            highs[next] = price;
+            lows[next] = price;
+            closes[next] = price;
+            volumes[next] = 1;
+            bars++;
+            return;
+        }
+        if (openTime < openTimes[current]) {
+            // late tick for a bar that is already closed
+            return;
+        }
+        highs[current] = Math.max(highs[current], price);
+        lows[current] = Math.min(lows[current], price);
+        closes[current] = price;
+        volumes[current]++;
+    }
+
+    /**
+     * Copies out the newest {@code limit} bars, oldest first, the last one still forming.
+     */
+    public synchronized CandlesDto snapshot(String symbol, String interval, int limit) {
+        int count = (int) Math.min(Math.min(bars, capacity), Math.max(limit, 0));
+        CandlesDto dto = new CandlesDto(symbol, interval, new long[count], new double[count],
+                new double[count], new double[count], new double[count], new long[count]);
+        long first = bars - count;
+        for (int i = 0; i < count; i++) {
+            int index = (int) ((first + i) % capacity);
+            dto.getTime()[i] = openTimes[index];
+            dto.getOpen()[i] = toDouble(opens[index]);
+            dto.getHigh()[i] = toDouble(highs[index]);
+            dto.getLow()[i] = toDouble(lows[index]);
+            dto.getClose()[i] = toDouble(closes[index]);
+            dto.getVolume()[i] = volumes[index];
+        }
+        return dto;
+    }
+
+    private static double toDouble(long price) {
+        return (double) price / FixedPoint.ONE;
+    }
+}
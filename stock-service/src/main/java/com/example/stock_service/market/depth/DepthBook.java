@@ -0,0 +1,179 @@
+package com.example.stock_service.market.depth;
+
+import com.example.stock_service.dto.DepthDto;
+import com.example.stock_service.util.FixedPoint;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Simulated N-level book of one symbol. Each update re-centres both sides on the new
+ * price, keeps the sizes of levels that survive (with some churn) and reports the
+ * difference to the previous book as level inserts, updates and deletes.
+ * <p>
+ * Sides are stored best level first; all prices are fixed point.
+ */
+public class DepthBook {
+
+    private static final double SIZE_CHURN = 0.3;
+
+    private final int levels;
+    private final long tickSize;
+    private final int baseSize;
+    private final SplittableRandom random;
+
+    private final long[] bidPrices;
+    private final int[] bidSizes;
+    private final long[] askPrices;
+    private final int[] askSizes;
+    private int bidCount;
+    private int askCount;
+    private long sequence;
+
+    // Next state of the side being rebuilt
+    private final long[] nextPrices;
+    private final int[] nextSizes;
+
+    public DepthBook(int levels, long tickSize, int baseSize, long seed) {
+        this.levels = levels;
+        this.tickSize = tickSize;
+        this.baseSize = baseSize;
+        this.random = new SplittableRandom(seed);
+        this.bidPrices = new long[levels];
+        this.bidSizes = new int[levels];
+        this.askPrices = new long[levels];
+        this.askSizes = new int[levels];
+        this.nextPrices = new long[levels];
+        this.nextSizes = new int[levels];
+    }
+
+    /**
+     * Moves the book to {@code price} and writes the level changes to {@code out}. The
+     * sequence only advances when something changed, so every sequence number a client
+     * sees belongs to a published update.
+     *
+     * @return the book sequence after this update
+     */
+    public synchronized long update(long price, DepthUpdates out) {
+        out.reset();
+        long bestBid = Math.floorDiv(price - 1, tickSize) * tickSize;
+        long bestAsk = bestBid + tickSize * (1 + random.nextInt(2));
+        bidCount = rebuild(DepthUpdates.BID, bidPrices, bidSizes, bidCount, bestBid, -tickSize, out);
+        askCount = rebuild(DepthUpdates.ASK, askPrices, askSizes, askCount, bestAsk, tickSize, out);
+        if (out.count() > 0) {
+            sequence++;
+        }
+        return sequence;
+    }
+
+    /**
+     * Applies level changes produced by another instance's book of the same symbol and
+     * adopts its sequence, so the book can keep going from there if it takes the symbol
+     * over. An insert into a full side drops its worst level.
+     */
+    public synchronized void apply(long sequence, DepthUpdates updates) {
+        for (int i = 0; i < updates.count(); i++) {
+            if (updates.side(i) == DepthUpdates.BID) {
+                bidCount = applyLevel(bidPrices, bidSizes, bidCount, -1, updates.action(i), updates.price(i), updates.size(i));
+            } else {
+                askCount = applyLevel(askPrices, askSizes, askCount, 1, updates.action(i), updates.price(i), updates.size(i));
+            }
+        }
+        this.sequence = sequence;
+    }
+
+    public synchronized DepthDto snapshot(String symbol) {
+        return new DepthDto(symbol, sequence,
+                toDecimals(bidPrices, bidCount), Arrays.copyOf(bidSizes, bidCount),
+                toDecimals(askPrices, askCount), Arrays.copyOf(askSizes, askCount));
+    }
+
+    /**
+     * Merges the current side with the side implied by {@code best} and {@code step}.
+     * Both are ordered best first, so comparing {@code price * direction} walks them in
+     * the same order.
+     */
+    private int rebuild(byte side, long[] prices, int[] sizes, int count, long best, long step, DepthUpdates out) {
+        int nextCount = 0;
+        for (int level = 0; level < levels; level++) {
+            long levelPrice = best + level * step;
+            if (levelPrice <= 0) {
+                break;
+            }
+            nextPrices[nextCount++] = levelPrice;
+        }
+
+        long direction = Long.signum(step);
+        int i = 0;
+        int j = 0;
+        while (i < count || j < nextCount) {
+            long current = i < count ? prices[i] * direction : Long.MAX_VALUE;
+            long next = j < nextCount ? nextPrices[j] * direction : Long.MAX_VALUE;
+            if (current == next) {
+                int size = churn(sizes[i]);
+                if (size != sizes[i]) {
+                    out.add(DepthUpdates.UPDATE, side, nextPrices[j], size);
+                }
+                nextSizes[j++] = size;
+                i++;
+            } else if (current < next) {
+                out.add(DepthUpdates.DELETE, side, prices[i++], 0);
+            } else {
+                int size = freshSize(j);
+                out.add(DepthUpdates.INSERT, side, nextPrices[j], size);
+                nextSizes[j++] = size;
+            }
+        }
+
+        System.arraycopy(nextPrices, 0, prices, 0, nextCount);
+        System.arraycopy(nextSizes, 0, sizes, 0, nextCount);
+        return nextCount;
+    }
+
+    private int applyLevel(long[] prices, int[] sizes, int count, long direction, byte action, long price, int size) {
+        int level = 0;
+        while (level < count && prices[level] * direction < price * direction) {
+            level++;
+        }
+        boolean found = level < count && prices[level] == price;
+        if (action == DepthUpdates.DELETE) {
+            if (found) {
+                System.arraycopy(prices, level + 1, prices, level, count - level - 1);
+                System.arraycopy(sizes, level + 1, sizes, level, count - level - 1);
+                count--;
+            }
+        } else if (found) {
+            sizes[level] = size;
+        } else if (level < levels) {
+            int moved = Math.min(count, levels - 1) - level;
+            System.arraycopy(prices, level, prices, level + 1, moved);
+            System.arraycopy(sizes, level, sizes, level + 1, moved);
+            prices[level] = price;
+            sizes[level] = size;
+            count = Math.min(count + 1, levels);
+        }
+        return count;
+    }
+
+    private int churn(int size) {
+        if (random.nextDouble() >= SIZE_CHURN) {
+            return size;
+        }
+        int delta = random.nextInt(-(size / 4) - 1, size / 4 + 2);
+        return Math.max(1, size + delta);
+    }
+
+    // Liquidity thickens away from the touch
+    private int freshSize(int level) {
+        return baseSize * (1 + level / 2) + random.nextInt(baseSize + 1);
+    }
+
+    private static BigDecimal[] toDecimals(long[] prices, int count) {
+        BigDecimal[] decimals = new BigDecimal[count];
+        for (int i = 0; i < count; i++) {
+            decimals[i] = FixedPoint.toBigDecimal(prices[i]);
+        }
+        return decimals;
+    }
+}
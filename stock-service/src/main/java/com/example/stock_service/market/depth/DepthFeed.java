@@ -0,0 +1,126 @@
+package com.example.stock_service.market.depth;
+
+import com.example.stock_service.dto.DepthDto;
+import com.example.stock_service.kafka.DepthUpdateCodec;
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.market.shard.ShardAssignment;
+import com.example.stock_service.pipeline.TickHandler;
+import com.example.stock_service.util.FixedPoint;
+import com.example.stock_service.websocket.DepthFrame;
+import com.example.stock_service.websocket.SubscriptionIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The {@code depth} pipeline stage. Every tick moves the symbol's {@link DepthBook} and
+ * only the resulting level changes are published: to the {@value #DEPTH_TOPIC} topic
+ * keyed by symbol, and to {@code /topic/depth/{symbol}} when someone subscribes.
+ * Update rate per symbol follows {@code market.tick-interval-ms}.
+ * <p>
+ * Only symbols this instance owns are simulated; books of the others follow their owner's
+ * updates through {@link #applyRemote}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DepthFeed implements TickHandler {
+
+    public static final String DEPTH_TOPIC = "stock_depth_updates";
+
+    private final SymbolTable symbolTable;
+    private final KafkaTemplate<String, byte[]> tickKafkaTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SubscriptionIndex subscriptionIndex;
+    private final ShardAssignment shardAssignment;
+
+    @Value("${market.max-symbols:65536}")
+    private int capacity;
+
+    @Value("${market.depth.levels:10}")
+    private int levels;
+
+    @Value("${market.depth.tick-size:0.01}")
+    private BigDecimal tickSize;
+
+    @Value("${market.depth.base-size:100}")
+    private int baseSize;
+
+    @Value("${market.simulator.seed:42}")
+    private long seed;
+
+    // Written by the stage thread and the peer depth listener
+    private AtomicReferenceArray<DepthBook> books;
+
+    // Only touched by the stage thread
+    private DepthUpdates updates;
+
+    @PostConstruct
+    public void init() {
+        books = new AtomicReferenceArray<>(capacity);
+        updates = new DepthUpdates(levels * 4);
+    }
+
+    @Override
+    public String stageName() {
+        return "depth";
+    }
+
+    @Override
+    public void onTick(int symbolId, long price, long sequence, long timestamp) {
+        if (!shardAssignment.owns(symbolId)) {
+            return;
+        }
+        long bookSequence = bookFor(symbolId).update(price, updates);
+        if (updates.count() == 0) {
+            return;
+        }
+        String symbol = symbolTable.symbol(symbolId);
+        tickKafkaTemplate.send(DEPTH_TOPIC, symbol, DepthUpdateCodec.encode(symbolId, bookSequence, timestamp, updates))
+                .exceptionally(ex -> {
+                    log.error("Failed to send depth update to Kafka", ex);
+                    return null;
+                });
+        if (subscriptionIndex.hasDepthSubscribers(symbol)) {
+            messagingTemplate.convertAndSend(SubscriptionIndex.DEPTH_PREFIX + symbol, DepthFrame.json(symbol, bookSequence, updates));
+        }
+    }
+
+    /**
+     * Moves the book of a symbol owned elsewhere by its owner's update and relays the update
+     * to local subscribers.
+     */
+    public void applyRemote(int symbolId, long bookSequence, DepthUpdates remote) {
+        bookFor(symbolId).apply(bookSequence, remote);
+        String symbol = symbolTable.symbol(symbolId);
+        if (subscriptionIndex.hasDepthSubscribers(symbol)) {
+            messagingTemplate.convertAndSend(SubscriptionIndex.DEPTH_PREFIX + symbol, DepthFrame.json(symbol, bookSequence, remote));
+        }
+    }
+
+    public DepthDto getDepth(String symbol) {
+        int id = symbolTable.idOf(symbol);
+        DepthBook book = id < 0 ? null : books.get(id);
+        return book == null ? null : book.snapshot(symbol);
+    }
+
+    private DepthBook bookFor(int symbolId) {
+        DepthBook book = books.get(symbolId);
+        if (book == null) {
+            DepthBook created = new DepthBook(levels, FixedPoint.toTicks(tickSize), baseSize,
+                    seed * 31 + symbolTable.symbol(symbolId).hashCode());
+            book = books.compareAndExchange(symbolId, null, created);
+            if (book == null) {
+                book = created;
+            }
+        }
+        return book;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.stock_service.market.depth;
+
+import java.util.Arrays;
+
+/**
+ * Reusable column buffer of level changes produced by one book update. Index i of every
+ * column describes the same change; deletes carry a size of 0.
+ */
+public final class DepthUpdates {
+
+    public static final byte INSERT = 0;
+    public static final byte UPDATE = 1;
+    public static final byte DELETE = 2;
+
+    public static final byte BID = 0;
+    public static final byte ASK = 1;
+
+    private byte[] actions;
+    private byte[] sides;
+    private long[] prices;
+    private int[] sizes;
+    private int count;
+
+    public DepthUpdates(int capacity) {
+        actions = new byte[capacity];
+        sides = new byte[capacity];
+        prices = new long[capacity];
+        sizes = new int[capacity];
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    public void add(byte action, byte side, long price, int size) {
+        if (count == prices.length) {
+            int capacity = Math.max(8, count * 2);
+            actions = Arrays.copyOf(actions, capacity);
+            sides = Arrays.copyOf(sides, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        actions[count] = action;
+        sides[count] = side;
+        prices[count] = price;
+        sizes[count] = size;
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public byte action(int index) {
+        return actions[index];
+    }
+
+    public byte side(int index) {
+        return sides[index];
+    }
+
+    public long price(int index) {
+        return prices[index];
+    }
+
+    public int size(int index) {
+        return sizes[index];
+    }
+}
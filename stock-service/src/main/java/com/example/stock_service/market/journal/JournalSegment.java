@@ -0,0 +1,148 @@
+package com.example.stock_service.market.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * One memory-mapped, pre-sized journal file of fixed 32 byte records:
+ * <pre>
+ *   0  int   journal symbol id
+ *   4  int   reserved
+ *   8  long  price, fixed point 4 decimals
+ *   16 long  tick sequence
+ *   24 long  timestamp, epoch millis (never 0, so 0 marks the unwritten tail)
+ * </pre>
+ * Every {@code indexInterval} records form a block whose min/max timestamps are kept in
+ * memory, so a time-range query only scans blocks that can overlap the window.
+ */
+class JournalSegment {
+
+    static final int RECORD_SIZE = 32;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int indexInterval;
+    private final long[] blockMin;
+    private final long[] blockMax;
+    private volatile int count;
+    private volatile long firstTimestamp = Long.MAX_VALUE;
+    private volatile long lastTimestamp = Long.MIN_VALUE;
+
+    private JournalSegment(Path path, FileChannel channel, int capacity, int indexInterval) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.capacity = capacity;
+        this.indexInterval = indexInterval;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+        int blocks = (capacity + indexInterval - 1) / indexInterval;
+        this.blockMin = new long[blocks];
+        this.blockMax = new long[blocks];
+        Arrays.fill(blockMin, Long.MAX_VALUE);
+        Arrays.fill(blockMax, Long.MIN_VALUE);
+    }
+
+    static JournalSegment create(Path path, int capacity, int indexInterval) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(path, channel, capacity, indexInterval);
+    }
+
+    /**
+     * Maps an existing segment and rebuilds its in-memory index from the records on disk.
+     */
+    static JournalSegment open(Path path, int indexInterval) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int capacity = (int) (Files.size(path) / RECORD_SIZE);
+        JournalSegment segment = new JournalSegment(path, channel, capacity, indexInterval);
+        int recovered = 0;
+        while (recovered < capacity && segment.buffer.getLong(recovered * RECORD_SIZE + 24) != 0) {
+            segment.index(recovered, segment.buffer.getLong(recovered * RECORD_SIZE + 24));
+            recovered++;
+        }
+        segment.count = recovered;
+        return segment;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    /**
+     * Single writer only: the journal pipeline stage.
+     */
+    void append(int symbolId, long price, long sequence, long timestamp) {
+        int position = count;
+        int offset = position * RECORD_SIZE;
+        buffer.putInt(offset, symbolId);
+        buffer.putLong(offset + 8, price);
+        buffer.putLong(offset + 16, sequence);
+        buffer.putLong(offset + 24, timestamp);
+        index(position, timestamp);
+        count = position + 1;
+    }
+
+    void scan(int symbolId, long from, long to, int limit, RecordVisitor visitor) {
+        if (lastTimestamp < from || firstTimestamp > to) {
+            return;
+        }
+        int written = count;
+        int blocks = (written + indexInterval - 1) / indexInterval;
+        for (int block = 0; block < blocks && !visitor.isDone(limit); block++) {
+            if (blockMax[block] < from || blockMin[block] > to) {
+                continue;
+            }
+            int end = Math.min(written, (block + 1) * indexInterval);
+            for (int position = block * indexInterval; position < end && !visitor.isDone(limit); position++) {
+                int offset = position * RECORD_SIZE;
+                if (buffer.getInt(offset) != symbolId) {
+                    continue;
+                }
+                long timestamp = buffer.getLong(offset + 24);
+                if (timestamp >= from && timestamp <= to) {
+                    visitor.visit(buffer.getLong(offset + 8), buffer.getLong(offset + 16), timestamp);
+                }
+            }
+        }
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void index(int position, long timestamp) {
+        int block = position / indexInterval;
+        blockMin[block] = Math.min(blockMin[block], timestamp);
+        blockMax[block] = Math.max(blockMax[block], timestamp);
+        if (timestamp < firstTimestamp) {
+            firstTimestamp = timestamp;
+        }
+        if (timestamp > lastTimestamp) {
+            lastTimestamp = timestamp;
+        }
+    }
+
+    interface RecordVisitor {
+        void visit(long price, long sequence, long timestamp);
+
+        boolean isDone(int limit);
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.stock_service.market.journal;
+
+import com.example.stock_service.dto.TickDto;
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.pipeline.TickHandler;
+import com.example.stock_service.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * The {@code journal} pipeline stage: an append-only record of every tick, written
+ * through memory-mapped {@link JournalSegment}s that roll when full and are deleted
+ * once older than the retention window.
+ * <p>
+ * Symbol table ids are not stable across restarts, so the journal keeps its own
+ * symbol dictionary ({@code symbols.dat}, one symbol per line, line number = id).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TickJournal implements TickHandler {
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String SYMBOLS_FILE = "symbols.dat";
+
+    private final SymbolTable symbolTable;
+
+    @Value("${market.journal.directory:./data/tick-journal}")
+    private String directory;
+
+    @Value("${market.journal.segment-records:2097152}")
+    private int segmentRecords;
+
+    @Value("${market.journal.index-interval:4096}")
+    private int indexInterval;
+
+    @Value("${market.journal.retention-hours:72}")
+    private long retentionHours;
+
+    @Value("${market.max-symbols:65536}")
+    private int capacity;
+
+    private Path root;
+    private final List<JournalSegment> segments = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> journalIds = new ConcurrentHashMap<>();
+    private int[] journalIdByTableId;
+    private long nextSegment;
+
+    @PostConstruct
+    public void open() throws IOException {
+        root = Paths.get(directory);
+        Files.createDirectories(root);
+        journalIdByTableId = new int[capacity];
+        Arrays.fill(journalIdByTableId, -1);
+
+        Path symbols = root.resolve(SYMBOLS_FILE);
+        if (Files.exists(symbols)) {
+            List<String> lines = Files.readAllLines(symbols, StandardCharsets.UTF_8);
+            for (int i = 0; i < lines.size(); i++) {
+                journalIds.put(lines.get(i), i);
+            }
+        }
+
+        try (Stream<Path> files = Files.list(root)) {
+            List<Path> existing = files.filter(path -> path.toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+            for (Path path : existing) {
+                segments.add(JournalSegment.open(path, indexInterval));
+                nextSegment = Math.max(nextSegment, segmentNumber(path) + 1);
+            }
+        }
+        log.info("Opened tick journal at {} with {} segments", root.toAbsolutePath(), segments.size());
+    }
+
+    @Override
+    public String stageName() {
+        return "journal";
+    }
+
+    @Override
+    public void onTick(int symbolId, long price, long sequence, long timestamp) {
+        JournalSegment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.isFull()) {
+            segment = roll(segment);
+        }
+        segment.append(journalId(symbolId), price, sequence, timestamp);
+    }
+
+    /**
+     * Ticks for one symbol with {@code from <= timestamp <= to}, oldest segment first,
+     * at most {@code limit} of them.
+     */
+    public List<TickDto> query(String symbol, long from, long to, int limit) {
+        Integer journalId = journalIds.get(symbol);
+        List<TickDto> ticks = new ArrayList<>();
+        if (journalId == null) {
+            return ticks;
+        }
+        JournalSegment.RecordVisitor visitor = new JournalSegment.RecordVisitor() {
+            @Override
+            public void visit(long price, long sequence, long timestamp) {
+                ticks.add(new TickDto(symbol, FixedPoint.toBigDecimal(price), sequence, timestamp));
+            }
+
+            @Override
+            public boolean isDone(int max) {
+                return ticks.size() >= max;
+            }
+        };
+        for (JournalSegment segment : segments) {
+            if (visitor.isDone(limit)) {
+                break;
+            }
+            segment.scan(journalId, from, to, limit, visitor);
+        }
+        return ticks;
+    }
+
+    @Scheduled(fixedDelayString = "${market.journal.retention-check-ms:600000}")
+    public void enforceRetention() {
+        long cutoff = System.currentTimeMillis() - retentionHours * 3_600_000L;
+        // never drop the segment currently being written
+        for (int i = 0; i < segments.size() - 1; i++) {
+            JournalSegment segment = segments.get(i);
+            if (segment.lastTimestamp() >= cutoff) {
+                break;
+            }
+            segments.remove(segment);
+            i--;
+            try {
+                segment.close();
+                Files.deleteIfExists(segment.path());
+                log.info("Deleted tick journal segment {} past retention", segment.path());
+            } catch (IOException e) {
+                log.error("Failed to delete tick journal segment {}", segment.path(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (JournalSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.error("Failed to close tick journal segment {}", segment.path(), e);
+            }
+        }
+    }
+
+    private JournalSegment roll(JournalSegment full) {
+        try {
+            if (full != null) {
+                full.force();
+            }
+            Path path = root.resolve(String.format("%020d%s", nextSegment++, SEGMENT_SUFFIX));
+            JournalSegment segment = JournalSegment.create(path, segmentRecords, indexInterval);
+            segments.add(segment);
+            log.info("Rolled tick journal to segment {}", path);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll tick journal", e);
+        }
+    }
+
+    private int journalId(int symbolId) {
+        int id = journalIdByTableId[symbolId];
+        if (id >= 0) {
+            return id;
+        }
+        String symbol = symbolTable.symbol(symbolId);
+        Integer known = journalIds.get(symbol);
+        if (known == null) {
+            known = journalIds.size();
+            try {
+                Files.writeString(root.resolve(SYMBOLS_FILE), symbol + System.lineSeparator(), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to record journal symbol " + symbol, e);
+            }
+            journalIds.put(symbol, known);
+        }
+        journalIdByTableId[symbolId] = known;
+        return known;
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
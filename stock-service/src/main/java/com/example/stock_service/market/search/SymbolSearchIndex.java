@@ -0,0 +1,242 @@
+package com.example.stock_service.market.search;
+
+import com.example.stock_service.market.SymbolTable;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Typeahead over the {@link SymbolTable}. Lower-cased symbols and every word-start suffix
+ * of the stock name sit in two sorted arrays, so a prefix is one binary search plus a
+ * short scan; categories are bitsets over symbol ids.
+ * <p>
+ * The index is immutable once published. {@link #add(int)} merges the new keys into
+ * copies and swaps them in, so queries never lock.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SymbolSearchIndex {
+
+    private final SymbolTable symbolTable;
+
+    private final BitSet indexed = new BitSet();
+    private volatile Index index = new Index(new String[0], new int[0], new String[0], new int[0], Map.of());
+
+    @PostConstruct
+    public synchronized void build() {
+        List<String> symbolKeys = new ArrayList<>();
+        List<String> nameKeys = new ArrayList<>();
+        List<Integer> symbolIds = new ArrayList<>();
+        List<Integer> nameIds = new ArrayList<>();
+        Map<String, long[]> categories = new HashMap<>();
+        int size = symbolTable.size();
+        for (int id = 0; id < size; id++) {
+            symbolKeys.add(normalize(symbolTable.symbol(id)));
+            symbolIds.add(id);
+            for (String key : nameKeys(symbolTable.stockName(id))) {
+                nameKeys.add(key);
+                nameIds.add(id);
+            }
+            setBit(categories, symbolTable.category(id), id);
+            indexed.set(id);
+        }
+        Sorted symbols = sort(symbolKeys, symbolIds);
+        Sorted names = sort(nameKeys, nameIds);
+        index = new Index(symbols.keys, symbols.ids, names.keys, names.ids, categories);
+        log.info("Built search index over {} symbols", size);
+    }
+
+    /**
+     * Adds a symbol registered after startup.
+     */
+    public synchronized void add(int id) {
+        if (indexed.get(id)) {
+            return;
+        }
+        Index current = index;
+        Sorted symbols = insert(current.symbolKeys, current.symbolIds, List.of(normalize(symbolTable.symbol(id))), id);
+        Sorted names = insert(current.nameKeys, current.nameIds, nameKeys(symbolTable.stockName(id)), id);
+        Map<String, long[]> categories = new HashMap<>(current.categories);
+        String category = normalize(symbolTable.category(id));
+        long[] bits = categories.get(category);
+        categories.put(category, bits == null ? new long[0] : bits.clone());
+        setBit(categories, category, id);
+        index = new Index(symbols.keys, symbols.ids, names.keys, names.ids, categories);
+        indexed.set(id);
+    }
+
+    /**
+     * Symbol ids matching {@code query} and {@code category} (either may be blank), best
+     * first: exact symbol, symbol prefix, then name prefix.
+     */
+    public int[] search(String query, String category, int limit) {
+        Index current = index;
+        long[] categoryBits = null;
+        if (category != null && !category.isBlank()) {
+            categoryBits = current.categories.get(normalize(category));
+            if (categoryBits == null) {
+                return new int[0];
+            }
+        }
+
+        int[] results = new int[limit];
+        int count = 0;
+        String prefix = query == null ? "" : normalize(query.trim());
+        if (prefix.isEmpty()) {
+            int size = symbolTable.size();
+            for (int id = 0; id < size && count < limit; id++) {
+                if (categoryBits == null || isSet(categoryBits, id)) {
+                    results[count++] = id;
+                }
+            }
+            return Arrays.copyOf(results, count);
+        }
+
+        count = collect(current.symbolKeys, current.symbolIds, prefix, categoryBits, results, count, limit);
+        count = collect(current.nameKeys, current.nameIds, prefix, categoryBits, results, count, limit);
+        return Arrays.copyOf(results, count);
+    }
+
+    private static int collect(String[] keys, int[] ids, String prefix, long[] categoryBits,
+                               int[] results, int count, int limit) {
+        int i = lowerBound(keys, keys.length, prefix);
+        while (i < keys.length && count < limit && keys[i].startsWith(prefix)) {
+            int id = ids[i++];
+            if ((categoryBits == null || isSet(categoryBits, id)) && !contains(results, count, id)) {
+                results[count++] = id;
+            }
+        }
+        return count;
+    }
+
+    // Sorted order puts an exact symbol match first among its prefix matches
+    private static int lowerBound(String[] keys, int length, String prefix) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean contains(int[] results, int count, int id) {
+        for (int i = 0; i < count; i++) {
+            if (results[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The full name plus the remainder from the start of every later word, so
+     * "Apple Inc" is found by "app", "apple i" and "inc".
+     */
+    private static List<String> nameKeys(String stockName) {
+        List<String> keys = new ArrayList<>();
+        if (stockName == null) {
+            return keys;
+        }
+        String name = normalize(stockName.trim());
+        for (int i = 0; i < name.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1));
+            if (wordStart && Character.isLetterOrDigit(name.charAt(i))) {
+                keys.add(name.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static void setBit(Map<String, long[]> categories, String category, int id) {
+        String key = normalize(category);
+        long[] bits = categories.getOrDefault(key, new long[0]);
+        int word = id >>> 6;
+        if (word >= bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+        }
+        bits[word] |= 1L << id;
+        categories.put(key, bits);
+    }
+
+    private static boolean isSet(long[] bits, int id) {
+        int word = id >>> 6;
+        return word < bits.length && (bits[word] & (1L << id)) != 0;
+    }
+
+    private static Sorted sort(List<String> keys, List<Integer> ids) {
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keys.get(a).compareTo(keys.get(b)));
+        String[] sortedKeys = new String[order.length];
+        int[] sortedIds = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys.get(order[i]);
+            sortedIds[i] = ids.get(order[i]);
+        }
+        return new Sorted(sortedKeys, sortedIds);
+    }
+
+    private static Sorted insert(String[] keys, int[] ids, List<String> added, int id) {
+        String[] mergedKeys = Arrays.copyOf(keys, keys.length + added.size());
+        int[] mergedIds = Arrays.copyOf(ids, ids.length + added.size());
+        int length = keys.length;
+        for (String key : added) {
+            int position = lowerBound(mergedKeys, length, key);
+            System.arraycopy(mergedKeys, position, mergedKeys, position + 1, length - position);
+            System.arraycopy(mergedIds, position, mergedIds, position + 1, length - position);
+            mergedKeys[position] = key;
+            mergedIds[position] = id;
+            length++;
+        }
+        return new Sorted(mergedKeys, mergedIds);
+    }
+
+    private static final class Sorted {
+
+        private final String[] keys;
+        private final int[] ids;
+
+        private Sorted(String[] keys, int[] ids) {
+            this.keys = keys;
+            this.ids = ids;
+        }
+    }
+
+    private static final class Index {
+
+        private final String[] symbolKeys;
+        private final int[] symbolIds;
+        private final String[] nameKeys;
+        private final int[] nameIds;
+        private final Map<String, long[]> categories;
+
+        private Index(String[] symbolKeys, int[] symbolIds, String[] nameKeys, int[] nameIds, Map<String, long[]> categories) {
+            this.symbolKeys = symbolKeys;
+            this.symbolIds = symbolIds;
+            this.nameKeys = nameKeys;
+            this.nameIds = nameIds;
+            this.categories = categories;
+        }
+    }
+}
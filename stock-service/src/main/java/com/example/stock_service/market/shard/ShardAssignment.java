@@ -0,0 +1,170 @@
+package com.example.stock_service.market.shard;
+
+import com.example.stock_service.kafka.LatestPriceReader;
+import com.example.stock_service.kafka.PriceTickCodec;
+import com.example.stock_service.market.SymbolTable;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decides which symbols this stock-service instance generates prices for. Live
+ * instances are read from the discovery registry and placed on a
+ * {@link ConsistentHashRing}; a symbol belongs to the instance its name hashes to.
+ * The ring is rebuilt whenever the registry reports a change, so only the symbols of
+ * a joining or leaving instance move.
+ * <p>
+ * Symbols owned elsewhere are kept current from their owner's ticks by the
+ * {@code PeerTickConsumer}. A symbol that moves here continues from the newer of that copy
+ * and the owner's entry in the compacted latest-price topic, keeping the owner's price
+ * and sequence.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ShardAssignment {
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final SymbolTable symbolTable;
+    private final LatestPriceReader latestPriceReader;
+
+    @Value("${market.sharding.enabled:true}")
+    private boolean enabled;
+
+    @Value("${market.sharding.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Value("${spring.application.name}")
+    private String serviceId;
+
+    @Value("${server.port:8080}")
+    private int port;
+
+    @Value("${market.sharding.takeover-timeout-ms:5000}")
+    private long takeoverTimeoutMillis;
+
+    private String selfId;
+    private Set<String> members = Set.of();
+    private ConsistentHashRing ring;
+    private boolean[] owned = new boolean[0];
+    private int assigned;
+
+    // Copy of owned[0, assigned) handed to readers; replaced, never modified
+    private volatile boolean[] published = new boolean[0];
+
+    @PostConstruct
+    public void init() {
+        Registration self = registration.getIfAvailable();
+        selfId = self != null ? self.getInstanceId() : serviceId + ":" + port;
+        rebuild(Set.of(selfId));
+        onRegistryChange();
+    }
+
+    @EventListener(HeartbeatEvent.class)
+    public void onRegistryChange() {
+        if (!enabled) {
+            return;
+        }
+        Set<String> live = new TreeSet<>();
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+            live.add(instance.getInstanceId());
+        }
+        // we are alive even if the registry has not caught up with us yet
+        live.add(selfId);
+        if (!live.equals(members)) {
+            rebuild(live);
+        }
+    }
+
+    /**
+     * Ownership flags for at least the symbol ids below {@code size}. The array is never
+     * modified after it is returned; a rebalance publishes a new one.
+     */
+    public boolean[] ownership(int size) {
+        boolean[] current = published;
+        if (current.length >= size) {
+            return current;
+        }
+        synchronized (this) {
+            if (owned.length < size) {
+                owned = Arrays.copyOf(owned, Math.max(size, owned.length * 2));
+            }
+            for (; assigned < size; assigned++) {
+                owned[assigned] = isMine(assigned);
+            }
+            published = Arrays.copyOf(owned, assigned);
+            return published;
+        }
+    }
+
+    public boolean owns(int id) {
+        boolean[] current = published;
+        return id < current.length ? current[id] : ownership(id + 1)[id];
+    }
+
+    private synchronized void rebuild(Set<String> live) {
+        members = Set.copyOf(live);
+        ring = new ConsistentHashRing(members, virtualNodes);
+        // Ids not assigned yet start out unowned, so the ones that are ours count as gained
+        int size = symbolTable.size();
+        if (owned.length < size) {
+            owned = Arrays.copyOf(owned, size);
+        }
+        assigned = Math.max(assigned, size);
+
+        Map<String, Integer> gained = new HashMap<>();
+        int mine = 0;
+        for (int id = 0; id < assigned; id++) {
+            boolean now = isMine(id);
+            if (now && !owned[id]) {
+                gained.put(symbolTable.symbol(id), id);
+            }
+            owned[id] = now;
+            if (now) {
+                mine++;
+            }
+        }
+        // Gained symbols are published only once they hold the previous owner's price
+        if (enabled && !gained.isEmpty()) {
+            takeOver(gained);
+        }
+        published = Arrays.copyOf(owned, assigned);
+        log.info("Symbol shards rebalanced across {} instances, {} of {} assigned symbols owned by {}",
+                members.size(), mine, assigned, selfId);
+    }
+
+    private boolean isMine(int id) {
+        return !enabled || selfId.equals(ring.ownerOf(symbolTable.symbol(id)));
+    }
+
+    private void takeOver(Map<String, Integer> gained) {
+        try {
+            latestPriceReader.read(takeoverTimeoutMillis, (symbol, tick) -> {
+                Integer id = gained.get(symbol);
+                long timestamp = PriceTickCodec.timestamp(tick);
+                if (id != null && timestamp > symbolTable.updatedAt(id)) {
+                    symbolTable.applyTick(id, PriceTickCodec.price(tick), PriceTickCodec.sequence(tick), timestamp);
+                }
+            });
+        } catch (TimeoutException | RuntimeException e) {
+            log.warn("Could not read latest prices for {} gained symbols, continuing from the local copy: {}",
+                    gained.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.stock_service.market.sim;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * S(t+dt) = S(t) * exp((mu - sigma^2 / 2) dt + sigma sqrt(dt) Z)
+ */
+@Component
+public class GeometricBrownianMotion implements PriceModel {
+
+    @Value("${market.simulator.drift:0.05}")
+    private double drift;
+
+    @Override
+    public String modelName() {
+        return "gbm";
+    }
+
+    @Override
+    public long next(long price, double volatility, double dt, RandomGenerator random) {
+        double exponent = (drift - 0.5 * volatility * volatility) * dt + volatility * Math.sqrt(dt) * random.nextGaussian();
+        return Math.max(1L, Math.round(price * Math.exp(exponent)));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.stock_service.market.sim;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Merton jump-diffusion: a {@link GeometricBrownianMotion} step plus, with probability
+ * {@code lambda * dt}, a jump whose log size is normal with the configured mean and
+ * deviation.
+ */
+@Component
+public class JumpDiffusion implements PriceModel {
+
+    @Value("${market.simulator.drift:0.05}")
+    private double drift;
+
+    @Value("${market.simulator.jump.intensity:12}")
+    private double intensity;
+
+    @Value("${market.simulator.jump.mean:-0.01}")
+    private double jumpMean;
+
+    @Value("${market.simulator.jump.stddev:0.04}")
+    private double jumpStddev;
+
+    @Override
+    public String modelName() {
+        return "jump-diffusion";
+    }
+
+    @Override
+    public long next(long price, double volatility, double dt, RandomGenerator random) {
+        double exponent = (drift - 0.5 * volatility * volatility) * dt + volatility * Math.sqrt(dt) * random.nextGaussian();
+        if (random.nextDouble() < intensity * dt) {
+            exponent += jumpMean + jumpStddev * random.nextGaussian();
+        }
+        return Math.max(1L, Math.round(price * Math.exp(exponent)));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.stock_service.market.sim;
+
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.market.shard.ShardAssignment;
+import com.example.stock_service.pipeline.TickPipeline;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Advances every symbol by one step of the configured {@link PriceModel} per cycle.
+ * Symbols are split into shards that run in parallel; each symbol draws from its own
+ * generator seeded from {@code market.simulator.seed} and its symbol, so a run is
+ * reproducible regardless of shard count or registration order.
+ * <p>
+ * Only symbols assigned to this instance by the {@link ShardAssignment} are advanced.
+ * <p>
+ * Volatility comes from {@code market.simulator.volatility.<category>} (category of the
+ * stock, lower case) with {@code market.simulator.default-volatility} as fallback.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MarketSimulator {
+
+    private static final double MILLIS_PER_YEAR = 365.0 * 24 * 3_600_000;
+
+    private final SymbolTable symbolTable;
+    private final TickPipeline tickPipeline;
+    private final ShardAssignment shardAssignment;
+    private final List<PriceModel> models;
+    private final Environment environment;
+
+    @Value("${market.simulator.model:gbm}")
+    private String modelName;
+
+    @Value("${market.simulator.seed:42}")
+    private long seed;
+
+    @Value("${market.simulator.shards:0}")
+    private int shardCount;
+
+    @Value("${market.simulator.default-volatility:0.25}")
+    private double defaultVolatility;
+
+    @Value("${market.simulator.time-acceleration:1}")
+    private double timeAcceleration;
+
+    @Value("${market.tick-interval-ms:2000}")
+    private long tickIntervalMs;
+
+    @Value("${market.max-symbols:65536}")
+    private int capacity;
+
+    private PriceModel model;
+    private ExecutorService executor;
+    private SplittableRandom[] randoms;
+    private double[] volatilities;
+    private int prepared;
+
+    @PostConstruct
+    public void init() {
+        model = models.stream()
+                .filter(candidate -> candidate.modelName().equals(modelName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown price model: " + modelName));
+        if (shardCount <= 0) {
+            shardCount = Runtime.getRuntime().availableProcessors();
+        }
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "market-simulator-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        randoms = new SplittableRandom[capacity];
+        volatilities = new double[capacity];
+        log.info("Market simulator using model {} on {} shards with seed {}", modelName, shardCount, seed);
+    }
+
+    /**
+     * Runs one cycle and returns once every shard has published its ticks.
+     */
+    public void tick() {
+        int size = symbolTable.size();
+        prepare(size);
+        boolean[] owned = shardAssignment.ownership(size);
+        double dt = tickIntervalMs * timeAcceleration / MILLIS_PER_YEAR;
+        long timestamp = System.currentTimeMillis();
+
+        List<Callable<Void>> shards = new ArrayList<>(shardCount);
+        int chunk = (size + shardCount - 1) / shardCount;
+        for (int start = 0; start < size; start += chunk) {
+            int from = start;
+            int to = Math.min(size, start + chunk);
+            shards.add(() -> {
+                advance(from, to, owned, dt, timestamp);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : executor.invokeAll(shards)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Market simulator shard failed", e.getCause());
+        }
+    }
+
+    private void advance(int from, int to, boolean[] owned, double dt, long timestamp) {
+        for (int id = from; id < to; id++) {
+            if (!owned[id]) {
+                continue;
+            }
+            long price = model.next(symbolTable.price(id), volatilities[id], dt, randoms[id]);
+            long sequence = symbolTable.updatePrice(id, price, timestamp);
+            tickPipeline.publish(id, price, sequence, timestamp);
+        }
+    }
+
+    private void prepare(int size) {
+        for (; prepared < size; prepared++) {
+            String symbol = symbolTable.symbol(prepared);
+            randoms[prepared] = new SplittableRandom(seed * 31 + symbol.hashCode());
+            String category = symbolTable.category(prepared);
+            volatilities[prepared] = category == null ? defaultVolatility
+                    : environment.getProperty("market.simulator.volatility." + category.toLowerCase(), Double.class, defaultVolatility);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.stock_service.market.sim;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * One step of a price process. {@code dt} is in years, {@code volatility} annualised;
+ * prices are fixed-point longs. Implementations must draw only from {@code random}
+ * so a seeded run is reproducible.
+ */
+public interface PriceModel {
+
+    String modelName();
+
+    long next(long price, double volatility, double dt, RandomGenerator random);
+}
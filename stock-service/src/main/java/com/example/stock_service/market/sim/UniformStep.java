@@ -0,0 +1,24 @@
+package com.example.stock_service.market.sim;
+
+import com.example.stock_service.util.FixedPoint;
+import org.springframework.stereotype.Component;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The original generator: a uniform change between -2 and +2 points, floored at zero.
+ */
+@Component
+public class UniformStep implements PriceModel {
+
+    @Override
+    public String modelName() {
+        return "uniform";
+    }
+
+    @Override
+    public long next(long price, double volatility, double dt, RandomGenerator random) {
+        long change = (long) ((random.nextDouble() * 4 - 2) * FixedPoint.ONE);
+        return Math.max(0L, price + change);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.stock_service.pipeline;
+
+public enum BackpressurePolicy {
+    /** The generator waits for this stage once it is a full ring behind. */
+    BLOCK,
+    /** The generator never waits; the stage skips over ticks it was too slow to read. */
+    DROP
+}
@@ -0,0 +1,16 @@
+package com.example.stock_service.pipeline;
+
+/**
+ * A consumer stage of the {@link TickPipeline}. Every handler runs on its own thread and
+ * sees ticks in publication order; {@link #onBatchEnd()} marks the end of each drained
+ * batch so a stage can flush whatever it buffered.
+ */
+public interface TickHandler {
+
+    String stageName();
+
+    void onTick(int symbolId, long price, long sequence, long timestamp);
+
+    default void onBatchEnd() {
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.stock_service.pipeline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decouples the price clock from its sinks. The generator publishes each tick into a
+ * {@link TickRingBuffer}; every {@link TickHandler} bean gets its own consumer thread,
+ * configured under {@code market.pipeline.stages.<stageName>}:
+ * <ul>
+ *     <li>{@code enabled} - default true</li>
+ *     <li>{@code policy} - {@link BackpressurePolicy}, default DROP</li>
+ *     <li>{@code batch-size} - max ticks drained before {@link TickHandler#onBatchEnd()}</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TickPipeline {
+
+    private final List<TickHandler> handlers;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    @Value("${market.pipeline.ring-size:65536}")
+    private int ringSize;
+
+    private TickRingBuffer ring;
+    private final List<TickStage> stages = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        ring = new TickRingBuffer(ringSize);
+        for (TickHandler handler : handlers) {
+            String prefix = "market.pipeline.stages." + handler.stageName() + ".";
+            if (!environment.getProperty(prefix + "enabled", Boolean.class, true)) {
+                log.info("Tick stage {} is disabled", handler.stageName());
+                continue;
+            }
+            BackpressurePolicy policy = environment.getProperty(prefix + "policy", BackpressurePolicy.class, BackpressurePolicy.DROP);
+            int batchSize = environment.getProperty(prefix + "batch-size", Integer.class, 1024);
+            TickStage stage = new TickStage(ring, handler, policy, batchSize, meterRegistry);
+            Thread thread = new Thread(stage, "tick-stage-" + handler.stageName());
+            thread.setDaemon(true);
+            thread.start();
+            stages.add(stage);
+            log.info("Started tick stage {} with policy {} and batch size {}", handler.stageName(), policy, batchSize);
+        }
+    }
+
+    public void publish(int symbolId, long price, long sequence, long timestamp) {
+        ring.publish(symbolId, price, sequence, timestamp);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stages.forEach(TickStage::stop);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.stock_service.pipeline;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pre-allocated multi-producer ring of tick slots, held as parallel primitive arrays so
+ * publishing a tick allocates nothing. Each slot carries a seqlock version: odd
+ * ({@code 2 * sequence + 1}) while a producer writes it and even ({@code 2 * sequence}) once
+ * it is readable, so a lagging reader can tell a slot being overwritten from a finished one.
+ * Producers only wait on stages registered as {@link BackpressurePolicy#BLOCK}.
+ */
+public class TickRingBuffer {
+
+    private final int mask;
+    private final int capacity;
+    private final int[] symbolIds;
+    private final long[] prices;
+    private final long[] sequences;
+    private final long[] timestamps;
+    private final AtomicLongArray versions;
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    private volatile AtomicLong[] gatingSequences = new AtomicLong[0];
+
+    public TickRingBuffer(int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two: " + size);
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.symbolIds = new int[size];
+        this.prices = new long[size];
+        this.sequences = new long[size];
+        this.timestamps = new long[size];
+        this.versions = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            versions.set(i, -1);
+        }
+    }
+
+    synchronized void addGatingSequence(AtomicLong sequence) {
+        AtomicLong[] current = gatingSequences;
+        AtomicLong[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = sequence;
+        gatingSequences = updated;
+    }
+
+    public void publish(int symbolId, long price, long tickSequence, long timestamp) {
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - capacity;
+        while (wrapPoint > minimumGatingSequence()) {
+            LockSupport.parkNanos(1_000);
+        }
+        int index = (int) sequence & mask;
+        versions.set(index, (sequence << 1) + 1);
+        // Keeps the field writes below from moving ahead of the odd version
+        VarHandle.storeStoreFence();
+        symbolIds[index] = symbolId;
+        prices[index] = price;
+        sequences[index] = tickSequence;
+        timestamps[index] = timestamp;
+        versions.set(index, sequence << 1);
+    }
+
+    public long cursor() {
+        return claimed.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Seqlock version of the slot {@code sequence} maps to: {@code 2 * sequence} once that
+     * sequence is readable, odd while some producer is writing the slot.
+     */
+    long slotVersion(long sequence) {
+        return versions.get((int) sequence & mask);
+    }
+
+    int symbolId(long sequence) {
+        return symbolIds[(int) sequence & mask];
+    }
+
+    long price(long sequence) {
+        return prices[(int) sequence & mask];
+    }
+
+    long tickSequence(long sequence) {
+        return sequences[(int) sequence & mask];
+    }
+
+    long timestamp(long sequence) {
+        return timestamps[(int) sequence & mask];
+    }
+
+    private long minimumGatingSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (AtomicLong gating : gatingSequences) {
+            minimum = Math.min(minimum, gating.get());
+        }
+        return minimum;
+    }
+}
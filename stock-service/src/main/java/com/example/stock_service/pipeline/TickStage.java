@@ -0,0 +1,111 @@
+package com.example.stock_service.pipeline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives one {@link TickHandler} from its own thread. Drains up to {@code batchSize}
+ * published ticks at a time and reports lag, batch size and dropped ticks.
+ */
+@Slf4j
+class TickStage implements Runnable {
+
+    private static final long IDLE_PARK_NANOS = 50_000;
+
+    private final TickRingBuffer ring;
+    private final TickHandler handler;
+    private final BackpressurePolicy policy;
+    private final int batchSize;
+    private final AtomicLong sequence = new AtomicLong(-1);
+    private final Counter processed;
+    private final Counter dropped;
+    private final DistributionSummary batches;
+    private volatile boolean running = true;
+
+    TickStage(TickRingBuffer ring, TickHandler handler, BackpressurePolicy policy, int batchSize, MeterRegistry registry) {
+        this.ring = ring;
+        this.handler = handler;
+        this.policy = policy;
+        this.batchSize = batchSize;
+        String stage = handler.stageName();
+        this.processed = Counter.builder("market.pipeline.processed").tag("stage", stage).register(registry);
+        this.dropped = Counter.builder("market.pipeline.dropped").tag("stage", stage).register(registry);
+        this.batches = DistributionSummary.builder("market.pipeline.batch.size").tag("stage", stage).register(registry);
+        Gauge.builder("market.pipeline.lag", this, TickStage::lag).tag("stage", stage).register(registry);
+        if (policy == BackpressurePolicy.BLOCK) {
+            ring.addGatingSequence(sequence);
+        }
+    }
+
+    long lag() {
+        return ring.cursor() - sequence.get();
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        long next = sequence.get() + 1;
+        while (running) {
+            int count = 0;
+            while (count < batchSize) {
+                long published = next << 1;
+                long version = ring.slotVersion(next);
+                if (version <= published + 1 && version != published) {
+                    // not written yet, or its producer is still writing it
+                    break;
+                }
+                if (version > published) {
+                    next = skipOverrun(next);
+                    continue;
+                }
+                int symbolId = ring.symbolId(next);
+                long price = ring.price(next);
+                long tickSequence = ring.tickSequence(next);
+                long timestamp = ring.timestamp(next);
+                // Keeps the reads above from moving past the version re-check
+                VarHandle.acquireFence();
+                if (ring.slotVersion(next) != published) {
+                    // overwritten while reading, only possible for DROP stages
+                    next = skipOverrun(next);
+                    continue;
+                }
+                try {
+                    handler.onTick(symbolId, price, tickSequence, timestamp);
+                } catch (RuntimeException e) {
+                    log.error("Stage {} failed to handle tick", handler.stageName(), e);
+                }
+                next++;
+                count++;
+            }
+            if (count == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                handler.onBatchEnd();
+            } catch (RuntimeException e) {
+                log.error("Stage {} failed to end batch", handler.stageName(), e);
+            }
+            sequence.set(next - 1);
+            processed.increment(count);
+            batches.record(count);
+        }
+    }
+
+    private long skipOverrun(long next) {
+        long oldest = Math.max(next + 1, ring.cursor() - ring.capacity() + 1);
+        dropped.increment(oldest - next);
+        sequence.set(oldest - 1);
+        return oldest;
+    }
+}
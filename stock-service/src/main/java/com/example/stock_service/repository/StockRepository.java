@@ -4,7 +4,11 @@ import com.example.stock_service.entity.Stock;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 
 @Repository
 public interface StockRepository extends JpaRepository<Stock, String> {
+
+    Optional<Stock> findBySymbol(String symbol);
 }
@@ -4,21 +4,23 @@ package com.example.stock_service.service;
 import com.example.stock_service.dto.StockDto;
 import com.example.stock_service.entity.Stock;
 import com.example.stock_service.mapper.StockMapper;
+import com.example.stock_service.market.MarketSnapshot;
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.market.search.SymbolSearchIndex;
+import com.example.stock_service.market.sim.MarketSimulator;
+import com.example.stock_service.pipeline.TickPipeline;
 import com.example.stock_service.repository.StockRepository;
-import jakarta.transaction.Transactional;
+import com.example.stock_service.util.FixedPoint;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -32,62 +34,57 @@ public class StockService {
     private final KafkaTemplate<String, String> kafkaTemplate;
 
     @Autowired
-    private final SimpMessagingTemplate messagingTemplate;
+    private final SymbolTable symbolTable;
 
+    @Autowired
+    private final MarketSimulator marketSimulator;
+
+    @Autowired
+    private final MarketSnapshot marketSnapshot;
+
+    @Autowired
+    private final SymbolSearchIndex symbolSearchIndex;
+
+    @Value("${market.generator.enabled:true}")
+    private boolean generatorEnabled;
 
 
 
 
     public void addStock(StockDto stockDto) {
         Stock stock = StockMapper.toStock(stockDto, new Stock());
-        stockRepository.save(stock);
+        symbolSearchIndex.add(symbolTable.register(stockRepository.save(stock)));
+    }
+
+    public List<StockDto> searchStocks(String query, String category, int limit) {
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("limit must be between 1 and 100");
+        }
+        List<StockDto> stocks = new ArrayList<>();
+        for (int id : symbolSearchIndex.search(query, category, limit)) {
+            stocks.add(new StockDto(symbolTable.stockName(id), FixedPoint.toBigDecimal(symbolTable.price(id)),
+                    symbolTable.category(id), symbolTable.symbol(id)));
+        }
+        return stocks;
     }
 
     public void sendStockToKafka() {
         kafkaTemplate.send("stock-topic", "Hello World");
     }
 
-    @Scheduled(fixedRate = 2000)
-    @Transactional
+    /**
+     * Ticks live entirely in the {@link SymbolTable}; every sink (Kafka, WebSocket,
+     * persistence) consumes them from the {@link TickPipeline} on its own thread.
+     * Prices come from the {@link MarketSimulator}'s configured model; the REST snapshot
+     * is re-serialized once per cycle. Fan-out nodes receive ticks from Kafka instead.
+     */
+    @Scheduled(fixedRateString = "${market.tick-interval-ms:2000}")
     public void generatePriceUpdates() {
-        List<Stock> stocks = stockRepository.findAll();
-        Random random = new Random();
-
-        for (Stock stock : stocks) {
-            // Generate a random change between -2 and +2 points
-            double fixedChange = (random.nextDouble() * 4) - 2;
-            BigDecimal changeAmount = BigDecimal.valueOf(fixedChange);
-            BigDecimal newPrice = stock.getStockPrice().add(changeAmount);
-
-            // Ensure the new price does not fall below zero
-            if (newPrice.compareTo(BigDecimal.ZERO) < 0) {
-                newPrice = BigDecimal.ZERO;
-            }
-            stock.setStockPrice(newPrice);
-
-            // Create the update message
-            String message = String.format("{\"Stock Name\": \"%s\", \"symbol\": \"%s\", \"price\": \"%s\"}",
-                    stock.getStockName(), stock.getSymbol(), stock.getStockPrice().toString());
-
-            // Send update to Kafka
-            CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send("stock_price_updates", message);
-            future.thenAccept(result -> {
-                log.info("Event sent successfully to topic: {}, partition: {}, offset: {}",
-                        result.getRecordMetadata().topic(),
-                        result.getRecordMetadata().partition(),
-                        result.getRecordMetadata().offset());
-            }).exceptionally(ex -> {
-                log.error("Failed to send event to Kafka", ex);
-                return null;
-            });
-
-            // Send update to WebSocket
-            messagingTemplate.convertAndSend("/topic/stock-updates", message);
-            log.info("Sent stock update to WebSocket: {}", message);
+        if (!generatorEnabled) {
+            return;
         }
-
-        // Save all updated stocks
-        stockRepository.saveAll(stocks);
+        marketSimulator.tick();
+        marketSnapshot.rebuild();
     }
 
 
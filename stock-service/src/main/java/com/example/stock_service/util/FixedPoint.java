@@ -0,0 +1,25 @@
+package com.example.stock_service.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prices are carried internally as longs scaled by 10^4 so the tick path never
+ * touches BigDecimal. Conversion happens only at the REST / persistence edges.
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 4;
+    public static final long ONE = 10_000L;
+
+    private FixedPoint() {
+    }
+
+    public static long toTicks(BigDecimal price) {
+        return price.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long ticks) {
+        return BigDecimal.valueOf(ticks, SCALE);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.stock_service.websocket;
+
+/**
+ * Compact per-symbol price frame for {@code /topic/stock-updates/{symbol}/binary}.
+ * The symbol is implied by the destination, so a frame is just
+ * <pre>
+ *   byte   type      0 = key frame, 1 = delta frame
+ *   varint sequence  per-symbol frame sequence, lets clients detect gaps
+ *   varint value     key frame: absolute price; delta frame: zig-zag delta to the
+ *                    previous frame. Prices are fixed point, 4 decimals.
+ * </pre>
+ * A typical delta frame is 4-5 bytes against ~60 bytes of JSON.
+ */
+public final class BinaryPriceFrame {
+
+    public static final byte KEY_FRAME = 0;
+    public static final byte DELTA_FRAME = 1;
+
+    private BinaryPriceFrame() {
+    }
+
+    public static byte[] keyFrame(long sequence, long price) {
+        return encode(KEY_FRAME, sequence, price);
+    }
+
+    public static byte[] deltaFrame(long sequence, long delta) {
+        return encode(DELTA_FRAME, sequence, (delta << 1) ^ (delta >> 63));
+    }
+
+    private static byte[] encode(byte type, long sequence, long value) {
+        byte[] frame = new byte[1 + varintLength(sequence) + varintLength(value)];
+        frame[0] = type;
+        int position = writeVarint(frame, 1, sequence);
+        writeVarint(frame, position, value);
+        return frame;
+    }
+
+    private static int writeVarint(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static int varintLength(long value) {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+}
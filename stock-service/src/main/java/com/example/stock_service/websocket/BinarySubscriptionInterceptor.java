@@ -0,0 +1,65 @@
+package com.example.stock_service.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Guards subscriptions to {@code /topic/stock-updates/{symbol}/binary}:
+ * <ul>
+ *     <li>SockJS can only carry text, so they are refused unless the session came in
+ *     through the plain WebSocket endpoint {@link #NATIVE_ENDPOINT}</li>
+ *     <li>the key frame a new subscriber needs is only requested once the broker has
+ *     registered the subscription, so it cannot go out before the subscriber is there</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class BinarySubscriptionInterceptor implements ExecutorChannelInterceptor {
+
+    public static final String NATIVE_ENDPOINT = "/ws/native";
+    public static final String NATIVE_SESSION_ATTRIBUTE = "marketdata.native-websocket";
+
+    private final SubscriptionIndex subscriptionIndex;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String symbol = binarySubscription(message);
+        if (symbol != null) {
+            Map<String, Object> attributes = StompHeaderAccessor.wrap(message).getSessionAttributes();
+            if (attributes == null || !Boolean.TRUE.equals(attributes.get(NATIVE_SESSION_ATTRIBUTE))) {
+                throw new MessageDeliveryException(message, "Binary price frames need a plain WebSocket connection to " + NATIVE_ENDPOINT);
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex == null && handler instanceof SimpleBrokerMessageHandler) {
+            String symbol = binarySubscription(message);
+            if (symbol != null) {
+                subscriptionIndex.requestKeyframe(symbol);
+            }
+        }
+    }
+
+    // The symbol of a binary price subscription, null for any other message
+    private static String binarySubscription(Message<?> message) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return null;
+        }
+        return SubscriptionIndex.binarySymbol(accessor.getDestination());
+    }
+}
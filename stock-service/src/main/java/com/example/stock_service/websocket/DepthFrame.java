@@ -0,0 +1,39 @@
+package com.example.stock_service.websocket;
+
+import com.example.stock_service.market.depth.DepthUpdates;
+import com.example.stock_service.util.FixedPoint;
+
+/**
+ * JSON form of an incremental depth message sent to {@code /topic/depth/{symbol}}:
+ * <pre>
+ * {"symbol":"AAPL","sequence":42,"updates":[{"action":"update","side":"bid","price":"189.1200","size":350}]}
+ * </pre>
+ * Clients load {@code GET /api/stock/{symbol}/depth} and apply every message with a
+ * higher sequence; a gap means they should reload.
+ */
+public final class DepthFrame {
+
+    private static final String[] ACTIONS = {"insert", "update", "delete"};
+    private static final String[] SIDES = {"bid", "ask"};
+
+    private DepthFrame() {
+    }
+
+    public static String json(String symbol, long sequence, DepthUpdates updates) {
+        StringBuilder frame = new StringBuilder(64 + updates.count() * 64)
+                .append("{\"symbol\":\"").append(symbol)
+                .append("\",\"sequence\":").append(sequence)
+                .append(",\"updates\":[");
+        for (int i = 0; i < updates.count(); i++) {
+            if (i > 0) {
+                frame.append(',');
+            }
+            frame.append("{\"action\":\"").append(ACTIONS[updates.action(i)])
+                    .append("\",\"side\":\"").append(SIDES[updates.side(i)])
+                    .append("\",\"price\":\"").append(FixedPoint.toBigDecimal(updates.price(i)).toPlainString())
+                    .append("\",\"size\":").append(updates.size(i))
+                    .append('}');
+        }
+        return frame.append("]}").toString();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.stock_service.websocket;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Puts every WebSocket session behind a {@link MarketDataSession} so a slow client only
+ * ever holds the newest JSON price per symbol subscription plus a bounded FIFO queue,
+ * instead of an unbounded backlog in the broker. Sessions that have had frames pending
+ * without delivering any for {@code market.websocket.max-lag-ms} are disconnected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MarketDataBroker {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${market.websocket.sender-threads:8}")
+    private int senderThreads;
+
+    @Value("${market.websocket.control-queue-capacity:1024}")
+    private int controlQueueCapacity;
+
+    @Value("${market.websocket.max-lag-ms:10000}")
+    private long maxLagMillis;
+
+    private final Map<String, MarketDataSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong disconnected = new AtomicLong();
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threads = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "market-data-sender-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("market.websocket.sessions", sessions, Map::size).register(meterRegistry);
+        Gauge.builder("market.websocket.disconnected.slow", disconnected, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("market.websocket.lag.max", this, MarketDataBroker::maxLag).baseUnit("milliseconds").register(meterRegistry);
+    }
+
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                MarketDataSession marketDataSession = new MarketDataSession(session, sender, controlQueueCapacity);
+                sessions.put(session.getId(), marketDataSession);
+                super.afterConnectionEstablished(marketDataSession);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${market.websocket.lag-check-interval-ms:1000}")
+    public void disconnectSlowSessions() {
+        for (MarketDataSession session : sessions.values()) {
+            long lag = session.lagMillis();
+            if (lag > maxLagMillis) {
+                log.warn("Disconnecting session {}: {} ms behind with {} frames pending", session.getId(), lag, session.pending());
+                disconnected.incrementAndGet();
+                sessions.remove(session.getId());
+                try {
+                    session.getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+                } catch (IOException e) {
+                    log.debug("Failed to close slow session {}", session.getId(), e);
+                }
+            }
+        }
+    }
+
+    Collection<MarketDataSession> sessions() {
+        return sessions.values();
+    }
+
+    long disconnectedSessions() {
+        return disconnected.get();
+    }
+
+    private long maxLag() {
+        long max = 0;
+        for (MarketDataSession session : sessions.values()) {
+            max = Math.max(max, session.lagMillis());
+        }
+        return max;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.stock_service.websocket;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbound side of one client session. Sends never block the caller: full-state JSON
+ * price frames of a single symbol ({@code /topic/stock-updates/{symbol}}) are kept
+ * latest-value-wins per destination and subscription. Everything else, including binary
+ * deltas and the aggregate {@code /topic/stock-updates} frame whose content depends on the
+ * frames before it, goes into a bounded FIFO. A single drain task at a time writes pending
+ * frames to the socket on the broker's sender pool.
+ */
+class MarketDataSession extends WebSocketSessionDecorator {
+
+    private static final String SYMBOL_DESTINATION = "destination:" + SubscriptionIndex.SYMBOL_PREFIX;
+
+    private final Executor sender;
+    private final int controlCapacity;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong conflated = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Queues and the fields below are guarded by lock
+    private final Object lock = new Object();
+    private final Map<String, WebSocketMessage<?>> latestPrices = new LinkedHashMap<>();
+    private final Queue<WebSocketMessage<?>> control = new ArrayDeque<>();
+    // Frames queued or being written
+    private int pending;
+    // When the session last had nothing pending or last delivered a frame, 0 when caught up
+    private long pendingSince;
+
+    MarketDataSession(WebSocketSession delegate, Executor sender, int controlCapacity) {
+        super(delegate);
+        this.sender = sender;
+        this.controlCapacity = controlCapacity;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        String conflationKey = conflationKey(message);
+        boolean full = false;
+        synchronized (lock) {
+            if (conflationKey != null) {
+                if (latestPrices.put(conflationKey, message) != null) {
+                    conflated.incrementAndGet();
+                } else {
+                    queued();
+                }
+            } else if (control.size() >= controlCapacity) {
+                full = true;
+            } else {
+                control.offer(message);
+                queued();
+            }
+        }
+        if (full) {
+            dropped.incrementAndGet();
+            closeQuietly();
+            throw new IOException("Outbound queue full for session " + getId());
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Milliseconds the session has had frames pending without delivering any, 0 when
+     * caught up.
+     */
+    long lagMillis() {
+        long since;
+        synchronized (lock) {
+            since = pendingSince;
+        }
+        return since == 0 ? 0 : System.currentTimeMillis() - since;
+    }
+
+    int pending() {
+        synchronized (lock) {
+            return pending;
+        }
+    }
+
+    long sent() {
+        return sent.get();
+    }
+
+    long conflated() {
+        return conflated.get();
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    private void queued() {
+        if (pending++ == 0) {
+            pendingSince = System.currentTimeMillis();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (getDelegate().isOpen()) {
+                WebSocketMessage<?> next;
+                synchronized (lock) {
+                    next = control.poll();
+                    if (next == null) {
+                        next = pollPrice();
+                    }
+                }
+                if (next == null) {
+                    break;
+                }
+                getDelegate().sendMessage(next);
+                sent.incrementAndGet();
+                synchronized (lock) {
+                    pending--;
+                    pendingSince = pending == 0 ? 0 : System.currentTimeMillis();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            closeQuietly();
+        } finally {
+            draining.set(false);
+            if (hasQueued() && getDelegate().isOpen()) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    private boolean hasQueued() {
+        synchronized (lock) {
+            return !control.isEmpty() || !latestPrices.isEmpty();
+        }
+    }
+
+    private WebSocketMessage<?> pollPrice() {
+        Iterator<WebSocketMessage<?>> prices = latestPrices.values().iterator();
+        if (!prices.hasNext()) {
+            return null;
+        }
+        WebSocketMessage<?> next = prices.next();
+        prices.remove();
+        return next;
+    }
+
+    private void closeQuietly() {
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException ignored) {
+            // the connection is already gone
+        }
+    }
+
+    /**
+     * Conflation key (destination + subscription) of a STOMP MESSAGE frame for a per-symbol
+     * JSON price destination, or null for any other frame. Only the header block is inspected.
+     */
+    static String conflationKey(WebSocketMessage<?> message) {
+        String headers;
+        if (message instanceof TextMessage text) {
+            String payload = text.getPayload();
+            int end = payload.indexOf("\n\n");
+            headers = end < 0 ? payload : payload.substring(0, end);
+        } else if (message instanceof BinaryMessage binary) {
+            ByteBuffer buffer = binary.getPayload().duplicate();
+            int end = headerEnd(buffer);
+            byte[] bytes = new byte[end - buffer.position()];
+            buffer.get(bytes);
+            headers = new String(bytes, StandardCharsets.ISO_8859_1);
+        } else {
+            return null;
+        }
+        if (!headers.startsWith("MESSAGE\n")) {
+            return null;
+        }
+        String destination = header(headers, "\ndestination:");
+        if (destination == null || !("destination:" + destination).startsWith(SYMBOL_DESTINATION)
+                || destination.endsWith(SubscriptionIndex.BINARY_SUFFIX)) {
+            return null;
+        }
+        return destination + '|' + header(headers, "\nsubscription:");
+    }
+
+    private static String header(String headers, String name) {
+        int start = headers.indexOf(name);
+        if (start < 0) {
+            return null;
+        }
+        start += name.length();
+        int end = headers.indexOf('\n', start);
+        return end < 0 ? headers.substring(start) : headers.substring(start, end);
+    }
+
+    private static int headerEnd(ByteBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit() - 1; i++) {
+            if (buffer.get(i) == '\n' && buffer.get(i + 1) == '\n') {
+                return i;
+            }
+        }
+        return buffer.limit();
+    }
+}
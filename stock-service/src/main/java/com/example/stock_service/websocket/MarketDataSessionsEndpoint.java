@@ -0,0 +1,38 @@
+package com.example.stock_service.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/marketdata}: lag and counters of every market-data session.
+ */
+@Component
+@Endpoint(id = "marketdata")
+@RequiredArgsConstructor
+public class MarketDataSessionsEndpoint {
+
+    private final MarketDataBroker marketDataBroker;
+
+    @ReadOperation
+    public Map<String, Object> sessions() {
+        Map<String, Object> sessions = new LinkedHashMap<>();
+        for (MarketDataSession session : marketDataBroker.sessions()) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("lagMillis", session.lagMillis());
+            stats.put("pending", session.pending());
+            stats.put("sent", session.sent());
+            stats.put("conflated", session.conflated());
+            stats.put("dropped", session.dropped());
+            sessions.put(session.getId(), stats);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("slowDisconnects", marketDataBroker.disconnectedSessions());
+        body.put("sessions", sessions);
+        return body;
+    }
+}
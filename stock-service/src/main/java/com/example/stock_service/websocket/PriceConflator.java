@@ -0,0 +1,119 @@
+package com.example.stock_service.websocket;
+
+import com.example.stock_service.market.DirtySymbols;
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.pipeline.TickHandler;
+import com.example.stock_service.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Map;
+
+/**
+ * Conflates ticks for the WebSocket feed. As the {@code websocket} pipeline stage it
+ * only flips a dirty bit per symbol; on its own cadence this drains the bits and sends a single frame holding
+ * the latest price of every symbol that changed. However many ticks happen in between,
+ * subscribers only ever see the newest state.
+ * <p>
+ * Per-symbol destinations are only published to when the {@link SubscriptionIndex}
+ * says someone is listening, so symbols nobody watches cost nothing beyond the bit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PriceConflator implements TickHandler {
+
+    public static final String STOCK_UPDATES_DESTINATION = "/topic/stock-updates";
+
+    private static final Map<String, Object> BINARY_HEADERS = Map.of(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_OCTET_STREAM);
+
+    private final SymbolTable symbolTable;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SubscriptionIndex subscriptionIndex;
+
+    @Value("${market.max-symbols:65536}")
+    private int capacity;
+
+    @Value("${market.websocket.keyframe-interval:100}")
+    private int keyframeInterval;
+
+    private DirtySymbols dirty;
+
+    // Binary delta state, only touched by the publishing thread
+    private long[] lastBinaryPrice;
+    private long[] binarySequence;
+
+    @PostConstruct
+    public void init() {
+        dirty = new DirtySymbols(capacity);
+        lastBinaryPrice = new long[capacity];
+        binarySequence = new long[capacity];
+    }
+
+    @Override
+    public String stageName() {
+        return "websocket";
+    }
+
+    @Override
+    public void onTick(int symbolId, long price, long sequence, long timestamp) {
+        dirty.mark(symbolId);
+    }
+
+    @Scheduled(fixedRateString = "${market.websocket.conflation-interval-ms:250}")
+    public void publish() {
+        boolean aggregate = subscriptionIndex.hasAllSymbolSubscribers();
+        StringBuilder frame = new StringBuilder(256).append('[');
+        int[] count = new int[1];
+        dirty.drain(symbolTable.size(), id -> {
+            if (aggregate) {
+                if (count[0]++ > 0) {
+                    frame.append(',');
+                }
+                appendUpdate(frame, id);
+            }
+            publishSymbol(id);
+        });
+        if (count[0] == 0) {
+            return;
+        }
+        frame.append(']');
+        messagingTemplate.convertAndSend(STOCK_UPDATES_DESTINATION, frame.toString());
+        log.debug("Sent conflated frame with {} symbols", count[0]);
+    }
+
+    private void publishSymbol(int id) {
+        String symbol = symbolTable.symbol(id);
+        if (subscriptionIndex.hasJsonSubscribers(symbol)) {
+            StringBuilder update = new StringBuilder(64);
+            appendUpdate(update, id);
+            messagingTemplate.convertAndSend(SubscriptionIndex.SYMBOL_PREFIX + symbol, update.toString());
+        }
+        if (subscriptionIndex.hasBinarySubscribers(symbol)) {
+            long price = symbolTable.price(id);
+            long sequence = ++binarySequence[id];
+            boolean keyframe = subscriptionIndex.takeKeyframeRequest(symbol) || (sequence - 1) % keyframeInterval == 0;
+            byte[] payload = keyframe
+                    ? BinaryPriceFrame.keyFrame(sequence, price)
+                    : BinaryPriceFrame.deltaFrame(sequence, price - lastBinaryPrice[id]);
+            lastBinaryPrice[id] = price;
+            // octet-stream makes the STOMP handler send a binary WebSocket frame
+            messagingTemplate.convertAndSend(SubscriptionIndex.SYMBOL_PREFIX + symbol + SubscriptionIndex.BINARY_SUFFIX, payload,
+                    BINARY_HEADERS);
+        }
+    }
+
+    private void appendUpdate(StringBuilder frame, int id) {
+        frame.append("{\"Stock Name\": \"").append(symbolTable.stockName(id))
+                .append("\", \"symbol\": \"").append(symbolTable.symbol(id))
+                .append("\", \"price\": \"").append(FixedPoint.toBigDecimal(symbolTable.price(id)).toPlainString())
+                .append("\"}");
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.stock_service.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks who listens to which price destinations so the publisher only builds frames
+ * that somebody will receive. Destinations understood:
+ * <ul>
+ *     <li>{@code /topic/stock-updates} - conflated JSON frame for all symbols</li>
+ *     <li>{@code /topic/stock-updates/{symbol}} - JSON update for one symbol</li>
+ *     <li>{@code /topic/stock-updates/{symbol}/binary} - delta-encoded binary frames, only
+ *     over the plain WebSocket endpoint</li>
+ *     <li>{@code /topic/depth/{symbol}} - incremental order-book depth</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class SubscriptionIndex {
+
+    static final String SYMBOL_PREFIX = PriceConflator.STOCK_UPDATES_DESTINATION + "/";
+    static final String BINARY_SUFFIX = "/binary";
+    public static final String DEPTH_PREFIX = "/topic/depth/";
+
+    private final AtomicInteger allSymbolSubscribers = new AtomicInteger();
+    private final Map<String, AtomicInteger> jsonSubscribers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> binarySubscribers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> depthSubscribers = new ConcurrentHashMap<>();
+    private final Set<String> keyframeRequests = ConcurrentHashMap.newKeySet();
+
+    // sessionId -> subscriptionId -> destination, needed to undo on unsubscribe/disconnect
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (destination == null || !(destination.startsWith(PriceConflator.STOCK_UPDATES_DESTINATION)
+                || destination.startsWith(DEPTH_PREFIX))) {
+            return;
+        }
+        sessions.computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), destination);
+        adjust(destination, 1);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = sessions.get(accessor.getSessionId());
+        if (subscriptions == null) {
+            return;
+        }
+        String destination = subscriptions.remove(accessor.getSubscriptionId());
+        if (destination != null) {
+            adjust(destination, -1);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(destination -> adjust(destination, -1));
+        }
+    }
+
+    public boolean hasAllSymbolSubscribers() {
+        return allSymbolSubscribers.get() > 0;
+    }
+
+    public boolean hasJsonSubscribers(String symbol) {
+        AtomicInteger count = jsonSubscribers.get(symbol);
+        return count != null && count.get() > 0;
+    }
+
+    public boolean hasBinarySubscribers(String symbol) {
+        AtomicInteger count = binarySubscribers.get(symbol);
+        return count != null && count.get() > 0;
+    }
+
+    public boolean hasDepthSubscribers(String symbol) {
+        AtomicInteger count = depthSubscribers.get(symbol);
+        return count != null && count.get() > 0;
+    }
+
+    /**
+     * A new binary subscriber has no base price to apply deltas to, so the next binary
+     * frame for that symbol has to be a key frame. Requested by the
+     * {@link BinarySubscriptionInterceptor} once the subscription is registered.
+     */
+    public void requestKeyframe(String symbol) {
+        keyframeRequests.add(symbol);
+    }
+
+    public boolean takeKeyframeRequest(String symbol) {
+        return keyframeRequests.remove(symbol);
+    }
+
+    /**
+     * The symbol of a {@code /topic/stock-updates/{symbol}/binary} destination, or null.
+     */
+    static String binarySymbol(String destination) {
+        if (destination == null || !destination.startsWith(SYMBOL_PREFIX) || !destination.endsWith(BINARY_SUFFIX)) {
+            return null;
+        }
+        return destination.substring(SYMBOL_PREFIX.length(), destination.length() - BINARY_SUFFIX.length());
+    }
+
+    private void adjust(String destination, int delta) {
+        if (destination.equals(PriceConflator.STOCK_UPDATES_DESTINATION)) {
+            allSymbolSubscribers.addAndGet(delta);
+            return;
+        }
+        if (destination.startsWith(DEPTH_PREFIX)) {
+            depthSubscribers.computeIfAbsent(destination.substring(DEPTH_PREFIX.length()), s -> new AtomicInteger()).addAndGet(delta);
+            return;
+        }
+        if (!destination.startsWith(SYMBOL_PREFIX)) {
+            return;
+        }
+        String symbol = destination.substring(SYMBOL_PREFIX.length());
+        if (symbol.endsWith(BINARY_SUFFIX)) {
+            symbol = symbol.substring(0, symbol.length() - BINARY_SUFFIX.length());
+            binarySubscribers.computeIfAbsent(symbol, s -> new AtomicInteger()).addAndGet(delta);
+        } else {
+            jsonSubscribers.computeIfAbsent(symbol, s -> new AtomicInteger()).addAndGet(delta);
+        }
+        log.debug("Subscribers for {} changed by {}", destination, delta);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.stock_service.kafka;
+
+import com.example.stock_service.util.FixedPoint;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary {@link PriceTickCodec} frames against the legacy JSON message, one tick per
+ * operation. Encoding mirrors {@link KafkaTickPublisher}: the binary path is shown both
+ * into a reused buffer and with the fresh array each Kafka record needs. Decoding mirrors
+ * order-service: flyweight reads for binary, a streaming Jackson parse for JSON.
+ * <p>
+ * {@link #main} adds the GC profiler, whose {@code gc.alloc.rate.norm} is the bytes
+ * allocated per tick. Run with {@code mvn test-compile} and then {@code main} on the test
+ * classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceTickCodecBenchmark {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final byte[] buffer = new byte[PriceTickCodec.LENGTH];
+    private long price = 1_523_400L;
+    private byte[] binaryTick;
+    private byte[] jsonTick;
+
+    @Setup
+    public void setUp() {
+        binaryTick = new byte[PriceTickCodec.LENGTH];
+        PriceTickCodec.encode(binaryTick, 0, 42, price, 1_000, 1_760_000_000_000L);
+        jsonTick = PriceTickCodec.encodeJson("Acme Corporation", "ACME", FixedPoint.toBigDecimal(price).toPlainString());
+    }
+
+    @Benchmark
+    public byte[] encodeBinaryReused() {
+        PriceTickCodec.encode(buffer, 0, 42, ++price, price, 1_760_000_000_000L);
+        return buffer;
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        byte[] payload = new byte[PriceTickCodec.LENGTH];
+        PriceTickCodec.encode(payload, 0, 42, ++price, price, 1_760_000_000_000L);
+        return payload;
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return PriceTickCodec.encodeJson("Acme Corporation", "ACME", FixedPoint.toBigDecimal(++price).toPlainString());
+    }
+
+    @Benchmark
+    public void decodeBinary(Blackhole blackhole) {
+        if (PriceTickCodec.isBinary(binaryTick)) {
+            blackhole.consume(PriceTickCodec.price(binaryTick));
+            blackhole.consume(PriceTickCodec.sequence(binaryTick));
+            blackhole.consume(PriceTickCodec.timestamp(binaryTick));
+        }
+    }
+
+    @Benchmark
+    public void decodeJson(Blackhole blackhole) throws IOException {
+        String symbol = null;
+        BigDecimal decimal = null;
+        try (JsonParser parser = JSON.createParser(jsonTick)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("symbol".equals(field)) {
+                    symbol = parser.getValueAsString();
+                } else if ("price".equals(field)) {
+                    decimal = new BigDecimal(parser.getValueAsString());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        blackhole.consume(symbol);
+        blackhole.consume(FixedPoint.toTicks(decimal));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PriceTickCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
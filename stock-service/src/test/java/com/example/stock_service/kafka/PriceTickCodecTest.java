@@ -0,0 +1,45 @@
+package com.example.stock_service.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceTickCodecTest {
+
+    @Test
+    void roundTripsAtAnOffset() {
+        byte[] buffer = new byte[PriceTickCodec.LENGTH + 3];
+
+        PriceTickCodec.encode(buffer, 3, 42, -1L, Long.MAX_VALUE, 1_760_000_000_000L);
+
+        ByteBuffer view = ByteBuffer.wrap(buffer, 3, PriceTickCodec.LENGTH);
+        assertThat(view.get()).isEqualTo(PriceTickCodec.MAGIC);
+        assertThat(view.get()).isEqualTo(PriceTickCodec.VERSION);
+        assertThat(view.getInt()).isEqualTo(42);
+        assertThat(view.getLong()).isEqualTo(-1L);
+        assertThat(view.getLong()).isEqualTo(Long.MAX_VALUE);
+        assertThat(view.getLong()).isEqualTo(1_760_000_000_000L);
+    }
+
+    @Test
+    void readsBackWhatItWrites() {
+        byte[] tick = new byte[PriceTickCodec.LENGTH];
+
+        PriceTickCodec.encode(tick, 0, 7, 1_234_500L, 99L, 1_000L);
+
+        assertThat(PriceTickCodec.isBinary(tick)).isTrue();
+        assertThat(PriceTickCodec.price(tick)).isEqualTo(1_234_500L);
+        assertThat(PriceTickCodec.sequence(tick)).isEqualTo(99L);
+        assertThat(PriceTickCodec.timestamp(tick)).isEqualTo(1_000L);
+    }
+
+    @Test
+    void legacyJsonIsNotBinary() {
+        byte[] json = PriceTickCodec.encodeJson("Acme Corp", "ACME", "12.5000");
+
+        assertThat(PriceTickCodec.isBinary(json)).isFalse();
+        assertThat(PriceTickCodec.isBinary(null)).isFalse();
+    }
+}
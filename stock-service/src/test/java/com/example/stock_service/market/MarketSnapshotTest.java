@@ -0,0 +1,77 @@
+package com.example.stock_service.market;
+
+import com.example.stock_service.entity.Stock;
+import com.example.stock_service.repository.StockRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MarketSnapshotTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SymbolTable symbolTable;
+    private MarketSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        StockRepository repository = mock(StockRepository.class);
+        when(repository.findAll()).thenReturn(List.of(
+                new Stock("s1", "Acme \"Widgets\" Inc", new BigDecimal("100.5"), "Tech", "ACME"),
+                new Stock("s2", null, new BigDecimal("0.0001"), "Energy", "BETA"),
+                new Stock("s3", "Gamma", new BigDecimal("12"), "tech", "GAMA")));
+        symbolTable = new SymbolTable(repository);
+        ReflectionTestUtils.setField(symbolTable, "capacity", 8);
+        symbolTable.load();
+        snapshot = new MarketSnapshot(symbolTable);
+    }
+
+    @Test
+    void writesValidJsonWithEscapedStringsAndPlainPrices() throws Exception {
+        snapshot.rebuild();
+
+        JsonNode all = objectMapper.readTree(snapshot.get().body(null));
+
+        assertThat(all).hasSize(3);
+        assertThat(all.get(0).get("stockName").asText()).isEqualTo("Acme \"Widgets\" Inc");
+        assertThat(all.get(0).get("price").decimalValue()).isEqualByComparingTo("100.5");
+        assertThat(all.get(1).get("stockName").isNull()).isTrue();
+        assertThat(new String(snapshot.get().body(""))).contains("\"price\":0.0001");
+    }
+
+    @Test
+    void groupsCategoriesCaseInsensitively() throws Exception {
+        snapshot.rebuild();
+
+        JsonNode tech = objectMapper.readTree(snapshot.get().body("TECH"));
+
+        assertThat(tech).extracting(node -> node.get("symbol").asText()).containsExactly("ACME", "GAMA");
+        assertThat(new String(snapshot.get().body("crypto"))).isEqualTo("[]");
+    }
+
+    @Test
+    void keepsVersionsUntilASymbolInThatBodyTicks() {
+        snapshot.rebuild();
+        MarketSnapshot.Snapshot first = snapshot.get();
+
+        snapshot.rebuild();
+        assertThat(snapshot.get()).isSameAs(first);
+
+        symbolTable.updatePrice(1, 20_000L, 1_000L);
+        snapshot.rebuild();
+        MarketSnapshot.Snapshot second = snapshot.get();
+
+        assertThat(second.version(null)).isNotEqualTo(first.version(null));
+        assertThat(second.version("energy")).isNotEqualTo(first.version("energy"));
+        assertThat(second.version("tech")).isEqualTo(first.version("tech"));
+        assertThat(second.body("tech")).isEqualTo(first.body("tech"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.stock_service.market;
+
+import com.example.stock_service.market.shard.ShardAssignment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PricePersisterTest {
+
+    private final SymbolTable symbolTable = mock(SymbolTable.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ShardAssignment shardAssignment = mock(ShardAssignment.class);
+    // Copies, since the persister reuses its batch list
+    private final List<List<Object[]>> writes = new ArrayList<>();
+    private int failingWrites;
+    private PricePersister persister;
+
+    @BeforeEach
+    void setUp() {
+        when(symbolTable.size()).thenReturn(4);
+        for (int id = 0; id < 4; id++) {
+            when(symbolTable.stockId(id)).thenReturn("stock-" + id);
+            when(symbolTable.price(id)).thenReturn(1_000_000L * (id + 1));
+        }
+        when(shardAssignment.owns(anyInt())).thenReturn(true);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            if (failingWrites > 0) {
+                failingWrites--;
+                throw new QueryTimeoutException("timeout");
+            }
+            writes.add(new ArrayList<>(invocation.<List<Object[]>>getArgument(1)));
+            return new int[0];
+        });
+        persister = new PricePersister(symbolTable, jdbcTemplate, shardAssignment);
+        ReflectionTestUtils.setField(persister, "capacity", 64);
+        ReflectionTestUtils.setField(persister, "batchSize", 2);
+        persister.init();
+    }
+
+    @Test
+    void writesOnlyTheLatestPriceOfSymbolsThatTicked() {
+        persister.onTick(2, 1L, 1, 0);
+        persister.onTick(2, 2L, 2, 0);
+        persister.onTick(0, 3L, 1, 0);
+
+        persister.flush();
+
+        assertThat(writes).hasSize(1);
+        assertThat(writes.get(0)).extracting(row -> row[1]).containsExactly("stock-0", "stock-2");
+        assertThat(writes.get(0).get(1)[0]).isEqualTo(new BigDecimal("300.0000"));
+
+        persister.flush();
+        assertThat(writes).hasSize(1);
+    }
+
+    @Test
+    void failedBatchIsRetriedOnTheNextFlush() {
+        failingWrites = 1;
+        persister.onTick(1, 1L, 1, 0);
+        persister.onTick(3, 1L, 1, 0);
+
+        persister.flush();
+        assertThat(writes).isEmpty();
+        persister.flush();
+
+        assertThat(writes).hasSize(1);
+        assertThat(writes.get(0)).extracting(row -> row[1]).containsExactly("stock-1", "stock-3");
+    }
+
+    @Test
+    void leavesSymbolsOwnedByOtherInstancesToThem() {
+        when(shardAssignment.owns(1)).thenReturn(false);
+        persister.onTick(1, 1L, 1, 0);
+
+        persister.flush();
+
+        assertThat(writes).isEmpty();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.stock_service.market;
+
+import com.example.stock_service.entity.Stock;
+import com.example.stock_service.market.search.SymbolSearchIndex;
+import com.example.stock_service.repository.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SymbolRegistrarTest {
+
+    private final StockRepository stockRepository = mock(StockRepository.class);
+    private final SymbolSearchIndex symbolSearchIndex = mock(SymbolSearchIndex.class);
+    private SymbolTable symbolTable;
+    private SymbolRegistrar registrar;
+
+    @BeforeEach
+    void setUp() {
+        when(stockRepository.findAll()).thenReturn(List.of(stock("ACME")));
+        symbolTable = new SymbolTable(stockRepository);
+        ReflectionTestUtils.setField(symbolTable, "capacity", 8);
+        symbolTable.load();
+        registrar = new SymbolRegistrar(symbolTable, symbolSearchIndex, stockRepository);
+        ReflectionTestUtils.setField(registrar, "retryIntervalMillis", 60_000L);
+    }
+
+    @Test
+    void registersASymbolFirstSeenOnATopic() {
+        when(stockRepository.findBySymbol("NEWC")).thenReturn(Optional.of(stock("NEWC")));
+
+        int id = registrar.resolve("NEWC");
+
+        assertThat(id).isEqualTo(1);
+        assertThat(symbolTable.idOf("NEWC")).isEqualTo(1);
+        assertThat(registrar.resolve("NEWC")).isEqualTo(1);
+        verify(stockRepository, times(1)).findBySymbol("NEWC");
+        verify(symbolSearchIndex).add(1);
+    }
+
+    @Test
+    void doesNotQueryAMissingSymbolAgainUntilTheRetryInterval() {
+        when(stockRepository.findBySymbol("GONE")).thenReturn(Optional.empty());
+
+        assertThat(registrar.resolve("GONE")).isEqualTo(-1);
+        assertThat(registrar.resolve("GONE")).isEqualTo(-1);
+        verify(stockRepository, times(1)).findBySymbol("GONE");
+
+        ReflectionTestUtils.setField(registrar, "retryIntervalMillis", 0L);
+        registrar.resolve("GONE");
+        verify(stockRepository, times(2)).findBySymbol("GONE");
+    }
+
+    @Test
+    void refreshRegistersOnlyStocksTheTableLacks() {
+        when(stockRepository.findAll()).thenReturn(List.of(stock("ACME"), stock("BETA"), stock("GAMA")));
+
+        registrar.refresh();
+        registrar.refresh();
+
+        assertThat(symbolTable.size()).isEqualTo(3);
+        assertThat(symbolTable.idOf("GAMA")).isEqualTo(2);
+        verify(symbolSearchIndex).add(1);
+        verify(symbolSearchIndex).add(2);
+    }
+
+    private static Stock stock(String symbol) {
+        return new Stock(symbol.toLowerCase(), symbol + " Corp", new BigDecimal("10.00"), "Tech", symbol);
+    }
+}
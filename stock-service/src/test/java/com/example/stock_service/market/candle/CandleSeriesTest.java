@@ -0,0 +1,74 @@
+package com.example.stock_service.market.candle;
+
+import com.example.stock_service.dto.CandlesDto;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CandleSeriesTest {
+
+    private static final long MINUTE = CandleInterval.ONE_MINUTE.millis();
+
+    private final CandleSeries series = new CandleSeries(MINUTE, 3);
+
+    @Test
+    void foldsTicksOfOneIntervalIntoOneBar() {
+        series.update(60_500, 1_000_000);
+        series.update(61_000, 1_020_000);
+        series.update(90_000, 990_000);
+        series.update(119_999, 1_005_000);
+
+        CandlesDto candles = series.snapshot("ACME", "1m", 10);
+
+        assertThat(candles.getTime()).containsExactly(60_000);
+        assertThat(candles.getOpen()).containsExactly(100.0);
+        assertThat(candles.getHigh()).containsExactly(102.0);
+        assertThat(candles.getLow()).containsExactly(99.0);
+        assertThat(candles.getClose()).containsExactly(100.5);
+        assertThat(candles.getVolume()).containsExactly(4);
+    }
+
+    @Test
+    void opensANewBarAtTheIntervalBoundaryAndSkipsEmptyIntervals() {
+        series.update(119_999, 1_000_000);
+        series.update(120_000, 1_010_000);
+        series.update(5 * MINUTE + 1, 1_030_000);
+
+        CandlesDto candles = series.snapshot("ACME", "1m", 10);
+
+        assertThat(candles.getTime()).containsExactly(MINUTE, 2 * MINUTE, 5 * MINUTE);
+        assertThat(candles.getOpen()).containsExactly(100.0, 101.0, 103.0);
+        assertThat(candles.getVolume()).containsExactly(1, 1, 1);
+    }
+
+    @Test
+    void ignoresTicksForABarThatHasClosed() {
+        series.update(2 * MINUTE, 1_000_000);
+        series.update(MINUTE + 5, 2_000_000);
+        series.update(2 * MINUTE + 1, 1_000_000);
+
+        CandlesDto candles = series.snapshot("ACME", "1m", 10);
+
+        assertThat(candles.getTime()).containsExactly(2 * MINUTE);
+        assertThat(candles.getHigh()).containsExactly(100.0);
+        assertThat(candles.getVolume()).containsExactly(2);
+    }
+
+    @Test
+    void keepsTheNewestBarsOnceFullAndHonoursTheLimit() {
+        for (int minute = 0; minute < 5; minute++) {
+            series.update(minute * MINUTE, 1_000_000 + minute * 10_000L);
+        }
+
+        assertThat(series.snapshot("ACME", "1m", 10).getTime()).containsExactly(2 * MINUTE, 3 * MINUTE, 4 * MINUTE);
+        assertThat(series.snapshot("ACME", "1m", 2).getClose()).containsExactly(103.0, 104.0);
+        assertThat(series.snapshot("ACME", "1m", -1).getTime()).isEmpty();
+    }
+
+    @Test
+    void parsesIntervalCodes() {
+        assertThat(CandleInterval.fromCode("5m")).isEqualTo(CandleInterval.FIVE_MINUTES);
+        assertThatThrownBy(() -> CandleInterval.fromCode("2m")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
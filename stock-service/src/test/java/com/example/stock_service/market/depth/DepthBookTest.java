@@ -0,0 +1,84 @@
+package com.example.stock_service.market.depth;
+
+import com.example.stock_service.dto.DepthDto;
+import com.example.stock_service.kafka.DepthUpdateCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DepthBookTest {
+
+    private static final long TICK = 100;
+
+    @Test
+    void firstUpdateInsertsEveryLevelBestFirst() {
+        DepthBook book = new DepthBook(5, TICK, 100, 1);
+        DepthUpdates updates = new DepthUpdates(4);
+
+        long sequence = book.update(10_050, updates);
+
+        assertThat(sequence).isEqualTo(1);
+        assertThat(updates.count()).isEqualTo(10);
+        for (int i = 0; i < updates.count(); i++) {
+            assertThat(updates.action(i)).isEqualTo(DepthUpdates.INSERT);
+        }
+        DepthDto depth = book.snapshot("ACME");
+        assertThat(depth.getBidPrices()).extracting(price -> price.movePointRight(4).longValueExact())
+                .containsExactly(10_000L, 9_900L, 9_800L, 9_700L, 9_600L);
+        assertThat(depth.getAskPrices()[0].movePointRight(4).longValueExact()).isGreaterThan(10_000L);
+    }
+
+    @Test
+    void updatesRebuildTheBookOnAReplica() {
+        DepthBook source = new DepthBook(10, TICK, 100, 42);
+        DepthBook replica = new DepthBook(10, TICK, 100, 7);
+        DepthUpdates updates = new DepthUpdates(4);
+        DepthUpdates decoded = new DepthUpdates(4);
+        SplittableRandom random = new SplittableRandom(3);
+        long price = 1_000_000;
+
+        int published = 0;
+        for (int i = 0; i < 2_000; i++) {
+            price = Math.max(TICK * 2, price + random.nextLong(-5 * TICK, 5 * TICK + 1));
+            long sequence = source.update(price, updates);
+            if (updates.count() == 0) {
+                continue;
+            }
+            published++;
+            // Replica only sees what goes over the wire
+            byte[] message = DepthUpdateCodec.encode(3, sequence, i, updates);
+            assertThat(DepthUpdateCodec.sequence(message)).isEqualTo(sequence);
+            DepthUpdateCodec.decode(message, decoded);
+            replica.apply(DepthUpdateCodec.sequence(message), decoded);
+        }
+
+        DepthDto expected = source.snapshot("ACME");
+        DepthDto actual = replica.snapshot("ACME");
+        assertThat(actual.getSequence()).isEqualTo(expected.getSequence()).isEqualTo(published);
+        assertThat(actual.getBidPrices()).isEqualTo(expected.getBidPrices());
+        assertThat(actual.getBidSizes()).isEqualTo(expected.getBidSizes());
+        assertThat(actual.getAskPrices()).isEqualTo(expected.getAskPrices());
+        assertThat(actual.getAskSizes()).isEqualTo(expected.getAskSizes());
+    }
+
+    @Test
+    void deletesLevelsThatFallOutOfRange() {
+        DepthBook book = new DepthBook(3, TICK, 100, 9);
+        DepthUpdates updates = new DepthUpdates(4);
+        book.update(10_050, updates);
+
+        book.update(10_350, updates);
+
+        int deletes = 0;
+        for (int i = 0; i < updates.count(); i++) {
+            if (updates.action(i) == DepthUpdates.DELETE) {
+                assertThat(updates.size(i)).isZero();
+                deletes++;
+            }
+        }
+        assertThat(deletes).isPositive();
+        assertThat(book.snapshot("ACME").getBidPrices()).hasSize(3);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.stock_service.market.journal;
+
+import com.example.stock_service.dto.TickDto;
+import com.example.stock_service.market.SymbolTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TickJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private TickJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void recoversRecordsAndKeepsAppendingAfterRestart() throws IOException {
+        journal = open("ACME", "BETA");
+        for (int i = 1; i <= 10; i++) {
+            journal.onTick(i % 2, 10_000L * i, i, 1_000L * i);
+        }
+        journal.close();
+        assertThat(segmentFiles()).isEqualTo(3);
+
+        // Table ids differ after the restart; the journal maps symbols through its own dictionary
+        journal = open("BETA", "ACME");
+        assertThat(journal.query("ACME", 0, Long.MAX_VALUE, 100)).extracting(TickDto::getSequence)
+                .containsExactly(2L, 4L, 6L, 8L, 10L);
+
+        journal.onTick(1, 110_000L, 11, 11_000L);
+        journal.onTick(1, 120_000L, 12, 12_000L);
+
+        assertThat(segmentFiles()).isEqualTo(3);
+        List<TickDto> acme = journal.query("ACME", 0, Long.MAX_VALUE, 100);
+        assertThat(acme).extracting(TickDto::getSequence).containsExactly(2L, 4L, 6L, 8L, 10L, 11L, 12L);
+        assertThat(acme.get(5).getPrice()).isEqualByComparingTo("11");
+        assertThat(journal.query("BETA", 0, Long.MAX_VALUE, 100)).extracting(TickDto::getSequence)
+                .containsExactly(1L, 3L, 5L, 7L, 9L);
+    }
+
+    @Test
+    void queriesATimeRangeUpToTheLimit() throws IOException {
+        journal = open("ACME");
+        for (int i = 1; i <= 10; i++) {
+            journal.onTick(0, 10_000L * i, i, 1_000L * i);
+        }
+
+        assertThat(journal.query("ACME", 3_000, 7_000, 100)).extracting(TickDto::getTimestamp)
+                .containsExactly(3_000L, 4_000L, 5_000L, 6_000L, 7_000L);
+        assertThat(journal.query("ACME", 3_000, 7_000, 2)).extracting(TickDto::getSequence).containsExactly(3L, 4L);
+        assertThat(journal.query("ACME", 20_000, 30_000, 100)).isEmpty();
+        assertThat(journal.query("NONE", 0, Long.MAX_VALUE, 100)).isEmpty();
+    }
+
+    @Test
+    void dropsSegmentsPastRetentionButNotTheCurrentOne() throws IOException {
+        journal = open("ACME");
+        for (int i = 1; i <= 6; i++) {
+            journal.onTick(0, 10_000L * i, i, i);
+        }
+        long now = System.currentTimeMillis();
+        journal.onTick(0, 70_000L, 7, now);
+
+        journal.enforceRetention();
+
+        assertThat(segmentFiles()).isEqualTo(1);
+        assertThat(journal.query("ACME", 0, Long.MAX_VALUE, 100)).extracting(TickDto::getSequence).containsExactly(5L, 6L, 7L);
+    }
+
+    private TickJournal open(String... symbols) throws IOException {
+        SymbolTable symbolTable = mock(SymbolTable.class);
+        for (int id = 0; id < symbols.length; id++) {
+            when(symbolTable.symbol(id)).thenReturn(symbols[id]);
+        }
+        TickJournal opened = new TickJournal(symbolTable);
+        ReflectionTestUtils.setField(opened, "directory", directory.toString());
+        ReflectionTestUtils.setField(opened, "segmentRecords", 4);
+        ReflectionTestUtils.setField(opened, "indexInterval", 2);
+        ReflectionTestUtils.setField(opened, "retentionHours", 1L);
+        ReflectionTestUtils.setField(opened, "capacity", 16);
+        opened.open();
+        return opened;
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).count();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.stock_service.market.search;
+
+import com.example.stock_service.entity.Stock;
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.repository.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SymbolSearchIndexTest {
+
+    private SymbolTable symbolTable;
+    private SymbolSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        StockRepository repository = mock(StockRepository.class);
+        when(repository.findAll()).thenReturn(List.of(
+                stock("APPF", "AppFolio Inc", "Technology"),
+                stock("AAPL", "Apple Inc", "Technology"),
+                stock("APP", "AppLovin Corp", "Technology"),
+                stock("JPM", "JPMorgan Chase & Co", "Finance"),
+                stock("MAPP", "Map Apparel Holdings", "Consumer")));
+        symbolTable = new SymbolTable(repository);
+        ReflectionTestUtils.setField(symbolTable, "capacity", 16);
+        symbolTable.load();
+        index = new SymbolSearchIndex(symbolTable);
+        index.build();
+    }
+
+    @Test
+    void ranksExactSymbolThenSymbolPrefixThenNamePrefix() {
+        // name matches follow in key order: "apparel holdings" before "apple inc"
+        assertThat(symbols(index.search("app", null, 10))).containsExactly("APP", "APPF", "MAPP", "AAPL");
+    }
+
+    @Test
+    void matchesLaterWordsOfTheNameCaseInsensitively() {
+        assertThat(symbols(index.search("CHASE", null, 10))).containsExactly("JPM");
+        assertThat(symbols(index.search("inc", null, 10))).containsExactlyInAnyOrder("APPF", "AAPL");
+        assertThat(symbols(index.search("pple", null, 10))).isEmpty();
+    }
+
+    @Test
+    void filtersByCategoryAndHonoursTheLimit() {
+        assertThat(symbols(index.search("app", "consumer", 10))).containsExactly("MAPP");
+        assertThat(symbols(index.search("", "technology", 10))).containsExactly("APPF", "AAPL", "APP");
+        assertThat(index.search("app", null, 2)).hasSize(2);
+        assertThat(index.search("app", "energy", 10)).isEmpty();
+    }
+
+    @Test
+    void findsSymbolsAddedAfterTheBuild() {
+        int id = symbolTable.register(stock("APPN", "Appian Corp", "Technology"));
+        index.add(id);
+        index.add(id);
+
+        assertThat(symbols(index.search("appn", null, 10))).containsExactly("APPN");
+        assertThat(symbols(index.search("appi", null, 10))).containsExactly("APPN");
+        assertThat(symbols(index.search("corp", "technology", 10))).containsExactlyInAnyOrder("APP", "APPN");
+    }
+
+    private List<String> symbols(int[] ids) {
+        return Arrays.stream(ids).mapToObj(symbolTable::symbol).toList();
+    }
+
+    private static Stock stock(String symbol, String name, String category) {
+        return new Stock(symbol.toLowerCase(), name, BigDecimal.TEN, category, symbol);
+    }
+}
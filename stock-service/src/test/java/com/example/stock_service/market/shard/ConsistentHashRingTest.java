@@ -0,0 +1,58 @@
+package com.example.stock_service.market.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final int SYMBOLS = 10_000;
+
+    @Test
+    void everyInstanceBuildsTheSameRing() {
+        ConsistentHashRing one = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        ConsistentHashRing other = new ConsistentHashRing(List.of("c", "a", "b"), 128);
+
+        for (int i = 0; i < SYMBOLS; i++) {
+            assertThat(other.ownerOf("SYM" + i)).isEqualTo(one.ownerOf("SYM" + i));
+        }
+    }
+
+    @Test
+    void spreadsSymbolsEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c", "d"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < SYMBOLS; i++) {
+            counts.merge(ring.ownerOf("SYM" + i), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(SYMBOLS / 4 * 7 / 10, SYMBOLS / 4 * 13 / 10));
+    }
+
+    @Test
+    void joiningInstanceOnlyTakesSymbolsFromOthers() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c", "d"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < SYMBOLS; i++) {
+            String owner = after.ownerOf("SYM" + i);
+            if (!owner.equals(before.ownerOf("SYM" + i))) {
+                assertThat(owner).isEqualTo("d");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(SYMBOLS / 4 * 7 / 10, SYMBOLS / 4 * 13 / 10);
+    }
+
+    @Test
+    void emptyRingHasNoOwner() {
+        assertThat(new ConsistentHashRing(List.of(), 128).ownerOf("SYM")).isNull();
+    }
+}
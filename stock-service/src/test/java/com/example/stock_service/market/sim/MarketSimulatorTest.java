@@ -0,0 +1,142 @@
+package com.example.stock_service.market.sim;
+
+import com.example.stock_service.entity.Stock;
+import com.example.stock_service.market.SymbolTable;
+import com.example.stock_service.market.shard.ShardAssignment;
+import com.example.stock_service.pipeline.TickPipeline;
+import com.example.stock_service.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MarketSimulatorTest {
+
+    private static final List<Stock> STOCKS = List.of(
+            new Stock("s1", "Acme", new BigDecimal("100.00"), "Tech", "ACME"),
+            new Stock("s2", "Beta", new BigDecimal("50.00"), "Energy", "BETA"),
+            new Stock("s3", "Gamma", new BigDecimal("10.00"), "Retail", "GAMA"));
+
+    private final TickPipeline tickPipeline = mock(TickPipeline.class);
+    private final ShardAssignment shardAssignment = mock(ShardAssignment.class);
+    private final List<MarketSimulator> simulators = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        simulators.forEach(MarketSimulator::shutdown);
+    }
+
+    @Test
+    void sameSeedGivesTheSamePathsWhateverTheShardCount() {
+        ownAll();
+        SymbolTable single = symbolTable();
+        SymbolTable sharded = symbolTable();
+        MarketSimulator one = simulator(single, gbm(), "gbm", 1);
+        MarketSimulator three = simulator(sharded, gbm(), "gbm", 3);
+
+        for (int cycle = 0; cycle < 5; cycle++) {
+            one.tick();
+            three.tick();
+        }
+
+        for (int id = 0; id < STOCKS.size(); id++) {
+            assertThat(sharded.price(id)).isEqualTo(single.price(id));
+            assertThat(sharded.sequence(id)).isEqualTo(5);
+        }
+        assertThat(single.price(0)).isNotEqualTo(1_000_000L);
+    }
+
+    @Test
+    void advancesOnlyTheSymbolsThisInstanceOwns() {
+        when(shardAssignment.ownership(anyInt())).thenReturn(new boolean[]{true, false, true});
+        SymbolTable table = symbolTable();
+        MarketSimulator simulator = simulator(table, gbm(), "gbm", 2);
+
+        simulator.tick();
+
+        assertThat(table.price(1)).isEqualTo(500_000L);
+        assertThat(table.sequence(1)).isZero();
+        verify(tickPipeline, never()).publish(eq(1), anyLong(), anyLong(), anyLong());
+        verify(tickPipeline, times(2)).publish(anyInt(), anyLong(), eq(1L), anyLong());
+    }
+
+    @Test
+    void takesVolatilityFromTheStockCategory() {
+        ownAll();
+        Map<Long, Double> volatilityByPrice = new ConcurrentHashMap<>();
+        PriceModel probe = new PriceModel() {
+            @Override
+            public String modelName() {
+                return "probe";
+            }
+
+            @Override
+            public long next(long price, double volatility, double dt, RandomGenerator random) {
+                volatilityByPrice.put(price, volatility);
+                return price;
+            }
+        };
+
+        simulator(symbolTable(), probe, "probe", 1).tick();
+
+        assertThat(volatilityByPrice).containsEntry(1_000_000L, 0.6).containsEntry(500_000L, 0.3).containsEntry(100_000L, 0.25);
+    }
+
+    private void ownAll() {
+        when(shardAssignment.ownership(anyInt())).thenAnswer(invocation -> {
+            boolean[] owned = new boolean[invocation.<Integer>getArgument(0)];
+            Arrays.fill(owned, true);
+            return owned;
+        });
+    }
+
+    private SymbolTable symbolTable() {
+        StockRepository repository = mock(StockRepository.class);
+        when(repository.findAll()).thenReturn(STOCKS);
+        SymbolTable table = new SymbolTable(repository);
+        ReflectionTestUtils.setField(table, "capacity", 16);
+        table.load();
+        return table;
+    }
+
+    private static PriceModel gbm() {
+        GeometricBrownianMotion model = new GeometricBrownianMotion();
+        ReflectionTestUtils.setField(model, "drift", 0.05);
+        return model;
+    }
+
+    private MarketSimulator simulator(SymbolTable table, PriceModel model, String modelName, int shards) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("market.simulator.volatility.tech", "0.6")
+                .withProperty("market.simulator.volatility.energy", "0.3");
+        MarketSimulator simulator = new MarketSimulator(table, tickPipeline, shardAssignment, List.of(model), environment);
+        ReflectionTestUtils.setField(simulator, "modelName", modelName);
+        ReflectionTestUtils.setField(simulator, "seed", 7L);
+        ReflectionTestUtils.setField(simulator, "shardCount", shards);
+        ReflectionTestUtils.setField(simulator, "defaultVolatility", 0.25);
+        ReflectionTestUtils.setField(simulator, "timeAcceleration", 10_000.0);
+        ReflectionTestUtils.setField(simulator, "tickIntervalMs", 2_000L);
+        ReflectionTestUtils.setField(simulator, "capacity", 16);
+        simulator.init();
+        simulators.add(simulator);
+        return simulator;
+    }
+}
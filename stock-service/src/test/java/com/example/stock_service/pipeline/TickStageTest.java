@@ -0,0 +1,112 @@
+package com.example.stock_service.pipeline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TickStageTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Long> handled = new CopyOnWriteArrayList<>();
+    private TickStage stage;
+    private Thread thread;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (stage != null) {
+            stage.stop();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Test
+    void droppingStageSkipsOverwrittenSlotsAndResumesAtTheOldestLiveTick() throws Exception {
+        TickRingBuffer ring = new TickRingBuffer(8);
+        stage = new TickStage(ring, recorder(), BackpressurePolicy.DROP, 4, registry);
+        for (int i = 0; i < 20; i++) {
+            ring.publish(i % 3, 1_000L + i, i, i);
+        }
+
+        start();
+        awaitHandled(8);
+
+        assertThat(handled).containsExactly(12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L);
+        assertThat(registry.counter("market.pipeline.dropped", "stage", "test").count()).isEqualTo(12);
+        assertThat(stage.lag()).isZero();
+    }
+
+    @Test
+    void blockingStageHoldsProducersOnceTheRingIsFull() throws Exception {
+        TickRingBuffer ring = new TickRingBuffer(4);
+        stage = new TickStage(ring, recorder(), BackpressurePolicy.BLOCK, 2, registry);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 6; i++) {
+                ring.publish(0, 1_000L + i, i, i);
+            }
+        });
+        producer.start();
+
+        producer.join(200);
+        assertThat(producer.isAlive()).isTrue();
+        assertThat(ring.slotVersion(4)).isEqualTo(0);
+
+        start();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        awaitHandled(6);
+
+        assertThat(handled).containsExactly(0L, 1L, 2L, 3L, 4L, 5L);
+        assertThat(registry.counter("market.pipeline.dropped", "stage", "test").count()).isZero();
+    }
+
+    @Test
+    void slotVersionIsTwiceTheSequenceOncePublished() {
+        TickRingBuffer ring = new TickRingBuffer(4);
+        assertThat(ring.slotVersion(0)).isEqualTo(-1);
+
+        ring.publish(7, 1_500L, 42, 99);
+        for (int i = 1; i < 6; i++) {
+            ring.publish(7, 1_500L, 42, 99);
+        }
+
+        assertThat(ring.slotVersion(5)).isEqualTo(10);
+        assertThat(ring.slotVersion(1)).isEqualTo(10);
+        assertThat(ring.symbolId(5)).isEqualTo(7);
+        assertThat(ring.tickSequence(5)).isEqualTo(42);
+        assertThatThrownBy(() -> new TickRingBuffer(6)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private TickHandler recorder() {
+        return new TickHandler() {
+            @Override
+            public String stageName() {
+                return "test";
+            }
+
+            @Override
+            public void onTick(int symbolId, long price, long sequence, long timestamp) {
+                handled.add(sequence);
+            }
+        };
+    }
+
+    private void start() {
+        thread = new Thread(stage, "tick-stage-test");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void awaitHandled(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (handled.size() < count && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        TimeUnit.MILLISECONDS.sleep(20);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.stock_service.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryPriceFrameTest {
+
+    @Test
+    void keyFrameCarriesAbsolutePrice() {
+        byte[] frame = BinaryPriceFrame.keyFrame(1, 1_234_500L);
+
+        assertThat(frame[0]).isEqualTo(BinaryPriceFrame.KEY_FRAME);
+        long[] decoded = decode(frame);
+        assertThat(decoded[0]).isEqualTo(1);
+        assertThat(decoded[1]).isEqualTo(1_234_500L);
+    }
+
+    @Test
+    void deltaFrameZigZagsSoSmallMovesStaySmall() {
+        byte[] down = BinaryPriceFrame.deltaFrame(300, -100);
+        byte[] up = BinaryPriceFrame.deltaFrame(300, 100);
+
+        assertThat(down[0]).isEqualTo(BinaryPriceFrame.DELTA_FRAME);
+        assertThat(down).hasSize(1 + 2 + 2);
+        assertThat(unzigzag(decode(down)[1])).isEqualTo(-100);
+        assertThat(unzigzag(decode(up)[1])).isEqualTo(100);
+        assertThat(decode(up)[0]).isEqualTo(300);
+    }
+
+    @Test
+    void encodesExtremeValues() {
+        assertThat(unzigzag(decode(BinaryPriceFrame.deltaFrame(Long.MAX_VALUE, Long.MIN_VALUE))[1])).isEqualTo(Long.MIN_VALUE);
+        assertThat(decode(BinaryPriceFrame.keyFrame(Long.MAX_VALUE, Long.MAX_VALUE))).containsExactly(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertThat(BinaryPriceFrame.keyFrame(0, 0)).containsExactly(0, 0, 0);
+    }
+
+    // Sequence and value varints following the type byte, as a client reads them
+    private static long[] decode(byte[] frame) {
+        long[] values = new long[2];
+        int position = 1;
+        for (int i = 0; i < 2; i++) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = frame[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            values[i] = value;
+        }
+        assertThat(position).isEqualTo(frame.length);
+        return values;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.stock_service.websocket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MarketDataSessionTest {
+
+    private static final String ACME = SubscriptionIndex.SYMBOL_PREFIX + "ACME";
+
+    private final WebSocketSession delegate = mock(WebSocketSession.class);
+    private final Queue<Runnable> sender = new ArrayDeque<>();
+    private final List<String> delivered = new ArrayList<>();
+    private MarketDataSession session;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(delegate.isOpen()).thenReturn(true);
+        when(delegate.getId()).thenReturn("s-1");
+        doAnswer(invocation -> {
+            WebSocketMessage<?> message = invocation.getArgument(0);
+            delivered.add(message instanceof TextMessage text ? text.getPayload() : "binary");
+            return null;
+        }).when(delegate).sendMessage(any());
+        session = new MarketDataSession(delegate, sender::add, 2);
+    }
+
+    @Test
+    void keepsOnlyTheLatestJsonPriceFramePerSymbolAndSubscription() throws IOException {
+        session.sendMessage(frame(ACME, "sub-0", "100"));
+        session.sendMessage(frame(ACME, "sub-0", "101"));
+        session.sendMessage(frame(ACME, "sub-1", "101"));
+        session.sendMessage(frame(ACME, "sub-0", "102"));
+        assertThat(session.pending()).isEqualTo(2);
+
+        drain();
+
+        assertThat(delivered).containsExactly(frame(ACME, "sub-0", "102").getPayload(), frame(ACME, "sub-1", "101").getPayload());
+        assertThat(session.conflated()).isEqualTo(2);
+        assertThat(session.sent()).isEqualTo(2);
+        assertThat(session.pending()).isZero();
+        assertThat(session.lagMillis()).isZero();
+    }
+
+    @Test
+    void sendsAggregateFramesInOrderAheadOfConflatedPrices() throws IOException {
+        session.sendMessage(frame(ACME, "sub-0", "100"));
+        session.sendMessage(frame(PriceConflator.STOCK_UPDATES_DESTINATION, "sub-2", "[1]"));
+        session.sendMessage(frame(PriceConflator.STOCK_UPDATES_DESTINATION, "sub-2", "[2]"));
+
+        drain();
+
+        assertThat(delivered).containsExactly(
+                frame(PriceConflator.STOCK_UPDATES_DESTINATION, "sub-2", "[1]").getPayload(),
+                frame(PriceConflator.STOCK_UPDATES_DESTINATION, "sub-2", "[2]").getPayload(),
+                frame(ACME, "sub-0", "100").getPayload());
+        assertThat(session.conflated()).isZero();
+    }
+
+    @Test
+    void closesASessionWhoseFifoOverflows() throws IOException {
+        session.sendMessage(frame(PriceConflator.STOCK_UPDATES_DESTINATION, "sub-2", "[1]"));
+        session.sendMessage(frame(PriceConflator.STOCK_UPDATES_DESTINATION, "sub-2", "[2]"));
+
+        assertThatThrownBy(() -> session.sendMessage(frame(PriceConflator.STOCK_UPDATES_DESTINATION, "sub-2", "[3]")))
+                .isInstanceOf(IOException.class);
+        assertThat(session.dropped()).isEqualTo(1);
+        verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Test
+    void conflatesOnlyPerSymbolJsonMessages() {
+        assertThat(MarketDataSession.conflationKey(frame(ACME, "sub-0", "1"))).isEqualTo(ACME + "|sub-0");
+        assertThat(MarketDataSession.conflationKey(new BinaryMessage(frame(ACME, "sub-0", "1").getPayload().getBytes(StandardCharsets.UTF_8))))
+                .isEqualTo(ACME + "|sub-0");
+        assertThat(MarketDataSession.conflationKey(frame(ACME + SubscriptionIndex.BINARY_SUFFIX, "sub-0", "1"))).isNull();
+        assertThat(MarketDataSession.conflationKey(frame(PriceConflator.STOCK_UPDATES_DESTINATION, "sub-0", "1"))).isNull();
+        assertThat(MarketDataSession.conflationKey(new TextMessage("RECEIPT\nreceipt-id:7\n\n\0"))).isNull();
+    }
+
+    private void drain() {
+        while (!sender.isEmpty()) {
+            sender.poll().run();
+        }
+    }
+
+    private static TextMessage frame(String destination, String subscription, String body) {
+        return new TextMessage("MESSAGE\ndestination:" + destination + "\nsubscription:" + subscription
+                + "\ncontent-type:application/json\n\n" + body + "\0");
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.stock_service.websocket;
+
+import com.example.stock_service.market.SymbolTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PriceConflatorTest {
+
+    private final SymbolTable symbolTable = mock(SymbolTable.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final SubscriptionIndex subscriptionIndex = mock(SubscriptionIndex.class);
+    private PriceConflator conflator;
+
+    @BeforeEach
+    void setUp() {
+        when(symbolTable.size()).thenReturn(2);
+        when(symbolTable.symbol(0)).thenReturn("ACME");
+        when(symbolTable.stockName(0)).thenReturn("Acme Corp");
+        when(symbolTable.symbol(1)).thenReturn("BETA");
+        when(symbolTable.stockName(1)).thenReturn("Beta Inc");
+        conflator = new PriceConflator(symbolTable, messagingTemplate, subscriptionIndex);
+        ReflectionTestUtils.setField(conflator, "capacity", 64);
+        ReflectionTestUtils.setField(conflator, "keyframeInterval", 3);
+        conflator.init();
+    }
+
+    @Test
+    void sendsOneFrameWithTheLatestPriceOfEachChangedSymbol() {
+        when(subscriptionIndex.hasAllSymbolSubscribers()).thenReturn(true);
+        conflator.onTick(1, 1_000_000L, 1, 0);
+        conflator.onTick(1, 1_100_000L, 2, 0);
+        conflator.onTick(0, 2_000_000L, 1, 0);
+        when(symbolTable.price(0)).thenReturn(2_000_000L);
+        when(symbolTable.price(1)).thenReturn(1_100_000L);
+
+        conflator.publish();
+        conflator.publish();
+
+        verify(messagingTemplate, times(1)).convertAndSend(eq(PriceConflator.STOCK_UPDATES_DESTINATION), any(Object.class));
+        verify(messagingTemplate).convertAndSend(PriceConflator.STOCK_UPDATES_DESTINATION, (Object)
+                "[{\"Stock Name\": \"Acme Corp\", \"symbol\": \"ACME\", \"price\": \"200.0000\"},"
+                        + "{\"Stock Name\": \"Beta Inc\", \"symbol\": \"BETA\", \"price\": \"110.0000\"}]");
+    }
+
+    @Test
+    void publishesPerSymbolOnlyToWatchedSymbols() {
+        when(subscriptionIndex.hasJsonSubscribers("BETA")).thenReturn(true);
+        when(symbolTable.price(1)).thenReturn(1_000_000L);
+        conflator.onTick(0, 1L, 1, 0);
+        conflator.onTick(1, 1_000_000L, 1, 0);
+
+        conflator.publish();
+
+        verify(messagingTemplate).convertAndSend(SubscriptionIndex.SYMBOL_PREFIX + "BETA", (Object)
+                "{\"Stock Name\": \"Beta Inc\", \"symbol\": \"BETA\", \"price\": \"100.0000\"}");
+        verify(messagingTemplate, never()).convertAndSend(eq(PriceConflator.STOCK_UPDATES_DESTINATION), any(Object.class));
+        verify(messagingTemplate, never()).convertAndSend(eq(SubscriptionIndex.SYMBOL_PREFIX + "ACME"), any(Object.class));
+    }
+
+    @Test
+    void binarySubscribersGetDeltasBetweenPeriodicKeyframes() {
+        when(subscriptionIndex.hasBinarySubscribers("ACME")).thenReturn(true);
+        long[] prices = {1_000_000L, 1_000_100L, 999_900L, 1_000_000L};
+        for (int i = 0; i < prices.length; i++) {
+            when(symbolTable.price(0)).thenReturn(prices[i]);
+            conflator.onTick(0, prices[i], i + 1, 0);
+            conflator.publish();
+        }
+
+        ArgumentCaptor<Object> frames = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(4)).convertAndSend(eq(SubscriptionIndex.SYMBOL_PREFIX + "ACME" + SubscriptionIndex.BINARY_SUFFIX),
+                frames.capture(), anyMap());
+        assertThat(frames.getAllValues()).containsExactly(
+                BinaryPriceFrame.keyFrame(1, 1_000_000L),
+                BinaryPriceFrame.deltaFrame(2, 100),
+                BinaryPriceFrame.deltaFrame(3, -200),
+                BinaryPriceFrame.keyFrame(4, 1_000_000L));
+    }
+
+    @Test
+    void sendsNothingWhenNoSymbolTicked() {
+        when(subscriptionIndex.hasAllSymbolSubscribers()).thenReturn(true);
+
+        conflator.publish();
+
+        verifyNoInteractions(messagingTemplate);
+    }
+}